@@ -0,0 +1,56 @@
+package com.swookiee.tools.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.swookiee.tools.client.SwookieClientBuilder;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.stub.StubFrameworkServer;
+
+/**
+ * Starts a {@link StubFrameworkServer} and a {@link SwookieeClient} targeting it once per benchmark trial.
+ */
+@State(Scope.Benchmark)
+public abstract class ClientBenchmarkSupport {
+
+    protected StubFrameworkServer stub;
+    protected SwookieeClient client;
+    protected File workDirectory;
+
+    @Setup
+    public void startStub() throws IOException, SwookieeClientException {
+        stub = StubFrameworkServer.start();
+        client = createClient();
+        workDirectory = Files.createTempDirectory("swookiee-benchmark").toFile();
+        prepare();
+    }
+
+    /**
+     * @return a client targeting the started {@link #stub}
+     */
+    protected SwookieeClient createClient() throws IOException, SwookieeClientException {
+        return SwookieClientBuilder.newTarget("localhost").withPort(stub.getPort()).withMaxConnections(16).create();
+    }
+
+    /**
+     * Called once the stub and the client are available.
+     */
+    protected abstract void prepare() throws IOException, SwookieeClientException;
+
+    @TearDown
+    public void stopStub() {
+        client.close();
+        stub.close();
+        for (File file : workDirectory.listFiles()) {
+            file.delete();
+        }
+        workDirectory.delete();
+    }
+}
@@ -0,0 +1,60 @@
+package com.swookiee.tools.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.stub.SyntheticBundles;
+
+/**
+ * Cost of uploading and installing a bundle depending on its size, with and without un-installing the previous
+ * version first.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstallBundleBenchmark extends ClientBenchmarkSupport {
+
+    @Param({ "16", "1024", "8192" })
+    public int jarSizeKb;
+
+    @Param({ "100" })
+    public int installedBundles;
+
+    private File bundle;
+
+    @Override
+    protected void prepare() throws IOException {
+        bundle = SyntheticBundles.create(workDirectory, "com.example.benchmark", "1.0.0", jarSizeKb * 1024);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetInstalledBundles() {
+        stub.reset();
+        stub.addBundles(installedBundles);
+    }
+
+    @Benchmark
+    public String installBundle() throws SwookieeClientException {
+        return client.installBundle(bundle);
+    }
+
+    @Benchmark
+    public String forceInstallBundle() throws SwookieeClientException {
+        return client.installBundle(bundle, true);
+    }
+}
@@ -0,0 +1,40 @@
+package com.swookiee.tools.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation;
+import com.swookiee.tools.client.SwookieeClientException;
+
+/**
+ * Cost of reading the list of installed bundles depending on the number of installed bundles.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListBundlesBenchmark extends ClientBenchmarkSupport {
+
+    @Param({ "10", "100", "1000" })
+    public int bundles;
+
+    @Override
+    protected void prepare() {
+        stub.addBundles(bundles);
+    }
+
+    @Benchmark
+    public List<BundleRepresentation> getInstalledBundles() throws SwookieeClientException {
+        return client.getInstalledBundles();
+    }
+}
@@ -0,0 +1,39 @@
+package com.swookiee.tools.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.stub.SyntheticBundles;
+
+/**
+ * Cost of a single start request for an installed bundle.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StartBundleBenchmark extends ClientBenchmarkSupport {
+
+    private String bundlePath;
+
+    @Override
+    protected void prepare() throws IOException, SwookieeClientException {
+        bundlePath = client.installBundle(SyntheticBundles.create(workDirectory, "com.example.benchmark", "1.0.0",
+                16 * 1024));
+    }
+
+    @Benchmark
+    public void startBundle() throws SwookieeClientException {
+        client.startBundle(bundlePath);
+    }
+}
@@ -0,0 +1,85 @@
+package com.swookiee.tools.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation;
+import com.swookiee.tools.client.SwookieClientBuilder;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.stub.SyntheticBundles;
+import com.swookiee.tools.transport.http2.Http2TransportFactory;
+
+/**
+ * Many threads sharing one client, over the default transport with a pool of HTTP/1.1 connections and over the HTTP/2
+ * transport multiplexing all requests over one connection. Only built on Java 11 and later.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class TransportBenchmark extends ClientBenchmarkSupport {
+
+    @Param({ "http1", "http2" })
+    public String transport;
+
+    /** Connections of the HTTP/1.1 pool, the HTTP/2 transport always uses one. */
+    @Param({ "4", "16" })
+    public int connections;
+
+    @Param({ "16" })
+    public int jarSizeKb;
+
+    @Param({ "100" })
+    public int installedBundles;
+
+    private File bundle;
+
+    @Override
+    protected SwookieeClient createClient() throws IOException, SwookieeClientException {
+        final SwookieClientBuilder builder = SwookieClientBuilder.newTarget("127.0.0.1");
+        if ("http2".equals(transport)) {
+            builder.withPort(stub.startHttp2()).withTransport(new Http2TransportFactory());
+        } else {
+            builder.withPort(stub.getPort()).withMaxConnections(connections);
+        }
+        return builder.create();
+    }
+
+    @Override
+    protected void prepare() throws IOException {
+        bundle = SyntheticBundles.create(workDirectory, "com.example.benchmark", "1.0.0", jarSizeKb * 1024);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetInstalledBundles() {
+        stub.reset();
+        stub.addBundles(installedBundles);
+    }
+
+    @Benchmark
+    public String installBundle() throws SwookieeClientException {
+        return client.installBundle(bundle);
+    }
+
+    @Benchmark
+    public List<BundleRepresentation> listBundles() throws SwookieeClientException {
+        return client.getInstalledBundles();
+    }
+}
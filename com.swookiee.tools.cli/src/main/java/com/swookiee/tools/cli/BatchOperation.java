@@ -0,0 +1,129 @@
+package com.swookiee.tools.cli;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One line of a batch, e.g. {@code install target/my.bundle.jar} or {@code start com.example.bundle}. Bundles are
+ * referenced by id, by path ({@code /framework/bundle/12}) or by symbolic name, in which case the installed bundle
+ * with the highest id is used.
+ */
+final class BatchOperation {
+
+    enum Type {
+
+        LIST(0, 1, "list [symbolicName]"),
+        INSTALL(1, 1, "install <file>"),
+        UPDATE(2, 2, "update <bundle> <file>"),
+        START(1, 1, "start <bundle>"),
+        STOP(1, 1, "stop <bundle>"),
+        UNINSTALL(1, 1, "uninstall <bundle>");
+
+        private final int minArguments;
+        private final int maxArguments;
+        private final String usage;
+
+        private Type(final int minArguments, final int maxArguments, final String usage) {
+            this.minArguments = minArguments;
+            this.maxArguments = maxArguments;
+            this.usage = usage;
+        }
+
+        String getUsage() {
+            return usage;
+        }
+    }
+
+    private final Type type;
+    private final List<String> arguments;
+    private final int line;
+
+    private BatchOperation(final Type type, final List<String> arguments, final int line) {
+        this.type = type;
+        this.arguments = arguments;
+        this.line = line;
+    }
+
+    /**
+     * @param words
+     *            the operation followed by its arguments
+     * @param line
+     *            the line number used in messages, {@code 0} for operations given on the command line
+     * @throws IllegalArgumentException
+     *             Will be thrown if the operation is unknown or has the wrong number of arguments
+     */
+    static BatchOperation of(final List<String> words, final int line) {
+        final String where = line > 0 ? "line " + line + ": " : "";
+        final Type type;
+        try {
+            type = Type.valueOf(words.get(0).toUpperCase(Locale.ENGLISH));
+        } catch (final IllegalArgumentException ex) {
+            throw new IllegalArgumentException(where + "unknown operation " + words.get(0), ex);
+        }
+        final List<String> arguments = words.subList(1, words.size());
+        if (arguments.size() < type.minArguments || arguments.size() > type.maxArguments) {
+            throw new IllegalArgumentException(where + "usage: " + type.usage);
+        }
+        return new BatchOperation(type, new ArrayList<>(arguments), line);
+    }
+
+    /**
+     * Reads a batch, one operation per line. Blank lines and lines starting with {@code #} are ignored.
+     *
+     * @throws IllegalArgumentException
+     *             Will be thrown if a line is no valid operation
+     */
+    static List<BatchOperation> read(final BufferedReader reader) throws IOException {
+        final List<BatchOperation> operations = new ArrayList<>();
+        int number = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            final String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            operations.add(of(Arrays.asList(trimmed.split("\\s+")), number));
+        }
+        return operations;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the referenced bundle, {@code null} for {@code install} and for {@code list} of all bundles
+     */
+    String getBundle() {
+        return type == Type.INSTALL || arguments.isEmpty() ? null : arguments.get(0);
+    }
+
+    /**
+     * @return the bundle file of {@code install} and {@code update}, otherwise {@code null}
+     */
+    File getFile() {
+        switch (type) {
+        case INSTALL:
+            return new File(arguments.get(0));
+        case UPDATE:
+            return new File(arguments.get(1));
+        default:
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(type.name().toLowerCase(Locale.ENGLISH));
+        for (String argument : arguments) {
+            builder.append(' ').append(argument);
+        }
+        return line > 0 ? builder.append(" (line ").append(line).append(')').toString() : builder.toString();
+    }
+}
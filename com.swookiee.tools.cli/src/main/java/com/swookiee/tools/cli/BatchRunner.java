@@ -0,0 +1,195 @@
+package com.swookiee.tools.cli;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation;
+import com.swookiee.tools.client.BundleState;
+import com.swookiee.tools.client.ForceStrategy;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+
+/**
+ * Runs a batch against one or more targets. Consecutive operations of the same type form a stage whose operations
+ * run concurrently on all targets, e.g. all installs of a batch before all starts. A stage starts once the previous
+ * one has completed on every target; after a stage with failures the batch stops unless {@code keepGoing} is set.
+ */
+final class BatchRunner implements AutoCloseable {
+
+    private static final String FRAMEWORK_BUNDLE = "/framework/bundle/";
+
+    private final List<SwookieeClient> clients;
+    private final ExecutorService executor;
+    private final ForceStrategy forceStrategy;
+    private final boolean keepGoing;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    /**
+     * @param concurrency
+     *            maximum number of operations in flight across all targets
+     */
+    BatchRunner(final List<SwookieeClient> clients, final int concurrency, final ForceStrategy forceStrategy,
+            final boolean keepGoing, final PrintStream out, final PrintStream err) {
+        this.clients = clients;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        this.forceStrategy = forceStrategy;
+        this.keepGoing = keepGoing;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * @return the number of failed operations, every target counts separately
+     */
+    int run(final List<BatchOperation> operations) throws InterruptedException {
+        int failures = 0;
+        int from = 0;
+        while (from < operations.size()) {
+            int to = from + 1;
+            while (to < operations.size() && operations.get(to).getType() == operations.get(from).getType()) {
+                to++;
+            }
+            failures += runStage(operations.subList(from, to));
+            if (failures > 0 && !keepGoing) {
+                if (to < operations.size()) {
+                    err.println("Stopping after failures, " + (operations.size() - to) + " operations skipped");
+                }
+                break;
+            }
+            from = to;
+        }
+        return failures;
+    }
+
+    private int runStage(final List<BatchOperation> stage) throws InterruptedException {
+        final List<Future<Boolean>> results = new ArrayList<>();
+        for (final SwookieeClient client : clients) {
+            for (final BatchOperation operation : stage) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return execute(client, operation);
+                    }
+                }));
+            }
+        }
+        int failures = 0;
+        for (Future<Boolean> result : results) {
+            try {
+                if (!result.get()) {
+                    failures++;
+                }
+            } catch (final ExecutionException ex) {
+                failures++;
+                print(err, "Unexpected failure: " + ex.getCause());
+            }
+        }
+        return failures;
+    }
+
+    private boolean execute(final SwookieeClient client, final BatchOperation operation) {
+        final String target = client.getConfiguredTarget();
+        final long start = System.nanoTime();
+        try {
+            final String outcome = apply(client, operation);
+            print(out, String.format("%-30s %-60s %-30s %6d ms", target, operation, outcome,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            return true;
+        } catch (final SwookieeClientException | RuntimeException ex) {
+            print(err, String.format("%-30s %-60s failed: %s", target, operation, ex.getMessage()));
+            return false;
+        }
+    }
+
+    private String apply(final SwookieeClient client, final BatchOperation operation) throws SwookieeClientException {
+        switch (operation.getType()) {
+        case LIST:
+            final List<BundleRepresentation> bundles = operation.getBundle() == null ? client.getInstalledBundles()
+                    : client.getInstalledBundles(operation.getBundle());
+            list(client.getConfiguredTarget(), bundles);
+            return bundles.size() + " bundles";
+        case INSTALL:
+            return client.installBundle(operation.getFile(), forceStrategy);
+        case UPDATE:
+            final String updated = resolve(client, operation.getBundle());
+            client.updateBundle(updated, operation.getFile());
+            return updated;
+        case START:
+            final String started = resolve(client, operation.getBundle());
+            client.startBundle(started);
+            return started;
+        case STOP:
+            final String stopped = resolve(client, operation.getBundle());
+            client.stopBundle(stopped);
+            return stopped;
+        case UNINSTALL:
+            final String uninstalled = resolve(client, operation.getBundle());
+            client.uninstallBundle(Long.valueOf(uninstalled.substring(FRAMEWORK_BUNDLE.length())));
+            return uninstalled;
+        default:
+            throw new IllegalStateException("Unsupported operation " + operation.getType());
+        }
+    }
+
+    /**
+     * @return the path of the referenced bundle
+     * @throws SwookieeClientException
+     *             Will be thrown if no bundle having the referenced symbolic name is installed
+     */
+    private static String resolve(final SwookieeClient client, final String bundle) throws SwookieeClientException {
+        if (bundle.startsWith(FRAMEWORK_BUNDLE)) {
+            return bundle;
+        }
+        if (bundle.matches("\\d+")) {
+            return FRAMEWORK_BUNDLE + bundle;
+        }
+        BundleRepresentation newest = null;
+        for (BundleRepresentation candidate : client.getInstalledBundles(bundle)) {
+            if (newest == null || candidate.getId() > newest.getId()) {
+                newest = candidate;
+            }
+        }
+        if (newest == null) {
+            throw new SwookieeClientException("No bundle " + bundle + " installed");
+        }
+        return FRAMEWORK_BUNDLE + newest.getId();
+    }
+
+    private void list(final String target, final List<BundleRepresentation> bundles) {
+        final StringBuilder lines = new StringBuilder();
+        for (BundleRepresentation bundle : bundles) {
+            lines.append(String.format("%-30s %6d %-11s %s %s%n", target, bundle.getId(), stateName(bundle),
+                    bundle.getSymbolicName(), bundle.getVersion()));
+        }
+        synchronized (out) {
+            out.print(lines);
+        }
+    }
+
+    private static String stateName(final BundleRepresentation bundle) {
+        try {
+            return BundleState.of(bundle.getState()).name();
+        } catch (final IllegalArgumentException ex) {
+            return String.valueOf(bundle.getState());
+        }
+    }
+
+    private static void print(final PrintStream stream, final String line) {
+        synchronized (stream) {
+            stream.println(line);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,234 @@
+package com.swookiee.tools.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import com.swookiee.tools.client.ForceStrategy;
+import com.swookiee.tools.client.HostAddress;
+import com.swookiee.tools.client.SwookieClientBuilder;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+
+/**
+ * Entry point of the shaded command line jar. Runs a single operation given on the command line or a batch of
+ * operations read from a file or stdin against one or more swookiee instances, one pooled client per instance.
+ * <p>
+ * <code>java -jar target/swookiee-cli.jar --host node1 --host [fd00::2]:8081 install my.bundle.jar</code><br>
+ * <code>java -jar target/swookiee-cli.jar --concurrency 8 --file rollout.txt</code>
+ */
+public final class SwookieeCli {
+
+    private static final String USAGE = "Usage: java -jar swookiee-cli.jar [options] [operation [arguments]]\n\n"
+            + "Runs the given operation, otherwise the operations of --file or stdin, one per line.\n\n"
+            + "Operations:\n  %s\n\n"
+            + "<bundle> is a bundle id, a bundle path or a symbolic name, resolved to the newest bundle.\n\n"
+            + "Options:\n"
+            + "  --host <host[:port]>       target instance, IPv6 addresses as [addr]:port, repeat for several\n"
+            + "                             instances (default localhost)\n"
+            + "  --port <port>              port of hosts given without one (default 8080)\n"
+            + "  --user <name>              user name (default admin)\n"
+            + "  --password <password>      password (default admin123)\n"
+            + "  --https                    use https\n"
+            + "  --self-signed              use https and accept self signed certificates\n"
+            + "  --concurrency <n>          operations in flight across all hosts (default 4)\n"
+            + "  --file <batch>             read operations from a file, - reads stdin\n"
+            + "  --force-strategy <name>    how install replaces installed bundles: update or uninstall"
+            + " (default update)\n"
+            + "  --keep-going               continue with the next stage after failures\n"
+            + "  --help                     print this help\n";
+
+    private final List<String> hosts = new ArrayList<>();
+    private final List<HostAddress> targets = new ArrayList<>();
+    private int port = 8080;
+    private String username = "admin";
+    private String password = "admin123";
+    private boolean https;
+    private boolean selfSigned;
+    private int concurrency = 4;
+    private String batchFile;
+    private ForceStrategy forceStrategy = ForceStrategy.UPDATE;
+    private boolean keepGoing;
+    private final List<String> operation = new ArrayList<>();
+
+    private SwookieeCli() {
+    }
+
+    public static void main(final String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @return the exit code: {@code 0} on success, {@code 1} if operations failed and {@code 2} on invalid arguments
+     */
+    static int run(final String[] args, final PrintStream out, final PrintStream err) {
+        final SwookieeCli cli = new SwookieeCli();
+        final List<BatchOperation> operations;
+        try {
+            if (!cli.parse(Arrays.asList(args))) {
+                out.print(usage());
+                return 0;
+            }
+            operations = cli.readOperations();
+        } catch (final IllegalArgumentException ex) {
+            err.println(ex.getMessage());
+            err.print(usage());
+            return 2;
+        } catch (final IOException ex) {
+            err.println("Could not read operations: " + ex.getMessage());
+            return 2;
+        }
+        return cli.execute(operations, out, err);
+    }
+
+    /**
+     * @return {@code false} if help has been requested
+     */
+    private boolean parse(final List<String> args) {
+        for (int i = 0; i < args.size(); i++) {
+            final String arg = args.get(i);
+            if (!operation.isEmpty() || !arg.startsWith("--")) {
+                operation.add(arg);
+                continue;
+            }
+            switch (arg) {
+            case "--help":
+                return false;
+            case "--https":
+                https = true;
+                break;
+            case "--self-signed":
+                selfSigned = true;
+                break;
+            case "--keep-going":
+                keepGoing = true;
+                break;
+            default:
+                if (i + 1 == args.size()) {
+                    throw new IllegalArgumentException("Missing value of " + arg);
+                }
+                option(arg, args.get(++i));
+            }
+        }
+        if (hosts.isEmpty()) {
+            hosts.add("localhost");
+        }
+        for (String host : hosts) {
+            targets.add(HostAddress.parse(host, port));
+        }
+        return true;
+    }
+
+    private void option(final String name, final String value) {
+        switch (name) {
+        case "--host":
+            hosts.add(value);
+            break;
+        case "--port":
+            port = number(name, value);
+            break;
+        case "--user":
+            username = value;
+            break;
+        case "--password":
+            password = value;
+            break;
+        case "--concurrency":
+            concurrency = number(name, value);
+            break;
+        case "--file":
+            batchFile = value;
+            break;
+        case "--force-strategy":
+            try {
+                forceStrategy = ForceStrategy.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+            } catch (final IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown force strategy: " + value, ex);
+            }
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown option " + name);
+        }
+    }
+
+    private static int number(final String name, final String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value of " + name + ": " + value, ex);
+        }
+    }
+
+    private List<BatchOperation> readOperations() throws IOException {
+        if (!operation.isEmpty()) {
+            if (batchFile != null) {
+                throw new IllegalArgumentException("Either give an operation or --file, not both");
+            }
+            return Collections.singletonList(BatchOperation.of(operation, 0));
+        }
+        if (batchFile == null || "-".equals(batchFile)) {
+            return BatchOperation.read(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        }
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(batchFile), StandardCharsets.UTF_8)) {
+            return BatchOperation.read(reader);
+        }
+    }
+
+    private int execute(final List<BatchOperation> operations, final PrintStream out, final PrintStream err) {
+        final List<SwookieeClient> clients = new ArrayList<>();
+        try {
+            for (HostAddress target : targets) {
+                clients.add(newClient(target));
+            }
+            try (BatchRunner runner = new BatchRunner(clients, concurrency, forceStrategy, keepGoing, out, err)) {
+                return runner.run(operations) == 0 ? 0 : 1;
+            }
+        } catch (final SwookieeClientException | IllegalArgumentException ex) {
+            err.println("Could not create client: " + ex.getMessage());
+            return 2;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            err.println("Interrupted");
+            return 1;
+        } finally {
+            for (SwookieeClient client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * Every client may open one connection per operation in flight, so all operations of a stage can run at once
+     * even if they all go to the same host.
+     */
+    private SwookieeClient newClient(final HostAddress target) throws SwookieeClientException {
+        final SwookieClientBuilder builder = SwookieClientBuilder.newTarget(target.getHostname())
+                .withPort(target.getPort()).withMaxConnections(Math.max(2, concurrency));
+        if (selfSigned) {
+            builder.enableSelfSignedHttps();
+        } else if (https) {
+            builder.enableHttps();
+        }
+        return builder.withUsernamePassword(username, password).create();
+    }
+
+    private static String usage() {
+        final StringBuilder operations = new StringBuilder();
+        for (BatchOperation.Type type : BatchOperation.Type.values()) {
+            if (operations.length() > 0) {
+                operations.append("\n  ");
+            }
+            operations.append(type.getUsage());
+        }
+        return String.format(USAGE, operations);
+    }
+}
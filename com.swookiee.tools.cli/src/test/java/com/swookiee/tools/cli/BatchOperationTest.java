@@ -0,0 +1,63 @@
+package com.swookiee.tools.cli;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BatchOperationTest {
+
+    @Test
+    public void blankLinesAndCommentsAreSkipped() throws Exception {
+        final List<BatchOperation> operations = read("# rollout\n\ninstall  target/a.jar\n  start com.example.a\t\n"
+                + "update 12 target/b.jar\nLIST\n");
+
+        assertThat(operations.size(), is(4));
+        assertThat(operations.get(0).getType(), is(BatchOperation.Type.INSTALL));
+        assertThat(operations.get(0).getFile(), is(new File("target/a.jar")));
+        assertThat(operations.get(0).getBundle(), is(nullValue()));
+        assertThat(operations.get(1).getBundle(), is("com.example.a"));
+        assertThat(operations.get(1).toString(), is("start com.example.a (line 4)"));
+        assertThat(operations.get(2).getBundle(), is("12"));
+        assertThat(operations.get(2).getFile(), is(new File("target/b.jar")));
+        assertThat(operations.get(3).getType(), is(BatchOperation.Type.LIST));
+        assertThat(operations.get(3).getBundle(), is(nullValue()));
+    }
+
+    @Test
+    public void errorsNameTheLine() throws Exception {
+        assertInvalid("install a.jar\nrestart com.example.a\n", "line 2: unknown operation restart");
+        assertInvalid("start\n", "line 1: usage: start <bundle>");
+        assertInvalid("update 12\n", "line 1: usage: update <bundle> <file>");
+        assertInvalid("list a b\n", "line 1: usage: list [symbolicName]");
+    }
+
+    @Test
+    public void operationsGivenOnTheCommandLineHaveNoLine() {
+        final BatchOperation operation = BatchOperation.of(Arrays.asList("uninstall", "/framework/bundle/3"), 0);
+
+        assertThat(operation.getBundle(), is("/framework/bundle/3"));
+        assertThat(operation.toString(), is("uninstall /framework/bundle/3"));
+    }
+
+    private static List<BatchOperation> read(final String batch) throws Exception {
+        return BatchOperation.read(new BufferedReader(new StringReader(batch)));
+    }
+
+    private static void assertInvalid(final String batch, final String message) throws Exception {
+        try {
+            read(batch);
+            fail("Accepted " + batch);
+        } catch (final IllegalArgumentException ex) {
+            assertThat(ex.getMessage(), is(message));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.swookiee.tools.cli;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation;
+import com.swookiee.tools.client.BundleState;
+import com.swookiee.tools.stub.StubFrameworkServer;
+import com.swookiee.tools.stub.SyntheticBundles;
+
+public class SwookieeCliTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StubFrameworkServer stub;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Before
+    public void setUp() throws Exception {
+        stub = StubFrameworkServer.start();
+    }
+
+    @After
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    public void helpIsPrintedWithoutRunningOperations() {
+        assertThat(run("--help"), is(0));
+        assertThat(out(), containsString("Usage: java -jar swookiee-cli.jar"));
+        assertThat(stub.getRequestCount(), is(0L));
+    }
+
+    @Test
+    public void invalidArgumentsExitWithTwo() {
+        assertThat(run("--concurrency", "many", "list"), is(2));
+        assertThat(err(), containsString("Invalid value of --concurrency: many"));
+
+        assertThat(run("--host", "127.0.0.1:http", "list"), is(2));
+        assertThat(run("--host", "[::1", "list"), is(2));
+        assertThat(run("--colour", "red", "list"), is(2));
+        assertThat(run("restart", "com.example.a"), is(2));
+        assertThat(run("--port"), is(2));
+        assertThat(stub.getRequestCount(), is(0L));
+    }
+
+    @Test
+    public void ipv6HostsAreAcceptedInBrackets() {
+        // nothing listens on the IPv6 loopback, so the operation fails instead of the arguments
+        assertThat(run("--host", "[::1]:1", "list"), is(1));
+        assertThat(err(), not(containsString("Usage")));
+    }
+
+    @Test
+    public void aBatchRunsStageByStage() throws Exception {
+        final File a = SyntheticBundles.create(folder.getRoot(), "com.example.a", "1.0.0", 512);
+        final File b = SyntheticBundles.create(folder.getRoot(), "com.example.b", "1.0.0", 512);
+
+        assertThat(runBatch("install " + a + "\ninstall " + b + "\nstart com.example.a\nstart com.example.b\n"
+                + "stop com.example.b\n"), is(0));
+
+        assertThat(stateOf("com.example.a"), is(BundleState.ACTIVE));
+        assertThat(stateOf("com.example.b"), is(BundleState.RESOLVED));
+        assertThat(stub.getInstallCount(), is(2L));
+    }
+
+    @Test
+    public void aFailedStageStopsTheBatch() throws Exception {
+        final File a = SyntheticBundles.create(folder.getRoot(), "com.example.a", "1.0.0", 512);
+        assertThat(runBatch("install " + a + "\n"), is(0));
+
+        assertThat(runBatch("start com.example.missing\nstart com.example.a\nuninstall com.example.a\n"), is(1));
+
+        // the start in the failed stage still ran, the uninstall of the next stage did not
+        assertThat(stateOf("com.example.a"), is(BundleState.ACTIVE));
+        assertThat(err(), containsString("No bundle com.example.missing installed"));
+        assertThat(err(), containsString("Stopping after failures, 1 operations skipped"));
+    }
+
+    @Test
+    public void keepGoingRunsTheRemainingStages() throws Exception {
+        final File a = SyntheticBundles.create(folder.getRoot(), "com.example.a", "1.0.0", 512);
+        assertThat(runBatch("install " + a + "\n"), is(0));
+
+        assertThat(runBatch("start com.example.missing\nuninstall com.example.a\n", "--keep-going"), is(1));
+
+        assertThat(stateOf("com.example.a"), is((BundleState) null));
+    }
+
+    private int runBatch(final String batch, final String... options) throws Exception {
+        final File file = folder.newFile();
+        Files.write(file.toPath(), batch.getBytes(StandardCharsets.UTF_8));
+        final List<String> args = new ArrayList<>();
+        for (String option : options) {
+            args.add(option);
+        }
+        args.add("--file");
+        args.add(file.getPath());
+        return run(args.toArray(new String[args.size()]));
+    }
+
+    private int run(final String... options) {
+        final List<String> args = new ArrayList<>();
+        args.add("--host");
+        args.add("127.0.0.1:" + stub.getPort());
+        for (String option : options) {
+            args.add(option);
+        }
+        return SwookieeCli.run(args.toArray(new String[args.size()]), new PrintStream(out, true), new PrintStream(
+                err, true));
+    }
+
+    private BundleState stateOf(final String symbolicName) {
+        for (BundleRepresentation bundle : stub.getBundles()) {
+            if (symbolicName.equals(bundle.getSymbolicName())) {
+                return BundleState.of(bundle.getState());
+            }
+        }
+        return null;
+    }
+
+    private String out() {
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private String err() {
+        return new String(err.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,67 @@
+package com.swookiee.tools.client;
+
+import java.io.IOException;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.auth.AuthScheme;
+import org.apache.http.client.AuthCache;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+/**
+ * The default transport, HTTP/1.1 over the pooled connections of an Apache HTTP client.
+ */
+final class ApacheHttpTransport implements SwookieeTransport {
+
+    private final CloseableHttpClient httpclient;
+    private final HttpClientContext swookieeContext;
+    private final HttpHost httpHost;
+
+    ApacheHttpTransport(final CloseableHttpClient httpclient, final HttpClientContext swookieeContext,
+            final HttpHost httpHost) {
+        this.httpclient = httpclient;
+        this.swookieeContext = swookieeContext;
+        this.httpHost = httpHost;
+    }
+
+    @Override
+    public HttpHost getTarget() {
+        return httpHost;
+    }
+
+    @Override
+    public CloseableHttpResponse execute(final HttpRequest request) throws IOException {
+        return httpclient.execute(httpHost, request, newRequestContext(swookieeContext, httpHost));
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpclient.close();
+    }
+
+    /**
+     * {@link HttpClientContext} is not thread safe, so every request gets its own context with the preemptive
+     * authentication scheme of the configured one. Basic schemes are not shared either, their Base64 codec is not
+     * thread safe.
+     */
+    static HttpClientContext newRequestContext(final HttpClientContext swookieeContext, final HttpHost httpHost) {
+        final HttpClientContext context = HttpClientContext.create();
+        context.setCredentialsProvider(swookieeContext.getCredentialsProvider());
+        final AuthCache configuredAuthCache = swookieeContext.getAuthCache();
+        if (configuredAuthCache != null) {
+            final AuthCache authCache = new BasicAuthCache();
+            final AuthScheme authScheme = configuredAuthCache.get(httpHost);
+            if (authScheme instanceof BasicScheme) {
+                authCache.put(httpHost, new BasicScheme());
+            } else if (authScheme != null) {
+                authCache.put(httpHost, authScheme);
+            }
+            context.setAuthCache(authCache);
+        }
+        return context;
+    }
+}
@@ -0,0 +1,111 @@
+package com.swookiee.tools.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of waiting for bundles to reach a state via {@link SwookieeClient#awaitState(java.util.Collection,
+ * BundleState, long)} or {@link SwookieeClient#startAndAwait(List, long)}. Every bundle either reached the target
+ * state, failed or was still pending when the timeout expired.
+ */
+public final class BundleAwaitResult {
+
+    private final BundleState targetState;
+    private final Map<String, BundleState> states = new LinkedHashMap<>();
+    private final Map<String, SwookieeClientException> errors = new LinkedHashMap<>();
+    private final List<String> failed = new ArrayList<>();
+    private final List<String> pending = new ArrayList<>();
+    private int polls;
+    private long durationMillis;
+
+    BundleAwaitResult(final BundleState targetState) {
+        this.targetState = targetState;
+    }
+
+    public BundleState getTargetState() {
+        return targetState;
+    }
+
+    /**
+     * @return the last observed state of every bundle by path, {@code null} if the bundle is not installed or has not
+     *         been observed
+     */
+    public Map<String, BundleState> getStates() {
+        return Collections.unmodifiableMap(states);
+    }
+
+    /**
+     * @return the paths of the bundles which could not be started or settled in another state than the target state,
+     *         e.g. since their activator failed
+     */
+    public List<String> getFailed() {
+        return Collections.unmodifiableList(failed);
+    }
+
+    /**
+     * @return the errors of the bundles which could not be started, by path
+     */
+    public Map<String, SwookieeClientException> getErrors() {
+        return Collections.unmodifiableMap(errors);
+    }
+
+    /**
+     * @return the paths of the bundles which were still in transition when the timeout expired
+     */
+    public List<String> getPending() {
+        return Collections.unmodifiableList(pending);
+    }
+
+    public boolean isTimedOut() {
+        return !pending.isEmpty();
+    }
+
+    public boolean isSuccessful() {
+        return failed.isEmpty() && pending.isEmpty();
+    }
+
+    /**
+     * @return the number of listings requested while waiting
+     */
+    public int getPolls() {
+        return polls;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    void setState(final String bundlePath, final BundleState state) {
+        states.put(bundlePath, state);
+    }
+
+    void addFailed(final String bundlePath) {
+        failed.add(bundlePath);
+    }
+
+    void addError(final String bundlePath, final SwookieeClientException error) {
+        errors.put(bundlePath, error);
+        failed.add(bundlePath);
+    }
+
+    void addPending(final String bundlePath) {
+        pending.add(bundlePath);
+    }
+
+    void setPolls(final int polls) {
+        this.polls = polls;
+    }
+
+    void setDurationMillis(final long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bundles %s, %d failed, %d pending after %d ms and %d polls", states.size()
+                - failed.size() - pending.size(), targetState, failed.size(), pending.size(), durationMillis, polls);
+    }
+}
@@ -0,0 +1,179 @@
+package com.swookiee.tools.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * OSGi metadata of a bundle file. The manifest is looked up via the central directory of the archive, so only the
+ * manifest entry itself is inflated regardless of the size of the bundle.
+ * <p>
+ * Descriptors are cached by absolute path, last modification time and size. Repeated and batch deployments of an
+ * unchanged file neither rescan the archive nor recompute its digest.
+ * <p>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class BundleDescriptor {
+
+    static final String BUNDLE_SYMBOLIC_NAME = "Bundle-SymbolicName";
+    static final String BUNDLE_VERSION = "Bundle-Version";
+    static final String IMPORT_PACKAGE = "Import-Package";
+    static final String EXPORT_PACKAGE = "Export-Package";
+    static final String REQUIRE_BUNDLE = "Require-Bundle";
+
+    private static final int CACHE_SIZE = 1024;
+    private static final Map<String, BundleDescriptor> CACHE = new LinkedHashMap<String, BundleDescriptor>(16, 0.75f,
+            true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, BundleDescriptor> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final File file;
+    private final long lastModified;
+    private final long size;
+    private final String symbolicName;
+    private final String version;
+    private final String importPackage;
+    private final String exportPackage;
+    private final String requireBundle;
+    private volatile String digest;
+
+    private BundleDescriptor(final File file, final long lastModified, final long size, final Attributes manifest) {
+        this.file = file;
+        this.lastModified = lastModified;
+        this.size = size;
+        this.symbolicName = stripDirectives(manifest.getValue(BUNDLE_SYMBOLIC_NAME));
+        this.version = manifest.getValue(BUNDLE_VERSION);
+        this.importPackage = manifest.getValue(IMPORT_PACKAGE);
+        this.exportPackage = manifest.getValue(EXPORT_PACKAGE);
+        this.requireBundle = manifest.getValue(REQUIRE_BUNDLE);
+    }
+
+    /**
+     * @param file
+     *            a bundle
+     * @return the cached descriptor of {@code file} if it did not change since it has been read, a freshly read one
+     *         otherwise
+     * @throws SwookieeClientException
+     *             Will be thrown if the file cannot be read or has no manifest
+     */
+    public static BundleDescriptor of(final File file) throws SwookieeClientException {
+        final File absoluteFile = file.getAbsoluteFile();
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(absoluteFile.toPath(), BasicFileAttributes.class);
+        } catch (final IOException ex) {
+            throw new SwookieeClientException("Could not read bundle " + file + ": " + ex.getMessage(), ex);
+        }
+        final long lastModified = attributes.lastModifiedTime().toMillis();
+        final String key = absoluteFile.getPath();
+
+        synchronized (CACHE) {
+            final BundleDescriptor cached = CACHE.get(key);
+            if (cached != null && cached.lastModified == lastModified && cached.size == attributes.size()) {
+                return cached;
+            }
+        }
+        final BundleDescriptor descriptor = new BundleDescriptor(absoluteFile, lastModified, attributes.size(),
+                readManifest(absoluteFile));
+        synchronized (CACHE) {
+            CACHE.put(key, descriptor);
+        }
+        return descriptor;
+    }
+
+    private static Attributes readManifest(final File file) throws SwookieeClientException {
+        try (ZipFile zip = new ZipFile(file)) {
+            final ZipEntry entry = zip.getEntry(JarFile.MANIFEST_NAME);
+            if (entry == null) {
+                throw new SwookieeClientException("Bundle " + file + " has no manifest");
+            }
+            try (InputStream in = zip.getInputStream(entry)) {
+                return new Manifest(in).getMainAttributes();
+            }
+        } catch (final IOException ex) {
+            throw new SwookieeClientException("Could not read manifest of " + file + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private static String stripDirectives(final String header) {
+        if (header == null) {
+            return null;
+        }
+        final int separator = header.indexOf(';');
+        return (separator < 0 ? header : header.substring(0, separator)).trim();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the symbolic name without directives such as {@code singleton:=true}, {@code null} if the file is no
+     *         bundle
+     */
+    public String getSymbolicName() {
+        return symbolicName;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the raw {@code Import-Package} header or {@code null}
+     */
+    public String getImportPackage() {
+        return importPackage;
+    }
+
+    /**
+     * @return the raw {@code Export-Package} header or {@code null}
+     */
+    public String getExportPackage() {
+        return exportPackage;
+    }
+
+    /**
+     * @return the raw {@code Require-Bundle} header or {@code null}
+     */
+    public String getRequireBundle() {
+        return requireBundle;
+    }
+
+    /**
+     * @return the SHA-256 digest of the file, computed on first access
+     * @throws SwookieeClientException
+     *             Will be thrown if the file cannot be read
+     */
+    public String getDigest() throws SwookieeClientException {
+        String result = digest;
+        if (result == null) {
+            result = FileDigest.of(file);
+            digest = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return symbolicName + " " + version + " (" + file.getName() + ")";
+    }
+}
@@ -0,0 +1,49 @@
+package com.swookiee.tools.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation;
+
+/**
+ * Index over a snapshot of installed bundles which allows constant time lookups by Bundle-SymbolicName and version
+ * instead of scanning the whole list for every bundle.
+ */
+final class BundleIndex {
+
+    private final Map<String, List<BundleRepresentation>> bySymbolicName = new HashMap<>();
+
+    BundleIndex(final List<BundleRepresentation> bundles) {
+        for (BundleRepresentation bundle : bundles) {
+            if (bundle.getSymbolicName() == null) {
+                continue;
+            }
+            List<BundleRepresentation> sameName = bySymbolicName.get(bundle.getSymbolicName());
+            if (sameName == null) {
+                sameName = new ArrayList<>(1);
+                bySymbolicName.put(bundle.getSymbolicName(), sameName);
+            }
+            sameName.add(bundle);
+        }
+    }
+
+    List<BundleRepresentation> getBySymbolicName(final String symbolicName) {
+        final List<BundleRepresentation> bundles = bySymbolicName.get(symbolicName);
+        if (bundles == null) {
+            return Collections.emptyList();
+        }
+        return bundles;
+    }
+
+    BundleRepresentation get(final String symbolicName, final String version) {
+        for (BundleRepresentation bundle : getBySymbolicName(symbolicName)) {
+            if (version == null ? bundle.getVersion() == null : version.equals(bundle.getVersion())) {
+                return bundle;
+            }
+        }
+        return null;
+    }
+}
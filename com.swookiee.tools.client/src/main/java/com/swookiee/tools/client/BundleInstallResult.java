@@ -0,0 +1,194 @@
+package com.swookiee.tools.client;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of installing a single bundle via {@link SwookieeClient#installBundles(java.util.Collection, InstallOptions)}.
+ */
+public final class BundleInstallResult {
+
+    private final File file;
+    private String symbolicName;
+    private String location;
+    private boolean skipped;
+    private boolean updated;
+    private final List<Long> uninstalledBundleIds = new ArrayList<>();
+    private SwookieeClientException error;
+    private long manifestNanos;
+    private long uninstallNanos;
+    private long uploadNanos;
+    private long installNanos;
+    private long startNanos;
+    private long bytesTransferred;
+    private BundleState finalState;
+
+    BundleInstallResult(final File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the Bundle-SymbolicName read from the file, {@code null} if the manifest could not be read
+     */
+    public String getSymbolicName() {
+        return symbolicName;
+    }
+
+    /**
+     * @return the location of the installed bundle, {@code null} if the installation failed
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * @return {@code true} if the bundle has not been uploaded since the same content is already active on the target.
+     *         {@link #getLocation()} then points to the already installed bundle.
+     */
+    public boolean isSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return {@code true} if an already installed bundle has been updated in place, see {@link ForceStrategy#UPDATE}.
+     *         {@link #getLocation()} then points to the updated bundle.
+     */
+    public boolean isUpdated() {
+        return updated;
+    }
+
+    /**
+     * @return ids of the previously installed bundles which have been un-installed in favour of this one
+     */
+    public List<Long> getUninstalledBundleIds() {
+        return Collections.unmodifiableList(uninstalledBundleIds);
+    }
+
+    public SwookieeClientException getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    /**
+     * @return time spent reading the manifest and, for incremental deployments, the digest of the file
+     */
+    public long getManifestNanos() {
+        return manifestNanos;
+    }
+
+    /**
+     * @return time spent un-installing the bundles replaced by this one
+     */
+    public long getUninstallNanos() {
+        return uninstallNanos;
+    }
+
+    /**
+     * @return time from the first upload attempt until the bundle has been sent completely, including retries
+     */
+    public long getUploadNanos() {
+        return uploadNanos;
+    }
+
+    /**
+     * @return time the target needed to install or update the bundle after it has been sent completely
+     */
+    public long getInstallNanos() {
+        return installNanos;
+    }
+
+    /**
+     * @return time spent starting the bundle, {@code 0} if it has not been started by a {@link SwookieeClientGroup}
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getTotalNanos() {
+        return manifestNanos + uninstallNanos + uploadNanos + installNanos + startNanos;
+    }
+
+    /**
+     * @return bytes of the bundle as sent over the wire, i.e. compressed if uploads are compressed
+     */
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * @return the state of the bundle on the target as far as known to the client, {@code null} if the installation
+     *         failed
+     */
+    public BundleState getFinalState() {
+        return finalState;
+    }
+
+    void setSymbolicName(final String symbolicName) {
+        this.symbolicName = symbolicName;
+    }
+
+    void setLocation(final String location) {
+        this.location = location;
+    }
+
+    void setSkipped(final boolean skipped) {
+        this.skipped = skipped;
+    }
+
+    void setUpdated(final boolean updated) {
+        this.updated = updated;
+    }
+
+    void addUninstalledBundleId(final long bundleId) {
+        uninstalledBundleIds.add(bundleId);
+    }
+
+    void setError(final SwookieeClientException error) {
+        this.error = error;
+    }
+
+    void setManifestNanos(final long manifestNanos) {
+        this.manifestNanos = manifestNanos;
+    }
+
+    void setUninstallNanos(final long uninstallNanos) {
+        this.uninstallNanos = uninstallNanos;
+    }
+
+    void setTransfer(final long bytesTransferred, final long uploadNanos, final long installNanos) {
+        this.bytesTransferred = bytesTransferred;
+        this.uploadNanos = uploadNanos;
+        this.installNanos = installNanos;
+    }
+
+    void setStartNanos(final long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    void setFinalState(final BundleState finalState) {
+        this.finalState = finalState;
+    }
+
+    @Override
+    public String toString() {
+        if (skipped) {
+            return String.format("%s unchanged at %s", file.getName(), location);
+        }
+        if (updated && isSuccessful()) {
+            return String.format("%s updated at %s", file.getName(), location);
+        }
+        if (isSuccessful()) {
+            return String.format("%s installed as %s", file.getName(), location);
+        }
+        return String.format("%s failed: %s", file.getName(), error.getMessage());
+    }
+}
@@ -0,0 +1,63 @@
+package com.swookiee.tools.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.swookiee.runtime.ewok.representation.BundleRepresentation;
+
+/**
+ * Streams {@link BundleRepresentation}s from a RFC-182 bundle listing. The listing is parsed directly from the response
+ * stream, element by element, with a reader which is created once and shared by all clients.
+ */
+final class BundleRepresentations {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+    private static final ObjectReader READER = MAPPER.reader(BundleRepresentation.class);
+
+    private BundleRepresentations() {
+    }
+
+    static List<BundleRepresentation> readList(final HttpEntity entity) throws IOException {
+        final List<BundleRepresentation> bundles = new ArrayList<>();
+        forEach(entity, bundles::add);
+        return bundles;
+    }
+
+    /**
+     * Decodes the listing using the charset declared by the server. Without declaration the encoding is detected as
+     * mandated by the JSON specification.
+     */
+    static void forEach(final HttpEntity entity, final Consumer<BundleRepresentation> consumer) throws IOException {
+        final Charset charset = getCharset(entity);
+        try (InputStream in = entity.getContent();
+                JsonParser parser = charset == null ? FACTORY.createParser(in) : FACTORY
+                        .createParser(new InputStreamReader(in, charset))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException("Expected a list of bundles", parser.getCurrentLocation());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(READER.<BundleRepresentation> readValue(parser));
+            }
+        }
+    }
+
+    private static Charset getCharset(final HttpEntity entity) {
+        final ContentType contentType = ContentType.get(entity);
+        return contentType == null ? null : contentType.getCharset();
+    }
+}
@@ -0,0 +1,152 @@
+package com.swookiee.tools.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation;
+
+/**
+ * Last known listing of the installed bundles of one target, indexed by id and Bundle-SymbolicName. The snapshot is
+ * fresh for a fixed time after it has been fetched or revalidated. Afterwards it is revalidated with the ETag or
+ * Last-Modified validators of the response it has been read from, if the server sent any.
+ * <p/>
+ * Changes made by the owning client are applied in place, so they do not require a new listing.
+ */
+final class BundleSnapshotCache {
+
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final Map<Long, BundleRepresentation> byId = new TreeMap<>();
+    private BundleIndex index;
+    private boolean present;
+    private long validatedAt;
+    private String entityTag;
+    private String lastModified;
+
+    BundleSnapshotCache(final long ttlMillis) {
+        this(ttlMillis, System::nanoTime);
+    }
+
+    BundleSnapshotCache(final long ttlMillis, final LongSupplier clock) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * @return the snapshot if it is still fresh, {@code null} otherwise
+     */
+    synchronized List<BundleRepresentation> getIfFresh() {
+        return isFresh() ? new ArrayList<>(byId.values()) : null;
+    }
+
+    private boolean isFresh() {
+        return present && clock.getAsLong() - validatedAt < ttlNanos;
+    }
+
+    /**
+     * Adds the validators of the current snapshot to {@code request}.
+     */
+    synchronized void addValidators(final HttpRequest request) {
+        if (!present) {
+            return;
+        }
+        if (entityTag != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, entityTag);
+        }
+        if (lastModified != null) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+    }
+
+    /**
+     * Marks the snapshot as fresh again after the server confirmed it did not change.
+     * 
+     * @return the snapshot, {@code null} if it has been invalidated meanwhile
+     */
+    synchronized List<BundleRepresentation> revalidated() {
+        if (!present) {
+            return null;
+        }
+        validatedAt = clock.getAsLong();
+        return new ArrayList<>(byId.values());
+    }
+
+    synchronized void update(final List<BundleRepresentation> bundles, final String entityTag,
+            final String lastModified) {
+        byId.clear();
+        for (BundleRepresentation bundle : bundles) {
+            byId.put(bundle.getId(), bundle);
+        }
+        index = null;
+        present = true;
+        validatedAt = clock.getAsLong();
+        this.entityTag = entityTag;
+        this.lastModified = lastModified;
+    }
+
+    synchronized void invalidate() {
+        byId.clear();
+        index = null;
+        present = false;
+        entityTag = null;
+        lastModified = null;
+    }
+
+    /**
+     * @return the bundles with the given name if the snapshot is fresh, {@code null} otherwise
+     */
+    synchronized List<BundleRepresentation> getBySymbolicName(final String symbolicName) {
+        if (!isFresh()) {
+            return null;
+        }
+        if (index == null) {
+            index = new BundleIndex(new ArrayList<>(byId.values()));
+        }
+        return new ArrayList<>(index.getBySymbolicName(symbolicName));
+    }
+
+    synchronized void put(final BundleRepresentation bundle) {
+        if (present) {
+            byId.put(bundle.getId(), bundle);
+            index = null;
+        }
+    }
+
+    synchronized void remove(final long id) {
+        if (present) {
+            byId.remove(id);
+            index = null;
+        }
+    }
+
+    synchronized void setState(final long id, final int state) {
+        final BundleRepresentation bundle = byId.get(id);
+        if (present && bundle != null) {
+            byId.put(id, new BundleRepresentation(id, bundle.getLastModified(), bundle.getLocation(), state, bundle
+                    .getSymbolicName(), bundle.getVersion()));
+            index = null;
+        }
+    }
+
+    /**
+     * Applies an update of a bundle: an active bundle is started again, any other is only installed afterwards.
+     */
+    synchronized void updated(final long id, final String symbolicName, final String version) {
+        final BundleRepresentation bundle = byId.get(id);
+        if (present && bundle != null) {
+            final int state = bundle.getState() == BundleState.ACTIVE.getCode() ? bundle.getState()
+                    : BundleState.INSTALLED.getCode();
+            byId.put(id, new BundleRepresentation(id, System.currentTimeMillis(), bundle.getLocation(), state,
+                    symbolicName, version));
+            index = null;
+        }
+    }
+}
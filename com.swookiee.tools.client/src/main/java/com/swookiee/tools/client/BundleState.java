@@ -0,0 +1,50 @@
+package com.swookiee.tools.client;
+
+/**
+ * The OSGi bundle states as used by the {@code state} of the RFC-182 bundle representations.
+ */
+public enum BundleState {
+
+    UNINSTALLED(1),
+    INSTALLED(2),
+    RESOLVED(4),
+    STARTING(8),
+    STOPPING(16),
+    ACTIVE(32);
+
+    private final int code;
+
+    private BundleState(final int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return the state code as defined by {@code org.osgi.framework.Bundle}
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return {@code true} while the framework is starting or stopping the bundle
+     */
+    public boolean isTransitional() {
+        return this == STARTING || this == STOPPING;
+    }
+
+    /**
+     * @param code
+     *            a state code as defined by {@code org.osgi.framework.Bundle}
+     * @return the state having {@code code}
+     * @throws IllegalArgumentException
+     *             Will be thrown if {@code code} is not a bundle state
+     */
+    public static BundleState of(final int code) {
+        for (BundleState state : values()) {
+            if (state.code == code) {
+                return state;
+            }
+        }
+        throw new IllegalArgumentException("Unknown bundle state: " + code);
+    }
+}
@@ -0,0 +1,211 @@
+package com.swookiee.tools.client;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches a fixed set of bundle files for changes. A build usually rewrites a jar in several steps, so changes are
+ * only reported once no further event arrived for the debounce time. The watch service observes the directories of the
+ * files, events for other files in these directories are ignored. A directory which does not exist, e.g. after
+ * {@code mvn clean}, is replaced by its closest existing ancestor until it is created again.
+ * <p/>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class BundleWatcher implements Closeable {
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final Set<Path> targets = new LinkedHashSet<>();
+    private final Map<Path, File> files = new LinkedHashMap<>();
+    private final long debounceMillis;
+
+    /**
+     * @param bundles
+     *            the files to watch, they do not need to exist yet
+     * @param debounceMillis
+     *            milliseconds without events after which changes are reported
+     * @throws SwookieeClientException
+     *             Will be thrown if a directory cannot be watched
+     */
+    public BundleWatcher(final Collection<File> bundles, final long debounceMillis) throws SwookieeClientException {
+        this.debounceMillis = debounceMillis;
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+        } catch (final IOException ex) {
+            throw new SwookieeClientException("Could not create watch service: " + ex.getMessage(), ex);
+        }
+        for (File bundle : bundles) {
+            final Path path = bundle.getAbsoluteFile().toPath().normalize();
+            targets.add(path.getParent());
+            files.put(path, bundle);
+        }
+        try {
+            watchTargets(false);
+        } catch (final SwookieeClientException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Blocks until at least one watched file has changed and the debounce time passed without further events.
+     *
+     * @return the changed files in the order they have been given, only files which exist are returned
+     * @throws InterruptedException
+     *             Will be thrown if the calling thread has been interrupted while waiting
+     * @throws SwookieeClientException
+     *             Will be thrown if a recreated directory cannot be watched again
+     */
+    public Set<File> awaitChanges() throws InterruptedException, SwookieeClientException {
+        Set<File> changed = new LinkedHashSet<>();
+        while (changed.isEmpty()) {
+            changed = collect(watchService.take());
+            WatchKey key;
+            while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                changed.addAll(collect(key));
+            }
+            changed.removeIf(file -> !file.isFile());
+        }
+        return inOrder(changed);
+    }
+
+    private Set<File> collect(final WatchKey key) throws SwookieeClientException {
+        final Set<File> changed = new LinkedHashSet<>();
+        final Path directory = directories.get(key);
+        if (directory == null) {
+            // cancelled while its events were queued
+            return changed;
+        }
+        boolean moved = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                moved = true;
+                // events have been lost, any file in this directory might have changed
+                for (Map.Entry<Path, File> file : files.entrySet()) {
+                    if (file.getKey().getParent().equals(directory)) {
+                        changed.add(file.getValue());
+                    }
+                }
+            } else {
+                final Path path = directory.resolve((Path) event.context());
+                final File file = files.get(path);
+                if (file != null) {
+                    changed.add(file);
+                } else if (leadsToUnwatchedTarget(path)) {
+                    moved = true;
+                }
+            }
+        }
+        if (!key.reset()) {
+            // the directory has been deleted, e.g. by mvn clean
+            directories.remove(key);
+            moved = true;
+        }
+        if (moved) {
+            changed.addAll(watchTargets(true));
+        }
+        return changed;
+    }
+
+    private boolean leadsToUnwatchedTarget(final Path path) {
+        for (Path target : targets) {
+            if (target.startsWith(path) && !directories.containsValue(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Registers the closest existing ancestor of every target directory and cancels registrations which are no longer
+     * needed.
+     *
+     * @param rewatch
+     *            whether directories are registered again, files which already exist in a newly registered target
+     *            directory have then been created while it was not watched and are returned as changed
+     */
+    private Set<File> watchTargets(final boolean rewatch) throws SwookieeClientException {
+        final Set<File> created = new LinkedHashSet<>();
+        final Set<Path> needed = new HashSet<>();
+        for (Path target : targets) {
+            while (true) {
+                Path directory = target;
+                while (!Files.isDirectory(directory) && directory.getParent() != null) {
+                    directory = directory.getParent();
+                }
+                needed.add(directory);
+                if (directories.containsValue(directory)) {
+                    break;
+                }
+                try {
+                    directories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY), directory);
+                } catch (final NoSuchFileException ex) {
+                    // deleted again in the meantime, look for the next existing ancestor
+                    needed.remove(directory);
+                    continue;
+                } catch (final IOException ex) {
+                    throw new SwookieeClientException("Could not watch bundles: " + ex.getMessage(), ex);
+                }
+                if (directory.equals(target)) {
+                    if (rewatch) {
+                        for (Map.Entry<Path, File> file : files.entrySet()) {
+                            if (file.getKey().getParent().equals(target) && Files.isRegularFile(file.getKey())) {
+                                created.add(file.getValue());
+                            }
+                        }
+                    }
+                    break;
+                }
+                // a directory towards the target created before the registration took effect raised no event
+            }
+        }
+        for (Iterator<Map.Entry<WatchKey, Path>> it = directories.entrySet().iterator(); it.hasNext();) {
+            final Map.Entry<WatchKey, Path> directory = it.next();
+            if (!needed.contains(directory.getValue())) {
+                directory.getKey().cancel();
+                it.remove();
+            }
+        }
+        return created;
+    }
+
+    private Set<File> inOrder(final Set<File> changed) {
+        final Set<File> ordered = new LinkedHashSet<>();
+        for (File file : files.values()) {
+            if (changed.contains(file)) {
+                ordered.add(file);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (final IOException ex) {
+            // nothing left to release
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.swookiee.tools.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops sending requests to a host after a number of consecutive transient failures. While the circuit is open
+ * requests fail immediately instead of waiting for connect or socket timeouts. Once the open period has elapsed a single
+ * trial request is let through; its success closes the circuit, its failure opens it again.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String target;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    CircuitBreaker(final String target, final int failureThreshold, final long openMillis) {
+        this(target, failureThreshold, openMillis, System::nanoTime);
+    }
+
+    CircuitBreaker(final String target, final int failureThreshold, final long openMillis, final LongSupplier clock) {
+        this.target = target;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * @throws SwookieeClientException
+     *             Will be thrown if the circuit is open or a trial request is already in progress
+     */
+    synchronized void acquire() throws SwookieeClientException {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            return;
+        }
+        if (state != State.CLOSED) {
+            throw new SwookieeClientException(String.format(
+                    "%s is considered unavailable after %d consecutive failures", target, consecutiveFailures));
+        }
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
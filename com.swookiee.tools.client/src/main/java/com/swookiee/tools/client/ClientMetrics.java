@@ -0,0 +1,155 @@
+package com.swookiee.tools.client;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Default {@link SwookieeClientListener} collecting per operation request counts, errors, transferred bytes and
+ * latency histograms with negligible overhead. One instance can be shared by several clients to aggregate over all of
+ * them. The numbers can be published via JMX and printed as a summary table.
+ * <p/>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class ClientMetrics implements SwookieeClientListener, ClientMetricsMBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientMetrics.class);
+
+    private final Map<SwookieeOperation, OperationMetrics> operations = new EnumMap<>(SwookieeOperation.class);
+    private final OperationMetrics total = new OperationMetrics();
+
+    public ClientMetrics() {
+        for (SwookieeOperation operation : SwookieeOperation.values()) {
+            operations.put(operation, new OperationMetrics());
+        }
+    }
+
+    @Override
+    public void onRequest(final RequestEvent event) {
+        operations.get(event.getOperation()).record(event);
+        total.record(event);
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server as
+     * <code>com.swookiee.tools.client:type=ClientMetrics,name=&lt;name&gt;</code>. An already registered instance with
+     * the same name is replaced.
+     * 
+     * @param name
+     *            distinguishes several metrics instances
+     * @return the object name the metrics have been registered with, {@code null} if registration failed
+     */
+    public ObjectName registerMBean(final String name) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            final ObjectName objectName = new ObjectName("com.swookiee.tools.client:type=ClientMetrics,name="
+                    + ObjectName.quote(name));
+            try {
+                server.registerMBean(this, objectName);
+            } catch (final InstanceAlreadyExistsException ex) {
+                server.unregisterMBean(objectName);
+                server.registerMBean(this, objectName);
+            }
+            return objectName;
+        } catch (final JMException ex) {
+            logger.warn("Could not register client metrics: " + ex.getMessage(), ex);
+            return null;
+        }
+    }
+
+    @Override
+    public long getRequestCount() {
+        return total.latency.getCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return total.errors.get();
+    }
+
+    @Override
+    public long getBytesSent() {
+        return total.bytesSent.get();
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return total.bytesReceived.get();
+    }
+
+    @Override
+    public double getMeanLatencyMillis() {
+        return total.latency.getMeanMillis();
+    }
+
+    @Override
+    public double getP99LatencyMillis() {
+        return total.latency.getPercentileMillis(99);
+    }
+
+    @Override
+    public double getMaxLatencyMillis() {
+        return total.latency.getMaxMillis();
+    }
+
+    @Override
+    public double getMeanLeaseWaitMillis() {
+        return total.leaseWait.getMeanMillis();
+    }
+
+    /**
+     * @return a table with one line per operation which has been issued at least once, plus a total line
+     */
+    @Override
+    public String[] getSummary() {
+        final List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-18s %7s %6s %9s %9s %9s %9s %10s %10s %9s", "operation", "count", "errors",
+                "mean ms", "p50 ms", "p99 ms", "max ms", "sent KB", "recv KB", "lease ms"));
+        for (Map.Entry<SwookieeOperation, OperationMetrics> operation : operations.entrySet()) {
+            if (operation.getValue().latency.getCount() > 0) {
+                lines.add(operation.getValue().toLine(operation.getKey().name()));
+            }
+        }
+        lines.add(total.toLine("TOTAL"));
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    private static final class OperationMetrics {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram leaseWait = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong bytesSent = new AtomicLong();
+        private final AtomicLong bytesReceived = new AtomicLong();
+
+        void record(final RequestEvent event) {
+            latency.record(event.getTotalNanos());
+            if (event.getLeaseWaitNanos() >= 0) {
+                leaseWait.record(event.getLeaseWaitNanos());
+            }
+            if (!event.isSuccessful()) {
+                errors.incrementAndGet();
+            }
+            bytesSent.addAndGet(event.getBytesSent());
+            bytesReceived.addAndGet(event.getBytesReceived());
+        }
+
+        String toLine(final String name) {
+            return String.format("%-18s %7d %6d %9.2f %9.2f %9.2f %9.2f %10d %10d %9.2f", name, latency.getCount(),
+                    errors.get(), latency.getMeanMillis(), latency.getPercentileMillis(50),
+                    latency.getPercentileMillis(99), latency.getMaxMillis(), bytesSent.get() / 1024,
+                    bytesReceived.get() / 1024, leaseWait.getMeanMillis());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.swookiee.tools.client;
+
+/**
+ * JMX view of {@link ClientMetrics}, aggregated over all operations.
+ */
+public interface ClientMetricsMBean {
+
+    long getRequestCount();
+
+    long getErrorCount();
+
+    long getBytesSent();
+
+    long getBytesReceived();
+
+    double getMeanLatencyMillis();
+
+    double getP99LatencyMillis();
+
+    double getMaxLatencyMillis();
+
+    double getMeanLeaseWaitMillis();
+
+    String[] getSummary();
+}
@@ -0,0 +1,105 @@
+package com.swookiee.tools.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Behaviour of a {@link SwookieeClient} beyond its HTTP transport, as configured via {@link SwookieClientBuilder}. The
+ * defaults match a client created via the public constructor: no listeners, no retries, no circuit breaker, no
+ * snapshot cache and uncompressed uploads.
+ */
+final class ClientSettings {
+
+    private final List<SwookieeClientListener> listeners = new ArrayList<>();
+    private final Map<SwookieeOperation, RetryPolicy> retryPolicies = new EnumMap<>(SwookieeOperation.class);
+    private int circuitBreakerThreshold;
+    private long circuitBreakerOpenMillis;
+    private long snapshotTtlMillis;
+    private boolean compressUploads;
+    private UploadProgressListener progressListener;
+
+    List<SwookieeClientListener> getListeners() {
+        return Collections.unmodifiableList(listeners);
+    }
+
+    ClientSettings addListener(final SwookieeClientListener listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    RetryPolicy getRetryPolicy(final SwookieeOperation operation) {
+        final RetryPolicy retryPolicy = retryPolicies.get(operation);
+        return retryPolicy == null ? RetryPolicy.none() : retryPolicy;
+    }
+
+    ClientSettings setRetryPolicy(final SwookieeOperation operation, final RetryPolicy retryPolicy) {
+        retryPolicies.put(operation, retryPolicy);
+        return this;
+    }
+
+    ClientSettings setRetryPolicy(final RetryPolicy retryPolicy) {
+        for (SwookieeOperation operation : SwookieeOperation.values()) {
+            retryPolicies.put(operation, retryPolicy);
+        }
+        return this;
+    }
+
+    ClientSettings setCircuitBreaker(final int failureThreshold, final long openMillis) {
+        this.circuitBreakerThreshold = failureThreshold;
+        this.circuitBreakerOpenMillis = openMillis;
+        return this;
+    }
+
+    ClientSettings setSnapshotTtl(final long snapshotTtlMillis) {
+        this.snapshotTtlMillis = snapshotTtlMillis;
+        return this;
+    }
+
+    /**
+     * @return a new snapshot cache, {@code null} if disabled
+     */
+    BundleSnapshotCache newSnapshotCache() {
+        return snapshotTtlMillis > 0 ? new BundleSnapshotCache(snapshotTtlMillis) : null;
+    }
+
+    /**
+     * @return a new circuit breaker for {@code target}, {@code null} if disabled
+     */
+    CircuitBreaker newCircuitBreaker(final String target) {
+        return circuitBreakerThreshold > 0 ? new CircuitBreaker(target, circuitBreakerThreshold,
+                circuitBreakerOpenMillis) : null;
+    }
+
+    boolean isCompressUploads() {
+        return compressUploads;
+    }
+
+    ClientSettings setCompressUploads(final boolean compressUploads) {
+        this.compressUploads = compressUploads;
+        return this;
+    }
+
+    UploadProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    ClientSettings setProgressListener(final UploadProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    ClientSettings copy() {
+        final ClientSettings copy = new ClientSettings();
+        copy.listeners.addAll(listeners);
+        copy.retryPolicies.putAll(retryPolicies);
+        copy.circuitBreakerThreshold = circuitBreakerThreshold;
+        copy.circuitBreakerOpenMillis = circuitBreakerOpenMillis;
+        copy.snapshotTtlMillis = snapshotTtlMillis;
+        copy.compressUploads = compressUploads;
+        copy.progressListener = progressListener;
+        return copy;
+    }
+}
@@ -0,0 +1,65 @@
+package com.swookiee.tools.client;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregated outcome of {@link SwookieeClientGroup#deploy(List, RolloutStrategy)}, one {@link NodeDeployResult} per
+ * node in the order the nodes have been added to the group.
+ */
+public final class ClusterDeployReport {
+
+    private final List<NodeDeployResult> nodeResults;
+    private final long durationMillis;
+
+    ClusterDeployReport(final List<NodeDeployResult> nodeResults, final long durationMillis) {
+        this.nodeResults = nodeResults;
+        this.durationMillis = durationMillis;
+    }
+
+    public List<NodeDeployResult> getNodeResults() {
+        return Collections.unmodifiableList(nodeResults);
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public boolean isSuccessful() {
+        for (NodeDeployResult result : nodeResults) {
+            if (!result.isSuccessful()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the first error of all nodes, {@code null} if the deployment was successful
+     */
+    public SwookieeClientException getFirstError() {
+        for (NodeDeployResult result : nodeResults) {
+            if (result.getError() != null) {
+                return result.getError();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return one line per node with its status, installed, skipped and not started bundles and duration
+     */
+    public String[] toTable() {
+        final String[] lines = new String[nodeResults.size() + 1];
+        lines[0] = String.format("%-40s %-10s %9s %7s %11s %8s", "node", "status", "installed", "skipped",
+                "not started", "ms");
+        for (int i = 0; i < nodeResults.size(); i++) {
+            final NodeDeployResult result = nodeResults.get(i);
+            final String status = !result.isAttempted() ? "ABORTED" : result.isSuccessful() ? "OK" : "FAILED";
+            lines[i + 1] = String.format("%-40s %-10s %9d %7d %11d %8d", result.getTarget(), status,
+                    result.count(false), result.count(true), result.getStartFailures().size(),
+                    result.getDurationMillis());
+        }
+        return lines;
+    }
+}
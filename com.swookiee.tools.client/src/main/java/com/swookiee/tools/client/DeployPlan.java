@@ -0,0 +1,278 @@
+package com.swookiee.tools.client;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Orders a set of bundles by their dependencies among each other. A bundle depends on another bundle of the set if it
+ * imports a package the other one exports or requires it via {@code Require-Bundle}. Packages and bundles provided
+ * by the target instance itself are not considered.
+ * <p/>
+ * Bundles are grouped into layers: every bundle only depends on bundles of earlier layers, so the bundles of a layer
+ * can be started in parallel once all earlier layers have been started. Bundles depending on each other in a cycle
+ * can not be ordered, they are placed into the same layer and reported via {@link #getCycles()}.
+ * <p/>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class DeployPlan {
+
+    private final List<List<BundleDescriptor>> layers;
+    private final List<List<BundleDescriptor>> cycles;
+
+    private DeployPlan(final List<List<BundleDescriptor>> layers, final List<List<BundleDescriptor>> cycles) {
+        this.layers = layers;
+        this.cycles = cycles;
+    }
+
+    /**
+     * @param bundles
+     *            the bundles to deploy, bundles without dependencies among each other keep this order
+     * @return the plan
+     * @throws SwookieeClientException
+     *             Will be thrown if the manifest of a bundle cannot be read
+     */
+    public static DeployPlan of(final Collection<File> bundles) throws SwookieeClientException {
+        final List<BundleDescriptor> descriptors = new ArrayList<>();
+        for (File bundle : bundles) {
+            descriptors.add(BundleDescriptor.of(bundle));
+        }
+        return new Planner(descriptors).plan();
+    }
+
+    /**
+     * @return the bundles in installation order, i.e. all layers one after another
+     */
+    public List<BundleDescriptor> getBundles() {
+        final List<BundleDescriptor> bundles = new ArrayList<>();
+        for (List<BundleDescriptor> layer : layers) {
+            bundles.addAll(layer);
+        }
+        return bundles;
+    }
+
+    public List<List<BundleDescriptor>> getLayers() {
+        return layers;
+    }
+
+    /**
+     * @return the groups of bundles which depend on each other in a cycle, empty if the dependencies form a DAG
+     */
+    public List<List<BundleDescriptor>> getCycles() {
+        return cycles;
+    }
+
+    List<File> getFiles() {
+        final List<File> files = new ArrayList<>();
+        for (BundleDescriptor bundle : getBundles()) {
+            files.add(bundle.getFile());
+        }
+        return files;
+    }
+
+    /**
+     * @return one line per layer and per cycle, suitable for logging
+     */
+    public String[] describe() {
+        final List<String> lines = new ArrayList<>();
+        for (int i = 0; i < layers.size(); i++) {
+            lines.add(String.format("Layer %d: %s", i + 1, names(layers.get(i))));
+        }
+        for (List<BundleDescriptor> cycle : cycles) {
+            lines.add("Dependency cycle: " + names(cycle));
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    private static String names(final List<BundleDescriptor> bundles) {
+        final StringBuilder names = new StringBuilder();
+        for (BundleDescriptor bundle : bundles) {
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+            names.append(bundle.getSymbolicName() != null ? bundle.getSymbolicName() : bundle.getFile().getName());
+        }
+        return names.toString();
+    }
+
+    /**
+     * Splits an OSGi manifest header into its clauses and returns the names of all clauses, i.e. everything except
+     * attributes and directives. Quoted values may contain commas and semicolons.
+     */
+    static List<String> parseNames(final String header) {
+        final List<String> names = new ArrayList<>();
+        if (header == null) {
+            return names;
+        }
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i <= header.length(); i++) {
+            final char c = i < header.length() ? header.charAt(i) : ',';
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == ',' || c == ';')) {
+                final String part = header.substring(start, i).trim();
+                if (!part.isEmpty() && part.indexOf('=') < 0) {
+                    names.add(part);
+                }
+                start = i + 1;
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Builds the dependency graph and groups its strongly connected components (Tarjan) into layers.
+     */
+    private static final class Planner {
+
+        private final List<BundleDescriptor> bundles;
+        private final List<Set<Integer>> dependencies = new ArrayList<>();
+
+        private final int[] index;
+        private final int[] lowLink;
+        private final boolean[] onStack;
+        private final Deque<Integer> stack = new ArrayDeque<>();
+        private final int[] componentLayer;
+        private int nextIndex;
+
+        private final List<List<Integer>> layers = new ArrayList<>();
+        private final List<List<BundleDescriptor>> cycles = new ArrayList<>();
+
+        Planner(final List<BundleDescriptor> bundles) {
+            this.bundles = bundles;
+            this.index = new int[bundles.size()];
+            this.lowLink = new int[bundles.size()];
+            this.onStack = new boolean[bundles.size()];
+            this.componentLayer = new int[bundles.size()];
+            buildGraph();
+        }
+
+        private void buildGraph() {
+            final Map<String, List<Integer>> exporters = new HashMap<>();
+            final Map<String, List<Integer>> symbolicNames = new HashMap<>();
+            for (int i = 0; i < bundles.size(); i++) {
+                final BundleDescriptor bundle = bundles.get(i);
+                for (String exportedPackage : parseNames(bundle.getExportPackage())) {
+                    addTo(exporters, exportedPackage, i);
+                }
+                if (bundle.getSymbolicName() != null) {
+                    addTo(symbolicNames, bundle.getSymbolicName(), i);
+                }
+            }
+            for (int i = 0; i < bundles.size(); i++) {
+                final Set<Integer> bundleDependencies = new LinkedHashSet<>();
+                for (String importedPackage : parseNames(bundles.get(i).getImportPackage())) {
+                    addAll(bundleDependencies, exporters.get(importedPackage));
+                }
+                for (String requiredBundle : parseNames(bundles.get(i).getRequireBundle())) {
+                    addAll(bundleDependencies, symbolicNames.get(requiredBundle));
+                }
+                bundleDependencies.remove(i);
+                dependencies.add(bundleDependencies);
+            }
+        }
+
+        private static void addTo(final Map<String, List<Integer>> map, final String key, final int value) {
+            List<Integer> values = map.get(key);
+            if (values == null) {
+                values = new ArrayList<>();
+                map.put(key, values);
+            }
+            values.add(value);
+        }
+
+        private static void addAll(final Set<Integer> target, final List<Integer> values) {
+            if (values != null) {
+                target.addAll(values);
+            }
+        }
+
+        DeployPlan plan() {
+            Arrays.fill(index, -1);
+            for (int i = 0; i < bundles.size(); i++) {
+                if (index[i] < 0) {
+                    connect(i);
+                }
+            }
+            final List<List<BundleDescriptor>> result = new ArrayList<>();
+            for (List<Integer> layer : layers) {
+                Collections.sort(layer);
+                final List<BundleDescriptor> descriptors = new ArrayList<>();
+                for (Integer bundle : layer) {
+                    descriptors.add(bundles.get(bundle));
+                }
+                result.add(Collections.unmodifiableList(descriptors));
+            }
+            return new DeployPlan(Collections.unmodifiableList(result), Collections.unmodifiableList(cycles));
+        }
+
+        /**
+         * Components are completed after all components they depend on, so the layer of every dependency is known by
+         * then.
+         */
+        private void connect(final int bundle) {
+            index[bundle] = nextIndex;
+            lowLink[bundle] = nextIndex;
+            nextIndex++;
+            stack.push(bundle);
+            onStack[bundle] = true;
+
+            for (Integer dependency : dependencies.get(bundle)) {
+                if (index[dependency] < 0) {
+                    connect(dependency);
+                    lowLink[bundle] = Math.min(lowLink[bundle], lowLink[dependency]);
+                } else if (onStack[dependency]) {
+                    lowLink[bundle] = Math.min(lowLink[bundle], index[dependency]);
+                }
+            }
+
+            if (lowLink[bundle] == index[bundle]) {
+                final List<Integer> component = new ArrayList<>();
+                int member;
+                do {
+                    member = stack.pop();
+                    onStack[member] = false;
+                    component.add(member);
+                } while (member != bundle);
+                addComponent(component);
+            }
+        }
+
+        private void addComponent(final List<Integer> component) {
+            int layer = 0;
+            for (Integer member : component) {
+                for (Integer dependency : dependencies.get(member)) {
+                    if (!component.contains(dependency)) {
+                        layer = Math.max(layer, componentLayer[dependency] + 1);
+                    }
+                }
+            }
+            for (Integer member : component) {
+                componentLayer[member] = layer;
+            }
+            while (layers.size() <= layer) {
+                layers.add(new ArrayList<Integer>());
+            }
+            layers.get(layer).addAll(component);
+
+            if (component.size() > 1) {
+                Collections.sort(component);
+                final List<BundleDescriptor> cycle = new ArrayList<>();
+                for (Integer member : component) {
+                    cycle.add(bundles.get(member));
+                }
+                cycles.add(Collections.unmodifiableList(cycle));
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.swookiee.tools.client;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Remembers the digest, location and version of every bundle successfully deployed to one target. It is persisted as a
+ * small properties file per target and allows {@link SwookieeClient#installBundles(java.util.Collection, InstallOptions)}
+ * to skip bundles whose content did not change since the last deployment.
+ * <p/>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class DeployStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeployStateStore.class);
+
+    private static final String DIGEST = ".digest";
+    private static final String LOCATION = ".location";
+    private static final String VERSION = ".version";
+
+    private final File stateFile;
+    private final Properties state = new Properties();
+
+    private DeployStateStore(final File stateFile) {
+        this.stateFile = stateFile;
+    }
+
+    /**
+     * Loads the state of the given target from {@code directory}. A missing state file results in an empty store.
+     * 
+     * @param directory
+     *            directory holding the state files
+     * @param target
+     *            the deployment target, e.g. {@link SwookieeClient#getConfiguredTarget()}
+     * @return the store for this target
+     * @throws SwookieeClientException
+     *             Will be thrown if an existing state file could not be read
+     */
+    public static DeployStateStore forTarget(final File directory, final String target) throws SwookieeClientException {
+        final DeployStateStore store = new DeployStateStore(new File(directory, target.replaceAll("[^A-Za-z0-9.-]",
+                "_") + ".properties"));
+        if (store.stateFile.isFile()) {
+            try (InputStream in = new FileInputStream(store.stateFile)) {
+                store.state.load(in);
+            } catch (final IOException ex) {
+                throw new SwookieeClientException("Could not read deploy state " + store.stateFile, ex);
+            }
+        }
+        return store;
+    }
+
+    public File getStateFile() {
+        return stateFile;
+    }
+
+    synchronized boolean matches(final String symbolicName, final String digest) {
+        return digest.equals(state.getProperty(symbolicName + DIGEST));
+    }
+
+    synchronized String getLocation(final String symbolicName) {
+        return state.getProperty(symbolicName + LOCATION);
+    }
+
+    synchronized String getVersion(final String symbolicName) {
+        return state.getProperty(symbolicName + VERSION);
+    }
+
+    synchronized void record(final String symbolicName, final String digest, final String location,
+            final String version) {
+        state.setProperty(symbolicName + DIGEST, digest);
+        state.setProperty(symbolicName + LOCATION, location);
+        if (version == null) {
+            state.remove(symbolicName + VERSION);
+        } else {
+            state.setProperty(symbolicName + VERSION, version);
+        }
+    }
+
+    synchronized void forget(final String symbolicName) {
+        state.remove(symbolicName + DIGEST);
+        state.remove(symbolicName + LOCATION);
+        state.remove(symbolicName + VERSION);
+    }
+
+    /**
+     * Writes the state file. The file is replaced only after the new content has been written completely.
+     */
+    synchronized void save() {
+        final File directory = stateFile.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            logger.warn("Could not create deploy state directory {}", directory);
+            return;
+        }
+        final File tempFile = new File(directory, stateFile.getName() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tempFile)) {
+            state.store(out, "swookiee deploy state");
+        } catch (final IOException ex) {
+            logger.warn("Could not write deploy state " + tempFile + ": " + ex.getMessage(), ex);
+            return;
+        }
+        if (!tempFile.renameTo(stateFile) && !(stateFile.delete() && tempFile.renameTo(stateFile))) {
+            logger.warn("Could not replace deploy state {}", stateFile);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.swookiee.tools.client;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+/**
+ * Repeatable entity which streams a file via {@link FileChannel#transferTo(long, long, WritableByteChannel)} in chunks
+ * and reports the progress after every chunk.
+ */
+final class FileChannelEntity extends AbstractHttpEntity {
+
+    private static final long CHUNK_SIZE = 256 * 1024;
+
+    private final File file;
+    private final UploadProgressListener progressListener;
+
+    FileChannelEntity(final File file, final ContentType contentType, final UploadProgressListener progressListener) {
+        this.file = file;
+        this.progressListener = progressListener;
+        setContentType(contentType.toString());
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return file.length();
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return new FileInputStream(file);
+    }
+
+    @Override
+    public void writeTo(final OutputStream outstream) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final WritableByteChannel target = Channels.newChannel(outstream);
+            final long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, Math.min(CHUNK_SIZE, size - position), target);
+                if (progressListener != null) {
+                    progressListener.onProgress(file, position, size);
+                }
+            }
+        }
+        outstream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -0,0 +1,43 @@
+package com.swookiee.tools.client;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the SHA-256 digest of a file without loading it into memory.
+ */
+final class FileDigest {
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private FileDigest() {
+    }
+
+    static String of(final File file) throws SwookieeClientException {
+        try (InputStream in = new FileInputStream(file)) {
+            final MessageDigest digest = MessageDigest.getInstance(ALGORITHM);
+            final byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return toHex(digest.digest());
+        } catch (final IOException | NoSuchAlgorithmException ex) {
+            throw new SwookieeClientException("Could not compute digest of " + file + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,19 @@
+package com.swookiee.tools.client;
+
+/**
+ * How a forced installation replaces bundles having the same Bundle-SymbolicName which are already installed.
+ */
+public enum ForceStrategy {
+
+    /**
+     * Un-install the installed bundles and install the new one. The bundle gets a new id and the framework resolves it
+     * from scratch.
+     */
+    UNINSTALL,
+
+    /**
+     * Update an installed bundle with the new content, the bundle keeps its id and location. Further bundles having
+     * the same Bundle-SymbolicName are un-installed. If none is installed the bundle is installed.
+     */
+    UPDATE
+}
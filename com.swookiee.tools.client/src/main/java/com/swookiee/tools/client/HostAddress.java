@@ -0,0 +1,86 @@
+package com.swookiee.tools.client;
+
+/**
+ * A target given as {@code host}, {@code host:port}, {@code [ipv6]} or {@code [ipv6]:port}. An IPv6 address may also
+ * be given without brackets, it has no port then. IPv6 hosts are kept in brackets, which is the form URIs, Host headers
+ * and {@link java.net.InetAddress#getByName(String)} accept.
+ * <p/>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class HostAddress {
+
+    private final String hostname;
+    private final int port;
+
+    private HostAddress(final String hostname, final int port) {
+        this.hostname = hostname;
+        this.port = port;
+    }
+
+    /**
+     * @param address
+     *            the address to parse
+     * @param defaultPort
+     *            port of addresses given without one
+     * @return the parsed address
+     * @throws IllegalArgumentException
+     *             Will be thrown if the host is missing or the port is no valid port number
+     */
+    public static HostAddress parse(final String address, final int defaultPort) {
+        final String trimmed = address.trim();
+        final String hostname;
+        final String port;
+        if (trimmed.startsWith("[")) {
+            final int end = trimmed.indexOf(']');
+            if (end < 0 || end + 1 < trimmed.length() && trimmed.charAt(end + 1) != ':') {
+                throw new IllegalArgumentException("Invalid address: " + address);
+            }
+            hostname = trimmed.substring(0, end + 1);
+            port = end + 1 < trimmed.length() ? trimmed.substring(end + 2) : null;
+        } else {
+            final int separator = trimmed.indexOf(':');
+            if (separator < 0) {
+                hostname = trimmed;
+                port = null;
+            } else if (trimmed.indexOf(':', separator + 1) >= 0) {
+                hostname = "[" + trimmed + "]";
+                port = null;
+            } else {
+                hostname = trimmed.substring(0, separator);
+                port = trimmed.substring(separator + 1);
+            }
+        }
+        if (hostname.isEmpty() || "[]".equals(hostname)) {
+            throw new IllegalArgumentException("Missing host in address: " + address);
+        }
+        return new HostAddress(hostname, port == null ? defaultPort : parsePort(address, port));
+    }
+
+    private static int parsePort(final String address, final String port) {
+        try {
+            final int number = Integer.parseInt(port);
+            if (number > 0 && number <= 0xFFFF) {
+                return number;
+            }
+        } catch (final NumberFormatException ex) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid port in address: " + address);
+    }
+
+    /**
+     * @return the host name or address, IPv6 addresses in brackets
+     */
+    public String getHostname() {
+        return hostname;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public String toString() {
+        return hostname + ":" + port;
+    }
+}
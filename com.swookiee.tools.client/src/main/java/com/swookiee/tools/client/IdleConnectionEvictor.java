@@ -0,0 +1,58 @@
+package com.swookiee.tools.client;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+
+/**
+ * Daemon thread which periodically closes expired connections and connections which have been idle for longer than
+ * the configured time, so a client never picks up a socket the server has already dropped.
+ */
+final class IdleConnectionEvictor implements Closeable {
+
+    private final Thread thread;
+
+    private IdleConnectionEvictor(final Runnable eviction, final long maxIdleTimeMillis) {
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        Thread.sleep(maxIdleTimeMillis);
+                        eviction.run();
+                    }
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "swookiee-connection-evictor");
+        this.thread.setDaemon(true);
+    }
+
+    static IdleConnectionEvictor forPool(final HttpClientConnectionManager connectionManager,
+            final long maxIdleTimeMillis) {
+        return new IdleConnectionEvictor(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(maxIdleTimeMillis, TimeUnit.MILLISECONDS);
+        }, maxIdleTimeMillis);
+    }
+
+    static IdleConnectionEvictor forPool(final NHttpClientConnectionManager connectionManager,
+            final long maxIdleTimeMillis) {
+        return new IdleConnectionEvictor(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(maxIdleTimeMillis, TimeUnit.MILLISECONDS);
+        }, maxIdleTimeMillis);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        thread.interrupt();
+    }
+}
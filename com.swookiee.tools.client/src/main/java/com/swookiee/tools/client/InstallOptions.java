@@ -0,0 +1,84 @@
+package com.swookiee.tools.client;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Options for {@link SwookieeClient#installBundles(java.util.Collection, InstallOptions)}. By default already installed
+ * bundles having the same Bundle-SymbolicName are un-installed first and all bundles are installed sequentially on the
+ * calling thread.
+ * <p/>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class InstallOptions {
+
+    private boolean forceInstall = true;
+    private ForceStrategy forceStrategy = ForceStrategy.UNINSTALL;
+    private ExecutorService executor;
+    private DeployStateStore stateStore;
+
+    public static InstallOptions defaults() {
+        return new InstallOptions();
+    }
+
+    /**
+     * @param forceInstall
+     *            set to {@code false} to keep already installed bundles having the same Bundle-SymbolicName.
+     * @return these options
+     */
+    public InstallOptions withForceInstall(final boolean forceInstall) {
+        this.forceInstall = forceInstall;
+        return this;
+    }
+
+    /**
+     * @param forceStrategy
+     *            how already installed bundles are replaced if {@link #withForceInstall(boolean)} is set, default is
+     *            {@link ForceStrategy#UNINSTALL}
+     * @return these options
+     */
+    public InstallOptions withForceStrategy(final ForceStrategy forceStrategy) {
+        this.forceStrategy = forceStrategy;
+        return this;
+    }
+
+    /**
+     * @param executor
+     *            executor used to upload and install the bundles concurrently. The executor is not shut down by the
+     *            client.
+     * @return these options
+     */
+    public InstallOptions withExecutor(final ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Enables incremental deployment: bundles whose content digest matches the one recorded in {@code stateStore} and
+     * which are still active on the target with the recorded location and version are skipped entirely. The store is
+     * updated and saved after installation.
+     * 
+     * @param stateStore
+     *            the state of the last deployment to this target
+     * @return these options
+     */
+    public InstallOptions withStateStore(final DeployStateStore stateStore) {
+        this.stateStore = stateStore;
+        return this;
+    }
+
+    public boolean isForceInstall() {
+        return forceInstall;
+    }
+
+    public ForceStrategy getForceStrategy() {
+        return forceStrategy;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public DeployStateStore getStateStore() {
+        return stateStore;
+    }
+}
@@ -0,0 +1,105 @@
+package com.swookiee.tools.client;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Delegating connection manager which measures how long the calling thread waited for a pooled connection. The
+ * blocking client leases connections on the thread issuing the request, so the time is handed over in a thread local
+ * and picked up via {@link #takeLeaseWaitNanos()} once the request completed.
+ */
+final class LeaseTimingConnectionManager implements HttpClientConnectionManager {
+
+    private static final ThreadLocal<long[]> LEASE_WAIT = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[] { -1 };
+        }
+    };
+
+    private final HttpClientConnectionManager delegate;
+
+    LeaseTimingConnectionManager(final HttpClientConnectionManager delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return nanoseconds the current thread waited for its last connection, {@code -1} if it did not lease one since
+     *         the last call
+     */
+    static long takeLeaseWaitNanos() {
+        final long[] leaseWait = LEASE_WAIT.get();
+        final long nanos = leaseWait[0];
+        leaseWait[0] = -1;
+        return nanos;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(final HttpRoute route, final Object state) {
+        final ConnectionRequest request = delegate.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+
+            @Override
+            public HttpClientConnection get(final long timeout, final TimeUnit tunit) throws InterruptedException,
+                    ExecutionException, ConnectionPoolTimeoutException {
+                final long start = System.nanoTime();
+                try {
+                    return request.get(timeout, tunit);
+                } finally {
+                    LEASE_WAIT.get()[0] = System.nanoTime() - start;
+                }
+            }
+        };
+    }
+
+    @Override
+    public void releaseConnection(final HttpClientConnection conn, final Object newState, final long validDuration,
+            final TimeUnit timeUnit) {
+        delegate.releaseConnection(conn, newState, validDuration, timeUnit);
+    }
+
+    @Override
+    public void connect(final HttpClientConnection conn, final HttpRoute route, final int connectTimeout,
+            final HttpContext context) throws IOException {
+        delegate.connect(conn, route, connectTimeout, context);
+    }
+
+    @Override
+    public void upgrade(final HttpClientConnection conn, final HttpRoute route, final HttpContext context)
+            throws IOException {
+        delegate.upgrade(conn, route, context);
+    }
+
+    @Override
+    public void routeComplete(final HttpClientConnection conn, final HttpRoute route, final HttpContext context)
+            throws IOException {
+        delegate.routeComplete(conn, route, context);
+    }
+
+    @Override
+    public void closeIdleConnections(final long idletime, final TimeUnit tunit) {
+        delegate.closeIdleConnections(idletime, tunit);
+    }
+
+    @Override
+    public void closeExpiredConnections() {
+        delegate.closeExpiredConnections();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,94 @@
+package com.swookiee.tools.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of deploying a set of bundles to a single node of a {@link SwookieeClientGroup}.
+ */
+public final class NodeDeployResult {
+
+    private final String target;
+    private boolean attempted;
+    private List<BundleInstallResult> installResults = Collections.emptyList();
+    private final List<String> startFailures = new ArrayList<>();
+    private SwookieeClientException error;
+    private long durationMillis;
+
+    NodeDeployResult(final String target) {
+        this.target = target;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * @return {@code false} if the rollout has been aborted before this node was deployed to
+     */
+    public boolean isAttempted() {
+        return attempted;
+    }
+
+    public List<BundleInstallResult> getInstallResults() {
+        return Collections.unmodifiableList(installResults);
+    }
+
+    /**
+     * @return the bundles which have been installed but could not be started
+     */
+    public synchronized List<String> getStartFailures() {
+        return Collections.unmodifiableList(new ArrayList<>(startFailures));
+    }
+
+    /**
+     * @return the first error which made the deployment to this node fail, {@code null} if successful
+     */
+    public SwookieeClientException getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return attempted && error == null;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    int count(final boolean skipped) {
+        int count = 0;
+        for (BundleInstallResult result : installResults) {
+            if (result.isSuccessful() && result.isSkipped() == skipped) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    void setAttempted(final boolean attempted) {
+        this.attempted = attempted;
+    }
+
+    void setInstallResults(final List<BundleInstallResult> installResults) {
+        this.installResults = installResults;
+        for (BundleInstallResult result : installResults) {
+            if (!result.isSuccessful() && error == null) {
+                error = result.getError();
+            }
+        }
+    }
+
+    synchronized void addStartFailure(final String bundle) {
+        startFailures.add(bundle);
+    }
+
+    void setError(final SwookieeClientException error) {
+        this.error = error;
+    }
+
+    void setDurationMillis(final long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+}
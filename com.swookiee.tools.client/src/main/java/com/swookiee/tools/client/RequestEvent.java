@@ -0,0 +1,96 @@
+package com.swookiee.tools.client;
+
+/**
+ * Describes a single HTTP exchange of a client with a swookiee instance. Passed to every registered
+ * {@link SwookieeClientListener} once the exchange has completed or failed.
+ */
+public final class RequestEvent {
+
+    private final SwookieeOperation operation;
+    private final String target;
+    private final String method;
+    private final String endpoint;
+    private final int statusCode;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final long leaseWaitNanos;
+    private final long totalNanos;
+    private final Exception error;
+
+    RequestEvent(final SwookieeOperation operation, final String target, final String method, final String endpoint,
+            final int statusCode, final long bytesSent, final long bytesReceived, final long leaseWaitNanos,
+            final long totalNanos, final Exception error) {
+        this.operation = operation;
+        this.target = target;
+        this.method = method;
+        this.endpoint = endpoint;
+        this.statusCode = statusCode;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.leaseWaitNanos = leaseWaitNanos;
+        this.totalNanos = totalNanos;
+        this.error = error;
+    }
+
+    public SwookieeOperation getOperation() {
+        return operation;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the HTTP status code, {@code -1} if no response has been received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * @return time spent waiting for a pooled connection, {@code -1} if not known
+     */
+    public long getLeaseWaitNanos() {
+        return leaseWaitNanos;
+    }
+
+    /**
+     * @return time from issuing the request until the response has been read completely
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return the failure of this exchange, {@code null} if it was successful
+     */
+    public Exception getError() {
+        return error;
+    }
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s%s -> %d (%d bytes sent, %d bytes received, %d us)", method, target, endpoint,
+                statusCode, bytesSent, bytesReceived, totalNanos / 1000);
+    }
+}
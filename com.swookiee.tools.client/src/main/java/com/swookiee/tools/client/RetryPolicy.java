@@ -0,0 +1,138 @@
+package com.swookiee.tools.client;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Decides whether and when a failed operation is attempted again. Connection failures and the status codes given via
+ * {@link #retryingOn(int...)} are retried, any other failure is final. The delay between attempts grows exponentially up
+ * to a maximum; half of it is randomized so concurrent clients do not retry in lockstep. A deadline limits the time
+ * spent on all attempts of an operation.
+ * <p/>
+ * Policies are immutable, the {@code with} methods return modified copies.
+ * <p/>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class RetryPolicy {
+
+    private static final int[] DEFAULT_STATUS_CODES = { 502, 503, 504 };
+
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final long deadlineMillis;
+    private final int[] statusCodes;
+
+    private RetryPolicy(final int maxAttempts, final long initialDelayMillis, final long maxDelayMillis,
+            final long deadlineMillis, final int[] statusCodes) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.deadlineMillis = deadlineMillis;
+        this.statusCodes = statusCodes;
+    }
+
+    /**
+     * @return a policy which never retries
+     */
+    public static RetryPolicy none() {
+        return attempts(1);
+    }
+
+    /**
+     * @param maxAttempts
+     *            attempts including the first one
+     * @return a policy waiting 500 ms before the second attempt, at most 30 s between attempts, retrying on 502, 503 and
+     *         504 and without deadline
+     */
+    public static RetryPolicy attempts(final int maxAttempts) {
+        return new RetryPolicy(maxAttempts, 500, 30000, 0, DEFAULT_STATUS_CODES);
+    }
+
+    /**
+     * @param initialDelayMillis
+     *            delay before the second attempt, doubled for every further attempt
+     * @param maxDelayMillis
+     *            upper bound of the delay between two attempts
+     * @return a copy of this policy
+     */
+    public RetryPolicy withBackoff(final long initialDelayMillis, final long maxDelayMillis) {
+        return new RetryPolicy(maxAttempts, initialDelayMillis, maxDelayMillis, deadlineMillis, statusCodes);
+    }
+
+    /**
+     * @param deadlineMillis
+     *            no further attempt is started if it could not start within this many milliseconds after the first
+     *            one, {@code 0} disables the deadline
+     * @return a copy of this policy
+     */
+    public RetryPolicy withDeadline(final long deadlineMillis) {
+        return new RetryPolicy(maxAttempts, initialDelayMillis, maxDelayMillis, deadlineMillis, statusCodes);
+    }
+
+    /**
+     * @param retryableStatusCodes
+     *            unexpected HTTP status codes which are considered transient, replacing the default 502, 503 and 504
+     * @return a copy of this policy
+     */
+    public RetryPolicy retryingOn(final int... retryableStatusCodes) {
+        final int[] sorted = retryableStatusCodes.clone();
+        Arrays.sort(sorted);
+        return new RetryPolicy(maxAttempts, initialDelayMillis, maxDelayMillis, deadlineMillis, sorted);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param attempt
+     *            the attempt which just failed, starting at 1
+     * @param elapsedMillis
+     *            time since the first attempt started
+     * @param failure
+     *            the failure of the attempt
+     * @return milliseconds to wait before the next attempt, {@code -1} if {@code failure} is final
+     */
+    long nextDelayMillis(final int attempt, final long elapsedMillis, final SwookieeClientException failure) {
+        if (attempt >= maxAttempts || !isRetryable(failure)) {
+            return -1;
+        }
+        final long delay = Math.min(maxDelayMillis, initialDelayMillis << Math.min(30, attempt - 1));
+        final long jittered = delay <= 1 ? delay : delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        if (deadlineMillis > 0 && elapsedMillis + jittered > deadlineMillis) {
+            return -1;
+        }
+        return jittered;
+    }
+
+    boolean isRetryable(final SwookieeClientException failure) {
+        return isTransient(failure) || Arrays.binarySearch(statusCodes, failure.getStatusCode()) >= 0;
+    }
+
+    /**
+     * @return {@code true} if {@code failure} has been caused by an I/O error, as opposed to an unexpected status code
+     *         or an unreadable response
+     */
+    static boolean isTransient(final SwookieeClientException failure) {
+        return failure.getCause() instanceof IOException && !(failure.getCause() instanceof JsonProcessingException);
+    }
+
+    static void pause(final long delayMillis) throws SwookieeClientException {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SwookieeClientException("Interrupted while waiting for retry", ex);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d attempts, backoff %d-%d ms, deadline %d ms, status codes %s", maxAttempts,
+                initialDelayMillis, maxDelayMillis, deadlineMillis, Arrays.toString(statusCodes));
+    }
+}
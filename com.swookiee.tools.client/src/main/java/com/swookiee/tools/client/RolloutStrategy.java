@@ -0,0 +1,91 @@
+package com.swookiee.tools.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes in which waves a {@link SwookieeClientGroup} deploys to its nodes. The next wave only starts if all nodes
+ * of the previous wave have been deployed successfully.
+ * <p/>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class RolloutStrategy {
+
+    private final int canaries;
+    private final int batchSize;
+
+    private RolloutStrategy(final int canaries, final int batchSize) {
+        this.canaries = canaries;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return a strategy deploying to all nodes in a single wave
+     */
+    public static RolloutStrategy allAtOnce() {
+        return new RolloutStrategy(0, 0);
+    }
+
+    /**
+     * @param batchSize
+     *            number of nodes deployed to at the same time
+     * @return a strategy deploying to {@code batchSize} nodes per wave
+     */
+    public static RolloutStrategy batchesOf(final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        return new RolloutStrategy(0, batchSize);
+    }
+
+    /**
+     * @return a strategy deploying to the first node only and to all remaining nodes once the first one succeeded
+     */
+    public static RolloutStrategy canaryFirst() {
+        return new RolloutStrategy(1, 0);
+    }
+
+    /**
+     * Parses the names used in the maven plugin configuration.
+     * 
+     * @param name
+     *            one of {@code all-at-once}, {@code batches} or {@code canary-first}
+     * @param batchSize
+     *            batch size used for {@code batches}
+     * @return the strategy
+     */
+    public static RolloutStrategy valueOf(final String name, final int batchSize) {
+        switch (name) {
+        case "all-at-once":
+            return allAtOnce();
+        case "batches":
+            return batchesOf(batchSize);
+        case "canary-first":
+            return canaryFirst();
+        default:
+            throw new IllegalArgumentException("Unknown rollout strategy: " + name);
+        }
+    }
+
+    <T> List<List<T>> waves(final List<T> nodes) {
+        final List<List<T>> waves = new ArrayList<>();
+        int next = Math.min(canaries, nodes.size());
+        if (next > 0) {
+            waves.add(nodes.subList(0, next));
+        }
+        while (next < nodes.size()) {
+            final int end = batchSize > 0 ? Math.min(next + batchSize, nodes.size()) : nodes.size();
+            waves.add(nodes.subList(next, end));
+            next = end;
+        }
+        return waves;
+    }
+
+    @Override
+    public String toString() {
+        if (canaries > 0) {
+            return "canary-first";
+        }
+        return batchSize > 0 ? "batches of " + batchSize : "all-at-once";
+    }
+}
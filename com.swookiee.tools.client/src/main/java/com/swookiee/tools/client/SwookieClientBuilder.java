@@ -1,35 +1,69 @@
 package com.swookiee.tools.client;
 
 import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.AuthCache;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.SSLContextBuilder;
 import org.apache.http.conn.ssl.TrustStrategy;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.*;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.net.ssl.SSLContext;
+
+import java.io.Closeable;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * This Builder Class helps to create a {@link SwookieeClient} instance. You can configure target hostname, port,
  * username, password and HTTPS settings. If you do not set any properties the default target
  * <code>http://localhost:8080</code> with credentials <code>admin:admin123</code> will be used.
  * <p/>
+ * The created client uses a pooling connection manager. Its size, timeouts, keep-alive and idle connection eviction
+ * can be tuned to the number of concurrent requests you are going to issue.
+ * <p/>
  * Note: Since this API is in a very early stage changes may occur.
  */
 public final class SwookieClientBuilder {
 
     private static final Logger logger = LoggerFactory.getLogger(SwookieClientBuilder.class);
+    private static final long MAX_BACKOFF = 30000;
+    // how often the I/O reactor checks socket timeouts, which is how aborted asynchronous requests are released
+    private static final long SELECT_INTERVAL = 100;
 
     private final String hostname;
     private Integer port = 8080;
@@ -39,6 +73,19 @@ public final class SwookieClientBuilder {
     private boolean useSelfSigned = false;
     private String proxyHost;
     private int proxyPort;
+    private int maxConnections = 2;
+    private int maxConnectionsPerRoute = 2;
+    private int connectTimeout = 10000;
+    private int socketTimeout = 120000;
+    private int connectionRequestTimeout = 60000;
+    private long keepAlive = 30000;
+    private long maxIdleTime = 30000;
+    private boolean tcpNoDelay = true;
+    private long requestTimeout = 0;
+    private int ioThreads = Runtime.getRuntime().availableProcessors();
+    private SwookieeTransportFactory transportFactory;
+    private final ClientSettings settings = new ClientSettings().setRetryPolicy(RetryPolicy.attempts(3))
+            .setCircuitBreaker(5, 30000);
 
     private SwookieClientBuilder(final String hostname) {
         this.hostname = hostname;
@@ -70,6 +117,251 @@ public final class SwookieClientBuilder {
         return this;
     }
 
+    /**
+     * Sets the number of pooled HTTP connections to the target. Raise this if the created {@link SwookieeClient} is
+     * shared between several threads, otherwise concurrent requests will queue for a free connection.
+     * 
+     * @param maxConnections
+     *            maximum number of concurrent connections to the target
+     * @return this builder
+     */
+    public SwookieClientBuilder withMaxConnections(final int maxConnections) {
+        return withMaxConnections(maxConnections, maxConnections);
+    }
+
+    /**
+     * @param maxTotal
+     *            maximum number of pooled connections
+     * @param maxPerRoute
+     *            maximum number of pooled connections per route, default is 2
+     * @return this builder
+     */
+    public SwookieClientBuilder withMaxConnections(final int maxTotal, final int maxPerRoute) {
+        this.maxConnections = maxTotal;
+        this.maxConnectionsPerRoute = maxPerRoute;
+        return this;
+    }
+
+    /**
+     * @param connectTimeout
+     *            milliseconds to wait for a connection to be established, {@code 0} waits forever. Default is 10s.
+     * @return this builder
+     */
+    public SwookieClientBuilder withConnectTimeout(final int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * @param socketTimeout
+     *            milliseconds to wait for data on an established connection, {@code 0} waits forever. Default is 120s.
+     * @return this builder
+     */
+    public SwookieClientBuilder withSocketTimeout(final int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+        return this;
+    }
+
+    /**
+     * @param connectionRequestTimeout
+     *            milliseconds to wait for a free connection from the pool, {@code 0} waits forever. Default is 60s.
+     * @return this builder
+     */
+    public SwookieClientBuilder withConnectionRequestTimeout(final int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        return this;
+    }
+
+    /**
+     * @param keepAlive
+     *            milliseconds an idle connection is kept alive if the server does not send a shorter
+     *            <code>Keep-Alive</code> timeout. Default is 30s.
+     * @return this builder
+     */
+    public SwookieClientBuilder withKeepAlive(final long keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    /**
+     * @param maxIdleTime
+     *            milliseconds after which idle pooled connections are evicted by a background thread, {@code 0}
+     *            disables eviction. Default is 30s.
+     * @return this builder
+     */
+    public SwookieClientBuilder withIdleConnectionEviction(final long maxIdleTime) {
+        this.maxIdleTime = maxIdleTime;
+        return this;
+    }
+
+    /**
+     * @param tcpNoDelay
+     *            whether Nagle's algorithm is disabled on the sockets, default is {@code true}
+     * @return this builder
+     */
+    public SwookieClientBuilder withTcpNoDelay(final boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+        return this;
+    }
+
+    /**
+     * Only applies to clients created via {@link #createAsync()}.
+     * 
+     * @param requestTimeout
+     *            milliseconds after which an operation of the asynchronous client fails with a
+     *            {@link java.util.concurrent.TimeoutException} cause and the exchange is aborted, {@code 0} disables
+     *            the deadline. This is the default.
+     * @return this builder
+     */
+    public SwookieClientBuilder withRequestTimeout(final long requestTimeout) {
+        this.requestTimeout = requestTimeout;
+        return this;
+    }
+
+    /**
+     * Only applies to clients created via {@link #createAsync()}.
+     * 
+     * @param ioThreads
+     *            number of I/O dispatch threads driving all connections, default is the number of processors
+     * @return this builder
+     */
+    public SwookieClientBuilder withIoThreads(final int ioThreads) {
+        this.ioThreads = ioThreads;
+        return this;
+    }
+
+    /**
+     * Only applies to clients created via {@link #create()}.
+     * 
+     * @param listener
+     *            notified after every request with its timing and payload sizes, e.g. a shared {@link ClientMetrics}.
+     *            Without listeners no measurements are taken at all.
+     * @return this builder
+     */
+    public SwookieClientBuilder withListener(final SwookieeClientListener listener) {
+        this.settings.addListener(listener);
+        return this;
+    }
+
+    /**
+     * Shortcut for {@link #withRetryPolicy(RetryPolicy)} with the default status codes and no deadline.
+     * 
+     * @param maxAttempts
+     *            attempts per operation including the first one, default is 3. {@code 1} disables retries.
+     * @param initialBackoff
+     *            milliseconds to wait before the second attempt, default is 500. The delay doubles with every further
+     *            attempt.
+     * @return this builder
+     */
+    public SwookieClientBuilder withRetries(final int maxAttempts, final long initialBackoff) {
+        return withRetryPolicy(RetryPolicy.attempts(maxAttempts).withBackoff(initialBackoff, MAX_BACKOFF));
+    }
+
+    /**
+     * Only applies to clients created via {@link #create()}. Listing, un-installing and starting bundles is repeated
+     * after failures the policy considers transient. Installation is not idempotent, so a failed upload is only
+     * repeated if the bundle did not get installed nevertheless. Default is {@link RetryPolicy#attempts(int)} with 3
+     * attempts.
+     * 
+     * @param retryPolicy
+     *            policy for all operations
+     * @return this builder
+     */
+    public SwookieClientBuilder withRetryPolicy(final RetryPolicy retryPolicy) {
+        this.settings.setRetryPolicy(retryPolicy);
+        return this;
+    }
+
+    /**
+     * Only applies to clients created via {@link #create()}.
+     * 
+     * @param operation
+     *            the operation to configure
+     * @param retryPolicy
+     *            policy replacing the one given via {@link #withRetryPolicy(RetryPolicy)} for {@code operation}
+     * @return this builder
+     */
+    public SwookieClientBuilder withRetryPolicy(final SwookieeOperation operation, final RetryPolicy retryPolicy) {
+        this.settings.setRetryPolicy(operation, retryPolicy);
+        return this;
+    }
+
+    /**
+     * Only applies to clients created via {@link #create()}. After {@code failureThreshold} consecutive connection
+     * failures or retryable status codes all requests fail immediately for {@code openMillis}, then a single trial
+     * request decides whether the target is available again. This keeps deployments to many nodes from waiting for
+     * timeouts of a node which is down. Enabled by default with 5 failures and 30 seconds.
+     * 
+     * @param failureThreshold
+     *            consecutive failures opening the circuit, {@code 0} disables the circuit breaker
+     * @param openMillis
+     *            milliseconds requests fail immediately once the circuit is open
+     * @return this builder
+     */
+    public SwookieClientBuilder withCircuitBreaker(final int failureThreshold, final long openMillis) {
+        this.settings.setCircuitBreaker(failureThreshold, openMillis);
+        return this;
+    }
+
+    /**
+     * Only applies to clients created via {@link #create()}. Keeps the last listing of installed bundles for
+     * {@code ttlMillis} and serves {@link SwookieeClient#getInstalledBundles()} and forced installations from it.
+     * Afterwards the listing is revalidated with a conditional request if the server sent an ETag or Last-Modified
+     * header. Installations, un-installations and starts by the client update the snapshot in place; changes made by
+     * others are only seen once the snapshot expired.
+     * 
+     * @param ttlMillis
+     *            milliseconds a listing is used without asking the server, {@code 0} disables the cache. This is the
+     *            default.
+     * @return this builder
+     */
+    public SwookieClientBuilder withSnapshotCache(final long ttlMillis) {
+        this.settings.setSnapshotTtl(ttlMillis);
+        return this;
+    }
+
+    /**
+     * Only applies to clients created via {@link #create()}. Bundles are already compressed archives, so this mostly
+     * pays off for bundles which store their content uncompressed and slow links.
+     * 
+     * @param compressUploads
+     *            set to {@code true} to gzip uploaded bundles, the server has to support the {@code gzip}
+     *            Content-Encoding for requests. Default is {@code false}.
+     * @return this builder
+     */
+    public SwookieClientBuilder withCompression(final boolean compressUploads) {
+        this.settings.setCompressUploads(compressUploads);
+        return this;
+    }
+
+    /**
+     * Only applies to clients created via {@link #create()}.
+     * 
+     * @param progressListener
+     *            notified while bundles are uploaded
+     * @return this builder
+     */
+    public SwookieClientBuilder withUploadProgressListener(final UploadProgressListener progressListener) {
+        this.settings.setProgressListener(progressListener);
+        return this;
+    }
+
+    /**
+     * Replaces the default transport, HTTP/1.1 over pooled Apache HTTP client connections, e.g. by one multiplexing
+     * all requests over a single HTTP/2 connection. The transport gets the target, credentials, proxy, SSL and
+     * timeout settings of this builder; settings specific to the Apache HTTP client such as keep alive and idle
+     * connection eviction do not apply. Retries, circuit breaking, listeners and the snapshot cache work with every
+     * transport. Only affects {@link #create()}.
+     * 
+     * @param transportFactory
+     *            creates the transport of the client
+     * @return this builder
+     */
+    public SwookieClientBuilder withTransport(final SwookieeTransportFactory transportFactory) {
+        this.transportFactory = transportFactory;
+        return this;
+    }
+
     public SwookieClientBuilder withUsernamePassword(final String username, final String password) {
         this.username = username;
         this.password = password;
@@ -78,42 +370,168 @@ public final class SwookieClientBuilder {
 
     public SwookieeClient create() throws SwookieeClientException {
         final HttpHost httpHost = getHttpHost();
-        final CloseableHttpClient httpclient = getHttpClient();
+        if (this.transportFactory != null) {
+            return new SwookieeClient(this.transportFactory.create(getTransportSettings(httpHost)),
+                    Collections.<Closeable> emptyList(), this.settings.copy());
+        }
+        final PoolingHttpClientConnectionManager connectionManager = getConnectionManager();
+        final CloseableHttpClient httpclient = getHttpClient(this.settings.getListeners().isEmpty()
+                ? connectionManager : new LeaseTimingConnectionManager(connectionManager));
+
+        final List<Closeable> resources = new ArrayList<>();
+        if (this.maxIdleTime > 0) {
+            final IdleConnectionEvictor evictor = IdleConnectionEvictor.forPool(connectionManager, this.maxIdleTime);
+            evictor.start();
+            resources.add(evictor);
+        }
+
+        return new SwookieeClient(new ApacheHttpTransport(httpclient, getSwookieeContext(httpHost), httpHost),
+                resources, this.settings.copy());
+    }
+
+    private TransportSettings getTransportSettings(final HttpHost httpHost) throws SwookieeClientException {
+        return new TransportSettings(httpHost, this.username, this.password, this.proxyHost == null ? null
+                : new HttpHost(this.proxyHost, this.proxyPort), getSelfSignedSslContext(), this.maxConnections,
+                this.connectTimeout, this.socketTimeout);
+    }
+
+    /**
+     * Creates a client which does not block the calling thread. All connections are driven by a small number of I/O
+     * threads (see {@link #withIoThreads(int)}), so many concurrent operations do not need as many threads.
+     * 
+     * @return a started asynchronous client
+     * @throws SwookieeClientException
+     *             Will be thrown in case the I/O reactor or the SSL context could not be set up
+     */
+    public SwookieeAsyncClient createAsync() throws SwookieeClientException {
+        final HttpHost httpHost = getHttpHost();
+        final PoolingNHttpClientConnectionManager connectionManager = getAsyncConnectionManager();
+
+        final HttpAsyncClientBuilder httpClientBuilder = HttpAsyncClients.custom()
+                .setDefaultCredentialsProvider(getCredentialsProvider())
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(getKeepAliveStrategy())
+                .setDefaultRequestConfig(getRequestConfig());
+        if (this.proxyHost != null) {
+            final HttpHost proxy = new HttpHost(this.proxyHost, this.proxyPort);
+            httpClientBuilder.setProxy(proxy);
+            logger.info("Using Proxy {} for HTTP connections", proxy.toString());
+        }
+        final CloseableHttpAsyncClient httpclient = httpClientBuilder.build();
+        httpclient.start();
+
+        final List<Closeable> resources = new ArrayList<>();
+        if (this.maxIdleTime > 0) {
+            final IdleConnectionEvictor evictor = IdleConnectionEvictor.forPool(connectionManager, this.maxIdleTime);
+            evictor.start();
+            resources.add(evictor);
+        }
+
+        return new SwookieeAsyncClient(httpclient, getSwookieeContext(httpHost), httpHost, this.requestTimeout,
+                resources);
+    }
+
+    private HttpClientContext getSwookieeContext(final HttpHost httpHost) {
         final BasicScheme basicAuth = new BasicScheme();
         final AuthCache authCache = new BasicAuthCache();
         authCache.put(httpHost, basicAuth);
 
         final HttpClientContext swookieeContext = HttpClientContext.create();
         swookieeContext.setAuthCache(authCache);
+        return swookieeContext;
+    }
 
-        return new SwookieeClient(httpclient, swookieeContext, httpHost);
+    private PoolingHttpClientConnectionManager getConnectionManager() throws SwookieeClientException {
+        final SSLContext sslContext = getSelfSignedSslContext();
+        final Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder
+                .<ConnectionSocketFactory> create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslContext == null ? SSLConnectionSocketFactory.getSocketFactory()
+                        : new SSLConnectionSocketFactory(sslContext,
+                                SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER))
+                .build();
+
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                socketFactoryRegistry);
+        connectionManager.setMaxTotal(this.maxConnections);
+        connectionManager.setDefaultMaxPerRoute(this.maxConnectionsPerRoute);
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom()
+                .setTcpNoDelay(this.tcpNoDelay)
+                .setSoKeepAlive(true)
+                .setSoTimeout(this.socketTimeout)
+                .build());
+        return connectionManager;
+    }
+
+    private PoolingNHttpClientConnectionManager getAsyncConnectionManager() throws SwookieeClientException {
+        final SSLContext sslContext = getSelfSignedSslContext();
+        final Registry<SchemeIOSessionStrategy> sessionStrategyRegistry = RegistryBuilder
+                .<SchemeIOSessionStrategy> create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", sslContext == null ? SSLIOSessionStrategy.getDefaultStrategy()
+                        : new SSLIOSessionStrategy(sslContext, SSLIOSessionStrategy.ALLOW_ALL_HOSTNAME_VERIFIER))
+                .build();
+        try {
+            final ConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(IOReactorConfig.custom()
+                    .setIoThreadCount(this.ioThreads)
+                    .setConnectTimeout(this.connectTimeout)
+                    .setSoTimeout(this.socketTimeout)
+                    .setSoKeepAlive(true)
+                    .setTcpNoDelay(this.tcpNoDelay)
+                    .setSelectInterval(SELECT_INTERVAL)
+                    .build());
+            final PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+                    ioReactor, sessionStrategyRegistry);
+            connectionManager.setMaxTotal(this.maxConnections);
+            connectionManager.setDefaultMaxPerRoute(this.maxConnectionsPerRoute);
+            return connectionManager;
+        } catch (final IOReactorException ex) {
+            throw new SwookieeClientException("Could not start I/O reactor: " + ex.getMessage(), ex);
+        }
     }
 
-    private CloseableHttpClient getHttpClient() throws SwookieeClientException {
+    private SSLContext getSelfSignedSslContext() throws SwookieeClientException {
+        if (!this.useSelfSigned) {
+            return null;
+        }
+        try {
+            final SSLContextBuilder builder = new SSLContextBuilder();
+            builder.loadTrustMaterial(null, new TrustStrategy() {
+                @Override
+                public boolean isTrusted(X509Certificate[] chain, String authType)
+                        throws CertificateException {
+                    return true;
+                }
+            });
+            return builder.build();
+
+        } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException ex) {
+            throw new SwookieeClientException("Could not initiate self signed certification", ex);
+        }
+    }
+
+    private CredentialsProvider getCredentialsProvider() {
         final CredentialsProvider credsProvider = new BasicCredentialsProvider();
         credsProvider.setCredentials(new AuthScope(this.hostname, this.port), new UsernamePasswordCredentials(
                 this.username, this.password));
+        return credsProvider;
+    }
 
-        final HttpClientBuilder httpClientBuilder = HttpClients.custom().setDefaultCredentialsProvider(credsProvider);
-
-        if (this.useSelfSigned) {
-            try {
-                final SSLContextBuilder builder = new SSLContextBuilder();
-                builder.loadTrustMaterial(null, new TrustStrategy() {
-                    @Override
-                    public boolean isTrusted(X509Certificate[] chain, String authType)
-                            throws CertificateException {
-                        return true;
-                    }
-                });
-                final SSLConnectionSocketFactory sslsf = new SSLConnectionSocketFactory(builder.build(),
-                        SSLConnectionSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER);
-                httpClientBuilder.setSSLSocketFactory(sslsf);
-
-            } catch (NoSuchAlgorithmException | KeyStoreException | KeyManagementException ex) {
-                throw new SwookieeClientException("Could not initiate self signed certification", ex);
-            }
-        }
+    private RequestConfig getRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectTimeout(this.connectTimeout)
+                .setSocketTimeout(this.socketTimeout)
+                .setConnectionRequestTimeout(this.connectionRequestTimeout)
+                .build();
+    }
+
+    private CloseableHttpClient getHttpClient(final HttpClientConnectionManager connectionManager) {
+        final HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                .setDefaultCredentialsProvider(getCredentialsProvider())
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy(getKeepAliveStrategy())
+                .setDefaultRequestConfig(getRequestConfig())
+                .disableAutomaticRetries();
 
         if (this.proxyHost != null) {
             addProxySettings(httpClientBuilder);
@@ -122,6 +540,20 @@ public final class SwookieClientBuilder {
         return httpClientBuilder.build();
     }
 
+    private ConnectionKeepAliveStrategy getKeepAliveStrategy() {
+        return new ConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(final HttpResponse response, final HttpContext context) {
+                final long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response,
+                        context);
+                if (announced > 0 && announced < keepAlive) {
+                    return announced;
+                }
+                return keepAlive;
+            }
+        };
+    }
+
     private void addProxySettings(HttpClientBuilder httpClientBuilder) {
         HttpHost proxyHost = new HttpHost(this.proxyHost, this.proxyPort);
         httpClientBuilder.setProxy(proxyHost);
@@ -0,0 +1,317 @@
+package com.swookiee.tools.client;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.client.methods.ZeroCopyPost;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swookiee.runtime.ewok.representation.BundleRepresentation;
+import com.swookiee.runtime.ewok.representation.BundleStatusRepresentation;
+
+/**
+ * Non-blocking counterpart of {@link SwookieeClient}. Every operation returns immediately with a
+ * {@link CompletableFuture}, the HTTP exchanges are driven by the I/O threads of the underlying
+ * {@link CloseableHttpAsyncClient}. Failed operations complete exceptionally with a {@link SwookieeClientException}.
+ * Cancelling a returned future aborts the HTTP exchanges of the operation which are still in flight. If a request
+ * timeout has been configured via {@link SwookieClientBuilder#withRequestTimeout(long)} operations taking longer fail
+ * with a {@link TimeoutException} cause, the timeout applies to all requests of an operation together.
+ * <p>
+ * Use {@link SwookieClientBuilder#createAsync()} to create instances.
+ * <p>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class SwookieeAsyncClient implements AutoCloseable {
+
+    private static final String FRAMEWORK_BUNDLES = "/framework/bundles";
+    private static final String FRAMEWORK_BUNDLES_REPRESENTATIONS = "/framework/bundles/representations";
+    private static final String FRAMEWORK_BUNDLE = "/framework/bundle/";
+    private static final ContentType BUNDLE_CONTENT_TYPE = ContentType.create("application/vnd.osgi.bundle");
+
+    private static final Logger logger = LoggerFactory.getLogger(SwookieeAsyncClient.class);
+
+    private final CloseableHttpAsyncClient httpclient;
+    private final HttpClientContext swookieeContext;
+    private final HttpHost httpHost;
+    private final long requestTimeout;
+    private final List<Closeable> resources;
+    private final ObjectMapper mapper;
+    private final ScheduledExecutorService timer;
+
+    SwookieeAsyncClient(final CloseableHttpAsyncClient httpclient, final HttpClientContext swookieeContext,
+            final HttpHost httpHost, final long requestTimeout, final List<Closeable> resources) {
+        this.httpclient = httpclient;
+        this.swookieeContext = swookieeContext;
+        this.httpHost = httpHost;
+        this.requestTimeout = requestTimeout;
+        this.resources = resources;
+        this.mapper = new ObjectMapper();
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "swookiee-async-timeouts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        for (Closeable resource : resources) {
+            try {
+                resource.close();
+            } catch (final IOException ex) {
+                logger.error("Could not release " + resource, ex);
+            }
+        }
+        try {
+            httpclient.close();
+        } catch (final IOException ex) {
+            logger.error("Could not close HTTP connection.", ex);
+        }
+    }
+
+    /**
+     * Installs a Bundle on a remote swookiee instance. The file is streamed from disk without copying it into memory.
+     * 
+     * @param file
+     *            the bundle which will be installed
+     * @param forceInstall
+     *            set to {@code true} to un-install bundles having the same bundle symbolic name first
+     * @return future of the location of the installed bundle
+     */
+    public CompletableFuture<String> installBundle(final File file, final boolean forceInstall) {
+        if (!forceInstall) {
+            return withDeadline(postBundle(file));
+        }
+        final String bundleSymbolicName;
+        try {
+            bundleSymbolicName = BundleDescriptor.of(file).getSymbolicName();
+        } catch (final SwookieeClientException ex) {
+            return failed(ex);
+        }
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final List<CompletableFuture<?>> steps = new CopyOnWriteArrayList<>();
+        result.whenComplete((location, ex) -> {
+            if (ex != null) {
+                steps.forEach(step -> step.cancel(true));
+            }
+        });
+        step(result, steps, listBundles()).thenCompose(
+                installedBundles -> {
+                    final CompletableFuture<?>[] uninstallations = new BundleIndex(installedBundles)
+                            .getBySymbolicName(bundleSymbolicName).stream()
+                            .map(bundle -> step(result, steps, deleteBundle(bundle.getId())))
+                            .toArray(CompletableFuture[]::new);
+                    return CompletableFuture.allOf(uninstallations);
+                }).thenCompose(uninstalled -> step(result, steps, postBundle(file))).whenComplete((location, ex) -> {
+            if (ex == null) {
+                result.complete(location);
+            } else {
+                result.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex
+                        .getCause() : ex);
+            }
+        });
+        return withDeadline(result);
+    }
+
+    /**
+     * Keeps the future of a request of {@code operation}, it is cancelled if the operation fails, is cancelled or
+     * times out, even if that happened before the request has been sent.
+     */
+    private static <T> CompletableFuture<T> step(final CompletableFuture<?> operation,
+            final List<CompletableFuture<?>> steps, final CompletableFuture<T> step) {
+        steps.add(step);
+        if (operation.isCompletedExceptionally()) {
+            step.cancel(true);
+        }
+        return step;
+    }
+
+    public CompletableFuture<String> installBundle(final File file) {
+        return installBundle(file, false);
+    }
+
+    public CompletableFuture<Void> uninstallBundle(final Long bundleId) {
+        return withDeadline(deleteBundle(bundleId));
+    }
+
+    /**
+     * @param bundlePath
+     *            the path to the bundle. e.g. the result of {@link #installBundle(File)}
+     * @return future completing once the start request has been accepted
+     */
+    public CompletableFuture<Void> startBundle(final String bundlePath) {
+        final HttpPut put = new HttpPut(String.format("%s/state", bundlePath));
+        try {
+            final BundleStatusRepresentation stateRepresentation = new BundleStatusRepresentation(
+                    BundleState.ACTIVE.getCode(), 0);
+            put.setEntity(new StringEntity(mapper.writeValueAsString(stateRepresentation)));
+        } catch (final UnsupportedEncodingException | JsonProcessingException ex) {
+            return failed(new SwookieeClientException("Could not add activation dto: " + ex.getMessage(), ex));
+        }
+        return withDeadline(execute(HttpAsyncMethods.create(this.httpHost, put), HttpStatus.SC_OK, entity -> null));
+    }
+
+    public CompletableFuture<List<BundleRepresentation>> getInstalledBundles() {
+        return withDeadline(listBundles());
+    }
+
+    public String getConfiguredTarget() {
+        return this.httpHost.toString();
+    }
+
+    private CompletableFuture<List<BundleRepresentation>> listBundles() {
+        return execute(HttpAsyncMethods.create(this.httpHost, new HttpGet(FRAMEWORK_BUNDLES_REPRESENTATIONS)),
+                HttpStatus.SC_OK, BundleRepresentations::readList);
+    }
+
+    private CompletableFuture<Void> deleteBundle(final Long bundleId) {
+        return execute(HttpAsyncMethods.create(this.httpHost, new HttpDelete(FRAMEWORK_BUNDLE + bundleId)),
+                HttpStatus.SC_OK, entity -> null);
+    }
+
+    private CompletableFuture<String> postBundle(final File file) {
+        final HttpAsyncRequestProducer producer;
+        try {
+            producer = new ZeroCopyPost(URI.create(this.httpHost.toURI() + FRAMEWORK_BUNDLES), file,
+                    BUNDLE_CONTENT_TYPE) {
+                @Override
+                protected HttpEntityEnclosingRequest createRequest(final URI requestURI, final HttpEntity entity) {
+                    final HttpEntityEnclosingRequest request = super.createRequest(requestURI, entity);
+                    request.addHeader("Content-Location", file.getName());
+                    return request;
+                }
+            };
+        } catch (final FileNotFoundException ex) {
+            return failed(new SwookieeClientException("Could not read bundle " + file, ex));
+        }
+        return execute(producer, HttpStatus.SC_OK, entity -> EntityUtils.toString(entity, StandardCharsets.UTF_8)
+                .trim());
+    }
+
+    /**
+     * Sends a single request, the returned future itself is handed to the caller so cancelling it aborts the exchange.
+     * Map the response in {@code reader}, futures derived with {@code thenApply} do not propagate cancellation.
+     */
+    private <T> CompletableFuture<T> execute(final HttpAsyncRequestProducer producer, final int expectedStatusCode,
+            final SwookieeClient.EntityReader<T> reader) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final HttpClientContext context = ApacheHttpTransport.newRequestContext(swookieeContext, httpHost);
+        final Future<HttpResponse> exchange = httpclient.execute(producer, HttpAsyncMethods.createConsumer(), context,
+                new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void completed(final HttpResponse response) {
+                        final StatusLine returnedStatus = response.getStatusLine();
+                        if (returnedStatus.getStatusCode() != expectedStatusCode) {
+                            result.completeExceptionally(new SwookieeClientException(String.format(
+                                    "Error during installation %d : %s", returnedStatus.getStatusCode(),
+                                    returnedStatus.getReasonPhrase())));
+                            return;
+                        }
+                        try {
+                            result.complete(reader.read(response.getEntity()));
+                        } catch (final JsonProcessingException ex) {
+                            logger.error("Could not parse response: " + ex.getMessage(), ex);
+                            result.completeExceptionally(new SwookieeClientException(
+                                    "Error while reading the list of bundles", ex));
+                        } catch (final IOException ex) {
+                            result.completeExceptionally(new SwookieeClientException("Could not obtain response: "
+                                    + ex.getMessage(), ex));
+                        } catch (final RuntimeException ex) {
+                            result.completeExceptionally(new SwookieeClientException("Could not read response: "
+                                    + ex.getMessage(), ex));
+                        }
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        result.completeExceptionally(new SwookieeClientException("Could not obtain response: "
+                                + ex.getMessage(), ex));
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        result.cancel(false);
+                    }
+                });
+        result.whenComplete((response, ex) -> {
+            if (ex != null) {
+                abort(exchange, context.getConnection());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * httpasyncclient 4.0 keeps a cancelled exchange and its pooled connection until the response arrives, closing
+     * the connection does not release it either. A socket timeout fails the exchange and releases the connection once
+     * the I/O reactor checks the timeouts again.
+     */
+    private static void abort(final Future<HttpResponse> exchange, final HttpConnection connection) {
+        if (connection != null && !exchange.isDone()) {
+            try {
+                connection.setSocketTimeout(1);
+            } catch (final IllegalStateException ex) {
+                logger.debug("Connection has been released already: " + ex.getMessage(), ex);
+            }
+        }
+        exchange.cancel(true);
+    }
+
+    /**
+     * Fails {@code operation} with a {@link TimeoutException} cause once the request timeout elapsed, which cancels
+     * its requests still in flight.
+     */
+    private <T> CompletableFuture<T> withDeadline(final CompletableFuture<T> operation) {
+        if (this.requestTimeout > 0 && !operation.isDone()) {
+            final ScheduledFuture<?> deadline = timer.schedule(
+                    () -> operation.completeExceptionally(new SwookieeClientException(String.format(
+                            "Request did not complete within %d ms", this.requestTimeout), new TimeoutException())),
+                    this.requestTimeout, TimeUnit.MILLISECONDS);
+            operation.whenComplete((response, ex) -> deadline.cancel(false));
+        }
+        return operation;
+    }
+
+    private static <T> CompletableFuture<T> failed(final SwookieeClientException ex) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(ex);
+        return future;
+    }
+}
@@ -1,20 +1,38 @@
 package com.swookiee.tools.client;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.jar.Attributes;
-import java.util.jar.JarInputStream;
-import java.util.jar.Manifest;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
+import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
@@ -22,7 +40,7 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.util.EntityUtils;
@@ -38,6 +56,10 @@ import com.swookiee.runtime.ewok.representation.BundleStatusRepresentation;
  * This Class provides a very simple client for the OSGi RFC-182 based implementation of swookiee. For now it supports
  * reading the information of installed Bundles and enables you to install and start bundles from remote.
  * <p>
+ * Instances are safe to share between threads as long as the underlying HTTP client uses a pooling connection manager,
+ * e.g. one created via {@link SwookieClientBuilder#withMaxConnections(int)}, or a transport multiplexing requests
+ * over one connection (see {@link SwookieeTransport}).
+ * <p>
  * Note: Since this API is in a very early stage changes may occur.
  */
 public final class SwookieeClient implements AutoCloseable {
@@ -45,26 +67,55 @@ public final class SwookieeClient implements AutoCloseable {
     private static final String FRAMEWORK_BUNDLES = "/framework/bundles";
     private static final String FRAMEWORK_BUNDLES_REPRESENTATIONS = "/framework/bundles/representations";
     private static final String FRAMEWORK_BUNDLE = "/framework/bundle/";
+    private static final long MIN_POLL_INTERVAL = 25;
+    private static final long MAX_POLL_INTERVAL = 1000;
+    private static final ContentType BUNDLE_CONTENT_TYPE = ContentType.create("application/vnd.osgi.bundle");
 
     private static final Logger logger = LoggerFactory.getLogger(SwookieeClient.class);
+    private static final EntityReader<String> TEXT = entity -> EntityUtils.toString(entity, StandardCharsets.UTF_8);
 
-    private final CloseableHttpClient httpclient;
-    private final HttpClientContext swookieeContext;
-    private final HttpHost httpHost;
+    private final SwookieeTransport transport;
     private final ObjectMapper mapper;
+    private final List<Closeable> resources;
+    private final List<SwookieeClientListener> listeners;
+    private final ClientSettings settings;
+    private final CircuitBreaker circuitBreaker;
+    private final BundleSnapshotCache snapshotCache;
 
     public SwookieeClient(final CloseableHttpClient httpclient, final HttpClientContext swookieeContext,
             final HttpHost httpHost) {
-        this.httpclient = httpclient;
-        this.swookieeContext = swookieeContext;
-        this.httpHost = httpHost;
+        this(new ApacheHttpTransport(httpclient, swookieeContext, httpHost));
+    }
+
+    /**
+     * @param transport
+     *            carries the requests to the target, closed with this client
+     */
+    public SwookieeClient(final SwookieeTransport transport) {
+        this(transport, Collections.<Closeable> emptyList(), new ClientSettings());
+    }
+
+    SwookieeClient(final SwookieeTransport transport, final List<Closeable> resources, final ClientSettings settings) {
+        this.transport = transport;
         this.mapper = new ObjectMapper();
+        this.resources = resources;
+        this.listeners = settings.getListeners();
+        this.settings = settings;
+        this.circuitBreaker = settings.newCircuitBreaker(transport.getTarget().toString());
+        this.snapshotCache = settings.newSnapshotCache();
     }
-    
+
     @Override
     public void close() {
+        for (Closeable resource : resources) {
+            try {
+                resource.close();
+            } catch (final IOException ex) {
+                logger.error("Could not release " + resource, ex);
+            }
+        }
         try {
-            httpclient.close();
+            transport.close();
         } catch (final IOException ex) {
             logger.error("Could not close HTTP connection.", ex);
         }
@@ -97,17 +148,167 @@ public final class SwookieeClient implements AutoCloseable {
      *             Will be thrown in case something goes wrong during the installation
      */
     public String installBundle(final File file, final boolean forceInstall) throws SwookieeClientException {
+        if (forceInstall) {
+            return installBundle(file, ForceStrategy.UNINSTALL);
+        }
+        // fails before uploading if the file is not a bundle
+        BundleDescriptor.of(file);
+        return uploadBundle(file, null);
+    }
+
+    /**
+     * Installs a Bundle on a remote swookiee instance, replacing the installed bundles having the same bundle symbolic
+     * name.
+     * 
+     * @param file
+     *            the bundle which will be installed
+     * @param forceStrategy
+     *            whether the installed bundles are un-installed or one of them is updated in place
+     * @return the location of the installed or updated bundle
+     * @throws SwookieeClientException
+     *             Will be thrown in case something goes wrong during the installation
+     */
+    public String installBundle(final File file, final ForceStrategy forceStrategy) throws SwookieeClientException {
+        final BundleDescriptor descriptor = BundleDescriptor.of(file);
+        final BundleRepresentation updated = uninstallReplaced(findInstalled(descriptor.getSymbolicName()),
+                forceStrategy, null);
+        if (updated == null) {
+            return uploadBundle(file, null);
+        }
+        final String bundlePath = FRAMEWORK_BUNDLE + updated.getId();
+        updateBundle(bundlePath, file);
+        return bundlePath;
+    }
 
-        String bundleSymbolicName = getBundleSymbolicName(file);
+    /**
+     * Installs several bundles on a remote swookiee instance. In contrast to calling {@link #installBundle(File, boolean)}
+     * for every file the list of installed bundles is fetched only once.
+     * 
+     * @param files
+     *            the bundles which will be installed
+     * @param options
+     *            controls un-installation of already installed bundles and concurrency
+     * @return one result per file, in the iteration order of {@code files}
+     * @throws SwookieeClientException
+     *             Will be thrown in case the installed bundles could not be read. Failures of single bundles are
+     *             reported via {@link BundleInstallResult#getError()}.
+     */
+    public List<BundleInstallResult> installBundles(final Collection<File> files, final InstallOptions options)
+            throws SwookieeClientException {
+        final DeployStateStore stateStore = options.getStateStore();
+        final BundleIndex installedBundles = options.isForceInstall() || stateStore != null ? new BundleIndex(
+                getInstalledBundles()) : null;
 
-        if (forceInstall) {
-            uninstallIfInstalled(bundleSymbolicName);
+        final List<BundleInstallResult> results = new ArrayList<>();
+        final List<Callable<BundleInstallResult>> installations = new ArrayList<>();
+        for (final File file : files) {
+            final BundleInstallResult result = new BundleInstallResult(file);
+            results.add(result);
+            installations.add(new Callable<BundleInstallResult>() {
+                @Override
+                public BundleInstallResult call() {
+                    installBundle(result, installedBundles, options.isForceInstall(), options.getForceStrategy(),
+                            stateStore);
+                    return result;
+                }
+            });
+        }
+
+        final ExecutorService executor = options.getExecutor();
+        if (executor == null) {
+            for (Callable<BundleInstallResult> installation : installations) {
+                try {
+                    installation.call();
+                } catch (final Exception ex) {
+                    throw new SwookieeClientException("Could not install bundles: " + ex.getMessage(), ex);
+                }
+            }
+        } else {
+            awaitAll(executor, installations);
+        }
+        if (stateStore != null) {
+            stateStore.save();
+        }
+        return results;
+    }
+
+    private void awaitAll(final ExecutorService executor, final List<Callable<BundleInstallResult>> installations)
+            throws SwookieeClientException {
+        try {
+            for (Future<BundleInstallResult> installation : executor.invokeAll(installations)) {
+                installation.get();
+            }
+        } catch (final ExecutionException ex) {
+            throw new SwookieeClientException("Could not install bundles: " + ex.getCause().getMessage(), ex);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SwookieeClientException("Interrupted while installing bundles", ex);
+        }
+    }
+
+    private void installBundle(final BundleInstallResult result, final BundleIndex installedBundles,
+            final boolean forceInstall, final ForceStrategy forceStrategy, final DeployStateStore stateStore) {
+        final File file = result.getFile();
+        try {
+            long phaseStart = System.nanoTime();
+            final BundleDescriptor descriptor = BundleDescriptor.of(file);
+            final String bundleSymbolicName = descriptor.getSymbolicName();
+            result.setSymbolicName(bundleSymbolicName);
+
+            String digest = null;
+            if (stateStore != null && bundleSymbolicName != null) {
+                digest = descriptor.getDigest();
+                final BundleRepresentation unchanged = findUnchanged(installedBundles, stateStore,
+                        bundleSymbolicName, digest);
+                if (unchanged != null) {
+                    logger.debug("Skipping {} since it is unchanged", file);
+                    result.setManifestNanos(System.nanoTime() - phaseStart);
+                    result.setSkipped(true);
+                    result.setLocation(FRAMEWORK_BUNDLE + unchanged.getId());
+                    result.setFinalState(BundleState.ACTIVE);
+                    return;
+                }
+                stateStore.forget(bundleSymbolicName);
+            }
+            result.setManifestNanos(System.nanoTime() - phaseStart);
+
+            phaseStart = System.nanoTime();
+            final BundleRepresentation updated = forceInstall ? uninstallReplaced(new ArrayList<>(installedBundles
+                    .getBySymbolicName(bundleSymbolicName)), forceStrategy, result) : null;
+            result.setUninstallNanos(System.nanoTime() - phaseStart);
+            if (updated == null) {
+                result.setLocation(uploadBundle(file, result));
+                result.setFinalState(BundleState.INSTALLED);
+            } else {
+                updateBundle(FRAMEWORK_BUNDLE + updated.getId(), file, result);
+                result.setLocation(FRAMEWORK_BUNDLE + updated.getId());
+                result.setUpdated(true);
+                result.setFinalState(updated.getState() == BundleState.ACTIVE.getCode() ? BundleState.ACTIVE
+                        : BundleState.INSTALLED);
+            }
+
+            if (digest != null) {
+                stateStore.record(bundleSymbolicName, digest, updated == null ? file.getName() : updated.getLocation(),
+                        descriptor.getVersion());
+            }
+        } catch (final SwookieeClientException ex) {
+            logger.error("Could not install " + file + ": " + ex.getMessage(), ex);
+            result.setError(ex);
         }
+    }
 
-        final HttpPost post = new HttpPost(FRAMEWORK_BUNDLES);
-        addFile(post, file);
-        final String response = makeCall(post, HttpStatus.SC_OK);
-        return response.trim();
+    private BundleRepresentation findUnchanged(final BundleIndex installedBundles, final DeployStateStore stateStore,
+            final String bundleSymbolicName, final String digest) {
+        if (!stateStore.matches(bundleSymbolicName, digest)) {
+            return null;
+        }
+        final BundleRepresentation installed = installedBundles.get(bundleSymbolicName,
+                stateStore.getVersion(bundleSymbolicName));
+        if (installed != null && installed.getState() == BundleState.ACTIVE.getCode()
+                && stateStore.getLocation(bundleSymbolicName).equals(installed.getLocation())) {
+            return installed;
+        }
+        return null;
     }
 
     /**
@@ -120,7 +321,15 @@ public final class SwookieeClient implements AutoCloseable {
      */
     public void uninstallBundle(final Long bundleId) throws SwookieeClientException {
         final HttpDelete delete = new HttpDelete(FRAMEWORK_BUNDLE + bundleId);
-        makeCall(delete, HttpStatus.SC_OK);
+        try {
+            makeCall(SwookieeOperation.UNINSTALL_BUNDLE, delete, HttpStatus.SC_OK);
+        } catch (final SwookieeClientException ex) {
+            invalidateSnapshot();
+            throw ex;
+        }
+        if (snapshotCache != null) {
+            snapshotCache.remove(bundleId);
+        }
     }
 
     /**
@@ -132,9 +341,207 @@ public final class SwookieeClient implements AutoCloseable {
      *             Will be thrown in case something goes wrong during the installation
      */
     public void startBundle(final String bundlePath) throws SwookieeClientException {
+        setBundleState(SwookieeOperation.START_BUNDLE, bundlePath, BundleState.ACTIVE);
+    }
+
+    /**
+     * Stops a bundle given its full path, the bundle stays installed and resolved.
+     * 
+     * @param bundlePath
+     *            the path to the bundle. e.g. the response of {@link SwookieeClient#installBundle(File)}
+     * @throws SwookieeClientException
+     *             Will be thrown in case something goes wrong during communication
+     */
+    public void stopBundle(final String bundlePath) throws SwookieeClientException {
+        setBundleState(SwookieeOperation.STOP_BUNDLE, bundlePath, BundleState.RESOLVED);
+    }
+
+    /**
+     * Starts bundles in the given order and waits until all of them are active, see
+     * {@link #awaitState(Collection, BundleState, long)}. Bundles which cannot be started are reported as failed
+     * without waiting for them.
+     * 
+     * @param bundlePaths
+     *            the paths to the bundles. e.g. the responses of {@link SwookieeClient#installBundle(File)}
+     * @param timeoutMillis
+     *            maximum time to start and wait for the bundles
+     * @return the state of every bundle
+     * @throws SwookieeClientException
+     *             Will be thrown if the bundles cannot be listed or the calling thread has been interrupted
+     */
+    public BundleAwaitResult startAndAwait(final List<String> bundlePaths, final long timeoutMillis)
+            throws SwookieeClientException {
+        final long start = System.nanoTime();
+        final Map<String, SwookieeClientException> errors = new LinkedHashMap<>();
+        for (String bundlePath : bundlePaths) {
+            try {
+                startBundle(bundlePath);
+            } catch (final SwookieeClientException ex) {
+                errors.put(bundlePath, ex);
+            }
+        }
+        return awaitState(bundlePaths, BundleState.ACTIVE, timeoutMillis, errors, start);
+    }
+
+    /**
+     * Waits until all bundles are in {@code state}. The states of all bundles are checked with a single listing per
+     * poll. Polls follow each other quickly while bundles change their state and back off up to a second while
+     * nothing changes. A bundle which is neither in {@code state} nor starting or stopping is considered failed,
+     * so the method returns as soon as every bundle either reached {@code state} or failed.
+     * 
+     * @param bundlePaths
+     *            the paths to the bundles. e.g. the responses of {@link SwookieeClient#installBundle(File)}
+     * @param state
+     *            the state to wait for
+     * @param timeoutMillis
+     *            maximum time to wait, bundles still in transition afterwards are reported as pending
+     * @return the state of every bundle
+     * @throws SwookieeClientException
+     *             Will be thrown if the bundles cannot be listed or the calling thread has been interrupted
+     */
+    public BundleAwaitResult awaitState(final Collection<String> bundlePaths, final BundleState state,
+            final long timeoutMillis) throws SwookieeClientException {
+        return awaitState(bundlePaths, state, timeoutMillis, Collections.<String, SwookieeClientException> emptyMap(),
+                System.nanoTime());
+    }
+
+    private BundleAwaitResult awaitState(final Collection<String> bundlePaths, final BundleState state,
+            final long timeoutMillis, final Map<String, SwookieeClientException> errors, final long start)
+            throws SwookieeClientException {
+        final BundleAwaitResult result = new BundleAwaitResult(state);
+        final Map<Long, String> waiting = new LinkedHashMap<>();
+        for (String bundlePath : bundlePaths) {
+            result.setState(bundlePath, null);
+            final Long bundleId = parseBundleId(bundlePath);
+            if (errors.containsKey(bundlePath)) {
+                result.addError(bundlePath, errors.get(bundlePath));
+            } else if (bundleId == null) {
+                result.addError(bundlePath, new SwookieeClientException("Not a bundle path: " + bundlePath));
+            } else {
+                waiting.put(bundleId, bundlePath);
+            }
+        }
+
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long interval = MIN_POLL_INTERVAL;
+        int polls = 0;
+        try {
+            while (!waiting.isEmpty()) {
+                // only the awaited bundles are mapped, other bundles may be in any state
+                final Map<Long, Integer> observed = new HashMap<>();
+                for (BundleRepresentation bundle : fetchInstalledBundles()) {
+                    if (waiting.containsKey(bundle.getId())) {
+                        observed.put(bundle.getId(), bundle.getState());
+                    }
+                }
+                polls++;
+
+                boolean changed = false;
+                for (Iterator<Map.Entry<Long, String>> it = waiting.entrySet().iterator(); it.hasNext();) {
+                    final Map.Entry<Long, String> entry = it.next();
+                    final Integer code = observed.get(entry.getKey());
+                    final BundleState current;
+                    try {
+                        current = code == null ? null : BundleState.of(code);
+                    } catch (final IllegalArgumentException ex) {
+                        result.addError(entry.getValue(), new SwookieeClientException("Unknown state " + code
+                                + " of bundle " + entry.getValue(), ex));
+                        it.remove();
+                        continue;
+                    }
+                    changed |= !Objects.equals(current, result.getStates().get(entry.getValue()));
+                    result.setState(entry.getValue(), current);
+                    if (current == state) {
+                        it.remove();
+                    } else if (current == null || !current.isTransitional()) {
+                        result.addFailed(entry.getValue());
+                        it.remove();
+                    }
+                }
+
+                final long remaining = deadline - System.nanoTime();
+                if (waiting.isEmpty() || remaining <= 0) {
+                    break;
+                }
+                interval = changed ? MIN_POLL_INTERVAL : Math.min(2 * interval, MAX_POLL_INTERVAL);
+                Thread.sleep(Math.min(interval, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SwookieeClientException("Interrupted while waiting for bundles", ex);
+        }
+
+        for (String bundlePath : waiting.values()) {
+            result.addPending(bundlePath);
+        }
+        result.setPolls(polls);
+        result.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    private void setBundleState(final SwookieeOperation operation, final String bundlePath, final BundleState state)
+            throws SwookieeClientException {
         final HttpPut put = new HttpPut(String.format("%s/state", bundlePath));
-        addActivate(put);
-        makeCall(put, HttpStatus.SC_OK);
+        addState(put, state);
+        try {
+            makeCall(operation, put, HttpStatus.SC_OK);
+        } catch (final SwookieeClientException ex) {
+            invalidateSnapshot();
+            throw ex;
+        }
+        if (snapshotCache != null) {
+            final Long bundleId = parseBundleId(bundlePath);
+            if (bundleId == null) {
+                snapshotCache.invalidate();
+            } else {
+                snapshotCache.setState(bundleId, state.getCode());
+            }
+        }
+    }
+
+    /**
+     * Updates an installed bundle with the content of {@code file}. In contrast to un-installing and installing it
+     * again the bundle keeps its id and location. An active bundle is stopped and started again by the framework.
+     * 
+     * @param bundlePath
+     *            the path to the bundle. e.g. the response of {@link SwookieeClient#installBundle(File)}
+     * @param file
+     *            the new content of the bundle
+     * @throws SwookieeClientException
+     *             Will be thrown in case something goes wrong during communication
+     */
+    public void updateBundle(final String bundlePath, final File file) throws SwookieeClientException {
+        updateBundle(bundlePath, file, null);
+    }
+
+    private void updateBundle(final String bundlePath, final File file, final BundleInstallResult result)
+            throws SwookieeClientException {
+        final BundleDescriptor descriptor = BundleDescriptor.of(file);
+        final HttpPut put = new HttpPut(bundlePath);
+        final TimedUploadEntity upload = addFile(put, file);
+        final long start = System.nanoTime();
+        try {
+            makeCall(SwookieeOperation.UPDATE_BUNDLE, put, HttpStatus.SC_OK);
+        } catch (final SwookieeClientException ex) {
+            invalidateSnapshot();
+            throw ex;
+        }
+        recordTransfer(result, upload, start);
+        if (snapshotCache != null) {
+            final Long bundleId = parseBundleId(bundlePath);
+            if (bundleId == null) {
+                snapshotCache.invalidate();
+            } else {
+                snapshotCache.updated(bundleId, descriptor.getSymbolicName(), descriptor.getVersion());
+            }
+        }
+    }
+
+    /**
+     * @see #updateBundle(String, File)
+     */
+    public void updateBundle(final Long bundleId, final File file) throws SwookieeClientException {
+        updateBundle(FRAMEWORK_BUNDLE + bundleId, file);
     }
 
     /**
@@ -143,77 +550,447 @@ public final class SwookieeClient implements AutoCloseable {
      * @return The HTTP host
      */
     public String getConfiguredTarget() {
-        return this.httpHost.toString();
+        return this.transport.getTarget().toString();
     }
 
+    /**
+     * Reads the installed bundles. If the client has been created with a snapshot cache (see
+     * {@link SwookieClientBuilder#withSnapshotCache(long)}) a fresh snapshot is returned without a request.
+     * 
+     * @return the installed bundles
+     * @throws SwookieeClientException
+     *             Will be thrown in case something goes wrong during communication or parsing
+     */
     public List<BundleRepresentation> getInstalledBundles() throws SwookieeClientException {
+        if (snapshotCache == null) {
+            return fetchInstalledBundles();
+        }
+        final List<BundleRepresentation> cached = snapshotCache.getIfFresh();
+        if (cached != null) {
+            return cached;
+        }
+        final List<BundleRepresentation> revalidated = refreshSnapshot(true);
+        return revalidated != null ? revalidated : refreshSnapshot(false);
+    }
+
+    /**
+     * @param symbolicName
+     *            a Bundle-SymbolicName
+     * @return all installed bundles having {@code symbolicName}, usually at most one per version
+     * @throws SwookieeClientException
+     *             Will be thrown in case something goes wrong during communication or parsing
+     */
+    public List<BundleRepresentation> getInstalledBundles(final String symbolicName) throws SwookieeClientException {
+        if (snapshotCache != null) {
+            final List<BundleRepresentation> cached = snapshotCache.getBySymbolicName(symbolicName);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return new ArrayList<>(new BundleIndex(getInstalledBundles()).getBySymbolicName(symbolicName));
+    }
+
+    /**
+     * @return the installed bundles as currently listed by the target, never served from the snapshot cache
+     */
+    private List<BundleRepresentation> fetchInstalledBundles() throws SwookieeClientException {
+        if (snapshotCache != null) {
+            return refreshSnapshot(false);
+        }
+        final HttpGet get = new HttpGet(FRAMEWORK_BUNDLES_REPRESENTATIONS);
+        return makeCall(SwookieeOperation.LIST_BUNDLES, get, HttpStatus.SC_OK, BundleRepresentations::readList);
+    }
+
+    /**
+     * @param conditional
+     *            revalidate the current snapshot instead of fetching a new one
+     * @return the current listing, {@code null} if the snapshot has not been modified but has been invalidated
+     *         meanwhile
+     */
+    private List<BundleRepresentation> refreshSnapshot(final boolean conditional) throws SwookieeClientException {
         final HttpGet get = new HttpGet(FRAMEWORK_BUNDLES_REPRESENTATIONS);
-        final String response = makeCall(get, HttpStatus.SC_OK);
-        List<BundleRepresentation> representations;
+        if (conditional) {
+            snapshotCache.addValidators(get);
+        }
+        return exchange(SwookieeOperation.LIST_BUNDLES, get, HttpStatus.SC_OK, response -> {
+            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                return snapshotCache.revalidated();
+            }
+            final List<BundleRepresentation> bundles = BundleRepresentations.readList(response.getEntity());
+            snapshotCache.update(bundles, getHeader(response, HttpHeaders.ETAG),
+                    getHeader(response, HttpHeaders.LAST_MODIFIED));
+            return new ArrayList<>(bundles);
+        });
+    }
+
+    private static String getHeader(final HttpResponse response, final String name) {
+        final Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    private void invalidateSnapshot() {
+        if (snapshotCache != null) {
+            snapshotCache.invalidate();
+        }
+    }
+
+    private static Long parseBundleId(final String bundlePath) {
+        if (bundlePath == null || !bundlePath.startsWith(FRAMEWORK_BUNDLE)) {
+            return null;
+        }
         try {
-            representations = mapper.readValue(response,
-                    mapper.getTypeFactory().constructCollectionType(List.class, BundleRepresentation.class));
-        } catch (IOException ex) {
-            logger.error("Could not parse response: " + ex.getMessage(), ex);
-            throw new SwookieeClientException("Error while reading the list of bundles", ex);
+            return Long.valueOf(bundlePath.substring(FRAMEWORK_BUNDLE.length()).trim());
+        } catch (final NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Streams the installed bundles to {@code consumer} while the listing is being parsed, so the complete list is never
+     * held in memory.
+     * 
+     * @param consumer
+     *            receives every installed bundle. It is called on the calling thread while the HTTP response is still
+     *            open and should therefore not issue further requests.
+     * @throws SwookieeClientException
+     *             Will be thrown in case something goes wrong during communication or parsing
+     */
+    public void forEachInstalledBundle(final Consumer<BundleRepresentation> consumer) throws SwookieeClientException {
+        if (snapshotCache != null) {
+            getInstalledBundles().forEach(consumer);
+            return;
+        }
+        final HttpGet get = new HttpGet(FRAMEWORK_BUNDLES_REPRESENTATIONS);
+        // not repeated, the consumer may already have seen some of the bundles
+        attempt(SwookieeOperation.LIST_BUNDLES, get, HttpStatus.SC_OK, response -> {
+            BundleRepresentations.forEach(response.getEntity(), consumer);
+            return null;
+        });
+    }
+
+    private String makeCall(final SwookieeOperation operation, final HttpRequest request,
+            final int expectedStatusCode) throws SwookieeClientException {
+        return makeCall(operation, request, expectedStatusCode, TEXT);
+    }
+
+    private <T> T makeCall(final SwookieeOperation operation, final HttpRequest request, final int expectedStatusCode,
+            final EntityReader<T> reader) throws SwookieeClientException {
+        return exchange(operation, request, expectedStatusCode, entity(reader));
+    }
+
+    /**
+     * Issues {@code request} and repeats it according to the retry policy of {@code operation} if the operation is
+     * idempotent.
+     */
+    private <T> T exchange(final SwookieeOperation operation, final HttpRequest request, final int expectedStatusCode,
+            final ResponseReader<T> reader) throws SwookieeClientException {
+        final RetryPolicy retryPolicy = settings.getRetryPolicy(operation);
+        final long start = System.nanoTime();
+        for (int attempt = 1;; attempt++) {
+            try {
+                return attempt(operation, request, expectedStatusCode, reader);
+            } catch (final SwookieeClientException ex) {
+                final long delay = operation.isIdempotent() ? retryPolicy.nextDelayMillis(attempt,
+                        elapsedMillis(start), ex) : -1;
+                if (delay < 0) {
+                    throw ex;
+                }
+                logger.warn("{} {} failed, attempt {} of {}: {}", request.getRequestLine().getMethod(), request
+                        .getRequestLine().getUri(), attempt, retryPolicy.getMaxAttempts(), ex.getMessage());
+                RetryPolicy.pause(delay);
+            }
         }
-        return representations;
+    }
+
+    private static long elapsedMillis(final long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
 
+    /**
+     * Issues {@code request} once unless the circuit breaker considers the target unavailable.
+     */
+    private <T> T attempt(final SwookieeOperation operation, final HttpRequest request, final int expectedStatusCode,
+            final ResponseReader<T> reader) throws SwookieeClientException {
+        if (circuitBreaker == null) {
+            return measure(operation, request, expectedStatusCode, reader);
+        }
+        circuitBreaker.acquire();
+        try {
+            final T result = measure(operation, request, expectedStatusCode, reader);
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (final SwookieeClientException ex) {
+            if (settings.getRetryPolicy(operation).isRetryable(ex)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw ex;
+        } catch (final RuntimeException ex) {
+            circuitBreaker.onSuccess();
+            throw ex;
+        }
+    }
+
+    private <T> T measure(final SwookieeOperation operation, final HttpRequest request, final int expectedStatusCode,
+            final ResponseReader<T> reader) throws SwookieeClientException {
+        if (listeners.isEmpty()) {
+            return makeCall(request, expectedStatusCode, reader, null);
+        }
+        final long start = System.nanoTime();
+        final int[] statusCode = { -1 };
+        final CountingEntity[] received = new CountingEntity[1];
+        Exception error = null;
+        LeaseTimingConnectionManager.takeLeaseWaitNanos();
+        try {
+            return makeCall(request, expectedStatusCode, response -> {
+                if (response.getEntity() != null) {
+                    received[0] = new CountingEntity(response.getEntity());
+                    response.setEntity(received[0]);
+                }
+                return reader.read(response);
+            }, statusCode);
+        } catch (final SwookieeClientException | RuntimeException ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            notifyListeners(new RequestEvent(operation, getConfiguredTarget(), request.getRequestLine().getMethod(),
+                    request.getRequestLine().getUri(), statusCode[0], getBytesSent(request),
+                    received[0] == null ? 0 : received[0].count, LeaseTimingConnectionManager.takeLeaseWaitNanos(),
+                    System.nanoTime() - start, error));
+        }
     }
 
-    private String makeCall(final HttpRequest request, final int expectedStatusCode) throws SwookieeClientException {
-        try (CloseableHttpResponse response = this.httpclient.execute(this.httpHost, request, this.swookieeContext)) {
+    private <T> T makeCall(final HttpRequest request, final int expectedStatusCode, final ResponseReader<T> reader,
+            final int[] statusCode) throws SwookieeClientException {
+        try (CloseableHttpResponse response = this.transport.execute(request)) {
             final StatusLine returnedStatus = response.getStatusLine();
-            if (returnedStatus.getStatusCode() != expectedStatusCode) {
+            if (statusCode != null) {
+                statusCode[0] = returnedStatus.getStatusCode();
+            }
+            if (returnedStatus.getStatusCode() != expectedStatusCode
+                    && !(returnedStatus.getStatusCode() == HttpStatus.SC_NOT_MODIFIED && isConditional(request))) {
                 throw new SwookieeClientException(String.format("Error during installation %d : %s",
-                        returnedStatus.getStatusCode(), returnedStatus.getReasonPhrase()));
+                        returnedStatus.getStatusCode(), returnedStatus.getReasonPhrase()), returnedStatus
+                        .getStatusCode());
             }
-            return EntityUtils.toString(response.getEntity(), Charset.defaultCharset());
+            return reader.read(response);
+        } catch (final JsonProcessingException ex) {
+            logger.error("Could not parse response: " + ex.getMessage(), ex);
+            throw new SwookieeClientException("Error while reading the list of bundles", ex);
         } catch (final IOException ex) {
             throw new SwookieeClientException("Could not obtain response: " + ex.getMessage(), ex);
         }
     }
 
-    private String getBundleSymbolicName(final File file) throws SwookieeClientException {
-        try (JarInputStream jarStream = new JarInputStream(new FileInputStream(file))) {
-            Manifest mf = jarStream.getManifest();
-            Attributes attr = mf.getMainAttributes();
-            String name = attr.getValue("Bundle-SymbolicName");
-            return name;
-        } catch (IOException ex) {
-            logger.error("Could not obtain Bundle-SymbolicName from file: " + ex.getMessage(), ex);
-            throw new SwookieeClientException("Could not obtain Bundle-SymbolicName from file", ex);
+    private static boolean isConditional(final HttpRequest request) {
+        return request.containsHeader(HttpHeaders.IF_NONE_MATCH) || request.containsHeader(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    private void notifyListeners(final RequestEvent event) {
+        for (SwookieeClientListener listener : listeners) {
+            try {
+                listener.onRequest(event);
+            } catch (final RuntimeException ex) {
+                logger.warn("Listener " + listener + " failed: " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private static long getBytesSent(final HttpRequest request) {
+        if (request instanceof HttpEntityEnclosingRequest) {
+            final HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            if (entity != null) {
+                return Math.max(0, entity.getContentLength());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Counts the bytes actually read from the response body, which may differ from the announced content length for
+     * chunked responses.
+     */
+    private static final class CountingEntity extends HttpEntityWrapper {
+
+        private long count;
+
+        CountingEntity(final HttpEntity entity) {
+            super(entity);
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    final int read = super.read();
+                    if (read >= 0) {
+                        count++;
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+                    final int read = super.read(buffer, offset, length);
+                    if (read > 0) {
+                        count += read;
+                    }
+                    return read;
+                }
+            };
         }
     }
 
-    private boolean uninstallIfInstalled(String bundleSymbolicName) throws SwookieeClientException {
-        List<BundleRepresentation> installedBundles = getInstalledBundles();
-        for (BundleRepresentation bundleRepresentation : installedBundles) {
+    /**
+     * Reads the entity of a successful response while the response is still open.
+     */
+    @FunctionalInterface
+    interface EntityReader<T> {
+        T read(HttpEntity entity) throws IOException;
+    }
+
+    /**
+     * Reads a successful or, for conditional requests, not modified response while it is still open.
+     */
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(HttpResponse response) throws IOException;
+    }
+
+    private static <T> ResponseReader<T> entity(final EntityReader<T> reader) {
+        return response -> reader.read(response.getEntity());
+    }
+
+    /**
+     * Uploads a bundle. Installation is not idempotent, so if the connection fails the upload is only repeated if the
+     * bundle has not been installed from the location of the file meanwhile.
+     */
+    private String uploadBundle(final File file, final BundleInstallResult result) throws SwookieeClientException {
+        final RetryPolicy retryPolicy = settings.getRetryPolicy(SwookieeOperation.INSTALL_BUNDLE);
+        final long start = System.nanoTime();
+        for (int attempt = 1;; attempt++) {
+            final HttpPost post = new HttpPost(FRAMEWORK_BUNDLES);
+            final TimedUploadEntity upload = addFile(post, file);
+            post.addHeader("Content-Location", file.getName());
+            try {
+                final String location = installed(file, attempt(SwookieeOperation.INSTALL_BUNDLE, post,
+                        HttpStatus.SC_OK, entity(TEXT)).trim());
+                recordTransfer(result, upload, start);
+                return location;
+            } catch (final SwookieeClientException ex) {
+                final long delay = retryPolicy.nextDelayMillis(attempt, elapsedMillis(start), ex);
+                if (delay < 0) {
+                    throw ex;
+                }
+                logger.warn("Upload of {} failed, attempt {} of {}: {}", file, attempt, retryPolicy.getMaxAttempts(),
+                        ex.getMessage());
+                RetryPolicy.pause(delay);
+                final String location = findInstalledLocation(file.getName());
+                if (location != null) {
+                    logger.info("{} has been installed before the connection failed", file);
+                    recordTransfer(result, upload, start);
+                    return location;
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the time since {@code start} into the transfer of the bundle and the installation by the target.
+     */
+    private static void recordTransfer(final BundleInstallResult result, final TimedUploadEntity upload,
+            final long start) {
+        if (result != null) {
+            final long now = System.nanoTime();
+            final long sentAt = upload.getSentAt() == 0 ? now : upload.getSentAt();
+            result.setTransfer(upload.getBytesSent(), sentAt - start, now - sentAt);
+        }
+    }
+
+    /**
+     * Adds a freshly installed bundle to the snapshot.
+     * 
+     * @return {@code location}
+     */
+    private String installed(final File file, final String location) throws SwookieeClientException {
+        if (snapshotCache != null) {
+            final Long bundleId = parseBundleId(location);
+            if (bundleId == null) {
+                snapshotCache.invalidate();
+            } else {
+                final BundleDescriptor descriptor = BundleDescriptor.of(file);
+                snapshotCache.put(new BundleRepresentation(bundleId, System.currentTimeMillis(), file.getName(),
+                        BundleState.INSTALLED.getCode(), descriptor.getSymbolicName(), descriptor.getVersion()));
+            }
+        }
+        return location;
+    }
+
+    private String findInstalledLocation(final String contentLocation) throws SwookieeClientException {
+        invalidateSnapshot();
+        for (BundleRepresentation bundle : getInstalledBundles()) {
+            if (contentLocation.equals(bundle.getLocation())) {
+                return FRAMEWORK_BUNDLE + bundle.getId();
+            }
+        }
+        return null;
+    }
+
+    private List<BundleRepresentation> findInstalled(String bundleSymbolicName) throws SwookieeClientException {
+        final List<BundleRepresentation> installedBundles = new ArrayList<>();
+        forEachInstalledBundle(bundleRepresentation -> {
             if (bundleRepresentation.getSymbolicName() == null) {
                 logger.warn("found installed bundle which has no symbolic name: "+bundleRepresentation.getLocation());
-                continue;
+            } else if (bundleRepresentation.getSymbolicName().equals(bundleSymbolicName)) {
+                installedBundles.add(bundleRepresentation);
             }
-            if (bundleRepresentation.getSymbolicName().equals(bundleSymbolicName)) {
-                long bundleId = bundleRepresentation.getId();
-                uninstallBundle(bundleId);
-                return true;
+        });
+        return installedBundles;
+    }
+
+    /**
+     * Un-installs the bundles replaced by a forced installation. With {@link ForceStrategy#UPDATE} the most recently
+     * installed bundle is kept.
+     * 
+     * @return the bundle to update, {@code null} if the bundle has to be installed
+     */
+    private BundleRepresentation uninstallReplaced(final List<BundleRepresentation> installedBundles,
+            final ForceStrategy forceStrategy, final BundleInstallResult result) throws SwookieeClientException {
+        BundleRepresentation updated = null;
+        if (forceStrategy == ForceStrategy.UPDATE) {
+            for (BundleRepresentation installed : installedBundles) {
+                if (updated == null || installed.getId() > updated.getId()) {
+                    updated = installed;
+                }
+            }
+        }
+        for (BundleRepresentation staleBundle : installedBundles) {
+            if (staleBundle != updated) {
+                uninstallBundle(staleBundle.getId());
+                if (result != null) {
+                    result.addUninstalledBundleId(staleBundle.getId());
+                }
             }
         }
-        return false;
+        return updated;
     }
 
-    private void addFile(final HttpPost httppost, final File file) {
-        final HttpEntity entity = new FileEntity(file, ContentType.create("application/vnd.osgi.bundle"));
-        httppost.setEntity(entity);
-        httppost.addHeader("Content-Location", file.getName());
+    private TimedUploadEntity addFile(final HttpEntityEnclosingRequest request, final File file) {
+        final HttpEntity entity = new FileChannelEntity(file, BUNDLE_CONTENT_TYPE, settings.getProgressListener());
+        final TimedUploadEntity upload = new TimedUploadEntity(settings.isCompressUploads() ? new GzipCompressingEntity(
+                entity) : entity);
+        request.setEntity(upload);
+        return upload;
     }
 
-    private void addActivate(final HttpPut put) throws SwookieeClientException {
+    private void addState(final HttpPut put, final BundleState state) throws SwookieeClientException {
         try {
-            final BundleStatusRepresentation activateBundleRepresentation = new BundleStatusRepresentation(32, 0);
-            put.setEntity(new StringEntity(mapper.writeValueAsString(activateBundleRepresentation)));
+            final BundleStatusRepresentation stateRepresentation = new BundleStatusRepresentation(state.getCode(), 0);
+            put.setEntity(new StringEntity(mapper.writeValueAsString(stateRepresentation)));
         } catch (final UnsupportedEncodingException | JsonProcessingException ex) {
-            throw new SwookieeClientException("Could not add activation dto: " + ex.getMessage(), ex);
+            throw new SwookieeClientException("Could not add state dto: " + ex.getMessage(), ex);
         }
     }
 }
@@ -6,11 +6,27 @@ package com.swookiee.tools.client;
 public class SwookieeClientException extends Exception {
     private static final long serialVersionUID = 6304373975435563005L;
 
+    private final int statusCode;
+
     public SwookieeClientException(final String message) {
+        this(message, -1);
+    }
+
+    public SwookieeClientException(final String message, final int statusCode) {
         super(message);
+        this.statusCode = statusCode;
     }
 
     public SwookieeClientException(final String message, final Exception ex) {
         super(message, ex);
+        this.statusCode = -1;
+    }
+
+    /**
+     * @return the unexpected HTTP status code the server responded with, {@code -1} if the error was not caused by an
+     *         unexpected response
+     */
+    public int getStatusCode() {
+        return statusCode;
     }
 }
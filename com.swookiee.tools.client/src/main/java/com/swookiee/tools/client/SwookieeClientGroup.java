@@ -0,0 +1,311 @@
+package com.swookiee.tools.client;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deploys the same set of bundles to several swookiee nodes. All nodes of a rollout wave are deployed to in parallel,
+ * the number of concurrent uploads and starts on each node is limited by {@link #withConcurrency(int)}. On every node
+ * all bundles are installed before they are started layer by layer as given by their {@link DeployPlan}; the bundles
+ * of a layer are started in parallel.
+ * <p/>
+ * By default the group owns its clients and closes them when it is closed.
+ * <p/>
+ * Note: Since this API is in a very early stage changes may occur.
+ */
+public final class SwookieeClientGroup implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SwookieeClientGroup.class);
+
+    private final List<SwookieeClient> nodes;
+    private final boolean ownsNodes;
+    private int concurrency = 1;
+    private ForceStrategy forceStrategy = ForceStrategy.UNINSTALL;
+    private File stateDirectory;
+    private long awaitActiveMillis;
+
+    public SwookieeClientGroup(final List<SwookieeClient> nodes) {
+        this(nodes, true);
+    }
+
+    /**
+     * @param ownsNodes
+     *            set to {@code false} if the clients are shared with others and must stay open when the group is
+     *            closed
+     */
+    public SwookieeClientGroup(final List<SwookieeClient> nodes, final boolean ownsNodes) {
+        this.nodes = new ArrayList<>(nodes);
+        this.ownsNodes = ownsNodes;
+    }
+
+    /**
+     * @param concurrency
+     *            maximum number of bundles uploaded or started at the same time on each node, default is 1
+     * @return this group
+     */
+    public SwookieeClientGroup withConcurrency(final int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        return this;
+    }
+
+    /**
+     * @param forceStrategy
+     *            how bundles already installed on a node are replaced, default is {@link ForceStrategy#UNINSTALL}
+     * @return this group
+     */
+    public SwookieeClientGroup withForceStrategy(final ForceStrategy forceStrategy) {
+        this.forceStrategy = forceStrategy;
+        return this;
+    }
+
+    /**
+     * Enables incremental deployments, see {@link InstallOptions#withStateStore(DeployStateStore)}.
+     * 
+     * @param stateDirectory
+     *            directory holding one {@link DeployStateStore} per node
+     * @return this group
+     */
+    public SwookieeClientGroup withStateDirectory(final File stateDirectory) {
+        this.stateDirectory = stateDirectory;
+        return this;
+    }
+
+    /**
+     * Makes deployments wait until the started bundles are active, see
+     * {@link SwookieeClient#awaitState(java.util.Collection, BundleState, long)}. A node on which a bundle does not
+     * become active within {@code timeoutMillis} fails.
+     * 
+     * @param timeoutMillis
+     *            maximum time to wait per node, {@code 0} disables waiting which is the default
+     * @return this group
+     */
+    public SwookieeClientGroup withAwaitActive(final long timeoutMillis) {
+        this.awaitActiveMillis = Math.max(0, timeoutMillis);
+        return this;
+    }
+
+    public List<SwookieeClient> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Installs and starts {@code bundles} on all nodes in the order of their dependencies, see
+     * {@link #deploy(DeployPlan, RolloutStrategy)}.
+     * 
+     * @param bundles
+     *            the bundles to deploy
+     * @param strategy
+     *            the waves in which the nodes are deployed to
+     * @return a report containing the result of every node
+     * @throws SwookieeClientException
+     *             Will be thrown if a bundle cannot be read or the calling thread has been interrupted
+     */
+    public ClusterDeployReport deploy(final List<File> bundles, final RolloutStrategy strategy)
+            throws SwookieeClientException {
+        return deploy(DeployPlan.of(bundles), strategy);
+    }
+
+    /**
+     * Installs and starts the bundles of {@code plan} on all nodes. If a node fails the rollout stops after the current
+     * wave and the remaining nodes are reported as not attempted.
+     * 
+     * @param plan
+     *            the bundles and the layers they are started in
+     * @param strategy
+     *            the waves in which the nodes are deployed to
+     * @return a report containing the result of every node
+     * @throws SwookieeClientException
+     *             Will be thrown if the calling thread has been interrupted
+     */
+    public ClusterDeployReport deploy(final DeployPlan plan, final RolloutStrategy strategy)
+            throws SwookieeClientException {
+        final long start = System.currentTimeMillis();
+        final List<NodeDeployResult> results = new ArrayList<>();
+        final List<Integer> nodeIndices = new ArrayList<>();
+        for (SwookieeClient node : nodes) {
+            nodeIndices.add(results.size());
+            results.add(new NodeDeployResult(node.getConfiguredTarget()));
+        }
+
+        final ExecutorService coordinators = Executors.newCachedThreadPool();
+        try {
+            for (List<Integer> wave : strategy.waves(nodeIndices)) {
+                final List<Future<?>> deployments = new ArrayList<>();
+                for (final Integer index : wave) {
+                    deployments.add(coordinators.submit(() -> deployNode(nodes.get(index), results.get(index),
+                            plan)));
+                }
+                awaitWave(deployments);
+                if (!isSuccessful(wave, results)) {
+                    logger.warn("Aborting {} rollout since a node failed", strategy);
+                    break;
+                }
+            }
+        } finally {
+            coordinators.shutdownNow();
+        }
+        return new ClusterDeployReport(results, System.currentTimeMillis() - start);
+    }
+
+    private void deployNode(final SwookieeClient node, final NodeDeployResult result, final DeployPlan plan) {
+        final long start = System.currentTimeMillis();
+        result.setAttempted(true);
+        final ExecutorService uploads = Executors.newFixedThreadPool(concurrency);
+        try {
+            final InstallOptions options = InstallOptions.defaults().withExecutor(uploads)
+                    .withForceStrategy(forceStrategy);
+            if (stateDirectory != null) {
+                options.withStateStore(DeployStateStore.forTarget(stateDirectory, node.getConfiguredTarget()));
+            }
+            final List<File> bundles = plan.getFiles();
+            for (File bundle : bundles) {
+                logger.info("Installing {} to {}", bundle.getAbsolutePath(), node.getConfiguredTarget());
+            }
+            result.setInstallResults(node.installBundles(bundles, options));
+            if (result.getError() == null) {
+                startBundles(node, result, plan, uploads);
+                if (awaitActiveMillis > 0) {
+                    awaitActive(node, result);
+                }
+            }
+        } catch (final SwookieeClientException ex) {
+            logger.error("Could not deploy to " + node.getConfiguredTarget() + ": " + ex.getMessage(), ex);
+            result.setError(ex);
+        } catch (final RuntimeException ex) {
+            logger.error("Could not deploy to " + node.getConfiguredTarget() + ": " + ex.getMessage(), ex);
+            result.setError(new SwookieeClientException("Unexpected deployment failure: " + ex.getMessage(), ex));
+        } finally {
+            uploads.shutdownNow();
+            result.setDurationMillis(System.currentTimeMillis() - start);
+        }
+    }
+
+    private void startBundles(final SwookieeClient node, final NodeDeployResult result, final DeployPlan plan,
+            final ExecutorService executor) throws SwookieeClientException {
+        final Map<File, BundleInstallResult> installed = new HashMap<>();
+        for (BundleInstallResult installResult : result.getInstallResults()) {
+            installed.put(installResult.getFile(), installResult);
+        }
+        for (List<BundleDescriptor> layer : plan.getLayers()) {
+            final List<BundleInstallResult> pending = new ArrayList<>();
+            for (BundleDescriptor bundle : layer) {
+                final BundleInstallResult installResult = installed.get(bundle.getFile());
+                if (installResult.isSkipped()) {
+                    logger.info("Skipped unchanged bundle {} on {}", bundle.getFile().getName(),
+                            node.getConfiguredTarget());
+                } else {
+                    pending.add(installResult);
+                }
+            }
+            if (pending.size() == 1) {
+                startBundle(node, result, pending.get(0));
+            } else if (!pending.isEmpty()) {
+                final List<Callable<Void>> starts = new ArrayList<>();
+                for (final BundleInstallResult installResult : pending) {
+                    starts.add(() -> {
+                        startBundle(node, result, installResult);
+                        return null;
+                    });
+                }
+                try {
+                    executor.invokeAll(starts);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SwookieeClientException("Interrupted while starting bundles", ex);
+                }
+            }
+        }
+    }
+
+    private static void startBundle(final SwookieeClient node, final NodeDeployResult result,
+            final BundleInstallResult installed) {
+        final long start = System.nanoTime();
+        try {
+            node.startBundle(installed.getLocation());
+            installed.setFinalState(BundleState.ACTIVE);
+        } catch (final SwookieeClientException ex) {
+            logger.warn("Could not start Bundle: {} on {}: {}", installed.getFile(), node.getConfiguredTarget(),
+                    ex.getMessage());
+            result.addStartFailure(installed.getFile().getName());
+        } finally {
+            installed.setStartNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Waits for the bundles which have been started successfully and records the state they settled in.
+     */
+    private void awaitActive(final SwookieeClient node, final NodeDeployResult result) throws SwookieeClientException {
+        final List<String> failures = result.getStartFailures();
+        final Map<String, BundleInstallResult> started = new LinkedHashMap<>();
+        for (BundleInstallResult installResult : result.getInstallResults()) {
+            if (!installResult.isSkipped() && !failures.contains(installResult.getFile().getName())) {
+                started.put(installResult.getLocation(), installResult);
+            }
+        }
+        if (started.isEmpty()) {
+            return;
+        }
+        final BundleAwaitResult awaited = node.awaitState(started.keySet(), BundleState.ACTIVE, awaitActiveMillis);
+        logger.info("{} on {}", awaited, node.getConfiguredTarget());
+        for (Map.Entry<String, BundleState> state : awaited.getStates().entrySet()) {
+            started.get(state.getKey()).setFinalState(state.getValue());
+        }
+        for (String bundlePath : awaited.getFailed()) {
+            result.addStartFailure(started.get(bundlePath).getFile().getName());
+        }
+        for (String bundlePath : awaited.getPending()) {
+            result.addStartFailure(started.get(bundlePath).getFile().getName());
+        }
+        if (!awaited.isSuccessful()) {
+            result.setError(new SwookieeClientException(String.format(
+                    "%d bundles did not become active on %s within %d ms", awaited.getFailed().size()
+                            + awaited.getPending().size(), node.getConfiguredTarget(), awaitActiveMillis)));
+        }
+    }
+
+    private void awaitWave(final List<Future<?>> deployments) throws SwookieeClientException {
+        for (Future<?> deployment : deployments) {
+            try {
+                deployment.get();
+            } catch (final ExecutionException ex) {
+                logger.error("Unexpected deployment failure: " + ex.getCause().getMessage(), ex.getCause());
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SwookieeClientException("Interrupted while deploying bundles", ex);
+            }
+        }
+    }
+
+    private static boolean isSuccessful(final List<Integer> wave, final List<NodeDeployResult> results) {
+        for (Integer index : wave) {
+            if (!results.get(index).isSuccessful()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        if (!ownsNodes) {
+            return;
+        }
+        for (SwookieeClient node : nodes) {
+            node.close();
+        }
+    }
+}
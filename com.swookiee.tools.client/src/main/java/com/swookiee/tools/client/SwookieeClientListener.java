@@ -0,0 +1,14 @@
+package com.swookiee.tools.client;
+
+/**
+ * Receives an event for every HTTP exchange of a client. Register implementations via
+ * {@link SwookieClientBuilder#withListener(SwookieeClientListener)}, e.g. {@link ClientMetrics}.
+ * <p>
+ * Listeners are called synchronously on the thread which completed the exchange and may be called concurrently. They
+ * should return quickly; exceptions thrown by listeners are logged and ignored.
+ */
+@FunctionalInterface
+public interface SwookieeClientListener {
+
+    void onRequest(RequestEvent event);
+}
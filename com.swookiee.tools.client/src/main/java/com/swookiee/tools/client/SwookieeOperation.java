@@ -0,0 +1,27 @@
+package com.swookiee.tools.client;
+
+/**
+ * The RFC-182 operations issued by the clients.
+ */
+public enum SwookieeOperation {
+
+    LIST_BUNDLES(true),
+    INSTALL_BUNDLE(false),
+    UNINSTALL_BUNDLE(true),
+    UPDATE_BUNDLE(true),
+    START_BUNDLE(true),
+    STOP_BUNDLE(true);
+
+    private final boolean idempotent;
+
+    private SwookieeOperation(final boolean idempotent) {
+        this.idempotent = idempotent;
+    }
+
+    /**
+     * @return {@code true} if issuing the operation twice has the same effect as issuing it once
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+}
@@ -0,0 +1,37 @@
+package com.swookiee.tools.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+
+/**
+ * Carries the requests of a {@link SwookieeClient} to its target. Requests and responses are represented by the
+ * HttpCore message types, so the client builds requests, streams uploads and reads responses the same way whichever
+ * protocol is used underneath. The default transport is based on the pooled Apache HTTP client, others can be plugged
+ * in via {@link SwookieClientBuilder#withTransport(SwookieeTransportFactory)}.
+ * <p/>
+ * Implementations must be thread safe, a client issues requests from many threads at the same time.
+ */
+public interface SwookieeTransport extends Closeable {
+
+    /**
+     * @return the target all requests are sent to
+     */
+    HttpHost getTarget();
+
+    /**
+     * Sends {@code request} to the target. Authentication, timeouts and connection handling are up to the transport.
+     * A request entity is written by {@link org.apache.http.HttpEntity#writeTo(java.io.OutputStream)}, so wrapping
+     * entities see the body as it is sent.
+     * 
+     * @param request
+     *            a request with a path relative to the target
+     * @return the response, its entity may be read until it is closed
+     * @throws IOException
+     *             Will be thrown if the request could not be sent or no response has been received
+     */
+    CloseableHttpResponse execute(HttpRequest request) throws IOException;
+}
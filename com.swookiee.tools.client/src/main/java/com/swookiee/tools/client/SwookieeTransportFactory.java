@@ -0,0 +1,17 @@
+package com.swookiee.tools.client;
+
+/**
+ * Creates the {@link SwookieeTransport} of a client built by {@link SwookieClientBuilder}.
+ */
+@FunctionalInterface
+public interface SwookieeTransportFactory {
+
+    /**
+     * @param settings
+     *            target, credentials and connection settings configured on the builder
+     * @return a transport ready to send requests
+     * @throws SwookieeClientException
+     *             Will be thrown if the transport could not be set up
+     */
+    SwookieeTransport create(TransportSettings settings) throws SwookieeClientException;
+}
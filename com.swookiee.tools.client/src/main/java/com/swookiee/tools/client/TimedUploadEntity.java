@@ -0,0 +1,68 @@
+package com.swookiee.tools.client;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * Records when the body of an upload has been sent completely and how many bytes went over the wire, which tells the
+ * transfer time from the time the server needed to install the bundle.
+ */
+final class TimedUploadEntity extends HttpEntityWrapper {
+
+    private volatile long sentAt;
+    private volatile long bytesSent;
+
+    TimedUploadEntity(final HttpEntity entity) {
+        super(entity);
+    }
+
+    @Override
+    public void writeTo(final OutputStream out) throws IOException {
+        final CountingOutputStream counting = new CountingOutputStream(out);
+        super.writeTo(counting);
+        counting.flush();
+        bytesSent = counting.count;
+        sentAt = System.nanoTime();
+    }
+
+    /**
+     * @return {@link System#nanoTime()} when the body has been sent, {@code 0} if it has not been sent completely
+     */
+    long getSentAt() {
+        return sentAt;
+    }
+
+    long getBytesSent() {
+        return bytesSent;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close() {
+            // the connection owns the stream
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.swookiee.tools.client;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.HttpHost;
+
+/**
+ * The settings of a {@link SwookieClientBuilder} a {@link SwookieeTransportFactory} needs to set up a transport.
+ */
+public final class TransportSettings {
+
+    private final HttpHost target;
+    private final String username;
+    private final String password;
+    private final HttpHost proxy;
+    private final SSLContext sslContext;
+    private final int maxConnections;
+    private final int connectTimeout;
+    private final int socketTimeout;
+
+    TransportSettings(final HttpHost target, final String username, final String password, final HttpHost proxy,
+            final SSLContext sslContext, final int maxConnections, final int connectTimeout, final int socketTimeout) {
+        this.target = target;
+        this.username = username;
+        this.password = password;
+        this.proxy = proxy;
+        this.sslContext = sslContext;
+        this.maxConnections = maxConnections;
+        this.connectTimeout = connectTimeout;
+        this.socketTimeout = socketTimeout;
+    }
+
+    public HttpHost getTarget() {
+        return target;
+    }
+
+    /**
+     * @return the user name sent with every request using basic authentication
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    /**
+     * @return the proxy to connect through, {@code null} for direct connections
+     */
+    public HttpHost getProxy() {
+        return proxy;
+    }
+
+    /**
+     * @return the SSL context accepting self signed certificates, {@code null} if the default one is to be used
+     */
+    public SSLContext getSslContext() {
+        return sslContext;
+    }
+
+    /**
+     * @return maximum number of connections to the target
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @return milliseconds to wait for a connection to be established, {@code 0} waits forever
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * @return milliseconds to wait for data from the target, {@code 0} waits forever
+     */
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+}
@@ -0,0 +1,22 @@
+package com.swookiee.tools.client;
+
+import java.io.File;
+
+/**
+ * Receives the progress of bundle uploads. It is called on the uploading thread, implementations must be thread safe
+ * when bundles are uploaded concurrently.
+ */
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    /**
+     * @param file
+     *            the bundle being uploaded
+     * @param transferred
+     *            bytes of the file sent so far, before compression. Starts again at the beginning if an upload is
+     *            retried.
+     * @param total
+     *            size of the file
+     */
+    void onProgress(File file, long transferred, long total);
+}
@@ -0,0 +1,124 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation
+import com.swookiee.tools.stub.StubFrameworkServer
+import com.swookiee.tools.stub.SyntheticBundles
+
+@TypeChecked
+class AsyncClientTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    StubFrameworkServer stub
+    SwookieeAsyncClient client
+    File bundle
+
+    @Before
+    void setUp() {
+        stub = StubFrameworkServer.start()
+        client = SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port).createAsync()
+        bundle = SyntheticBundles.create(folder.root, 'com.example.async', '1.0.0', 512)
+    }
+
+    @After
+    void tearDown() {
+        client.close()
+        stub.close()
+    }
+
+    @Test
+    void 'bundles are installed started and uninstalled'() {
+        String location = client.installBundle(bundle).get(5, TimeUnit.SECONDS)
+        long id = location.tokenize('/').last() as long
+        assertThat(state(id), is(BundleState.INSTALLED.code))
+
+        client.startBundle(location).get(5, TimeUnit.SECONDS)
+        assertThat(state(id), is(BundleState.ACTIVE.code))
+
+        client.uninstallBundle(id).get(5, TimeUnit.SECONDS)
+        assertThat(stub.bundles*.id, not(hasItem(id)))
+    }
+
+    @Test
+    void 'forced installations replace bundles with the same symbolic name'() {
+        String first = client.installBundle(bundle).get(5, TimeUnit.SECONDS)
+
+        String second = client.installBundle(bundle, true).get(5, TimeUnit.SECONDS)
+
+        assertThat(second, is(not(first)))
+        assertThat(stub.bundles.findAll { it.symbolicName == 'com.example.async' }.size(), is(1))
+        assertThat(stub.installCount, is(2L))
+    }
+
+    @Test
+    void 'cancelling a forced installation aborts its remaining requests'() {
+        client.close()
+        client = SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port).withMaxConnections(1).createAsync()
+        stub.latency = 1000
+        CompletableFuture<String> installation = client.installBundle(bundle, true)
+        Thread.sleep(100)
+
+        assertThat(installation.cancel(true), is(true))
+        stub.latency = 0
+        long start = System.nanoTime()
+        client.installedBundles.get(5, TimeUnit.SECONDS)
+
+        // the aborted listing does not keep the only connection until the stub responds
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(600L)))
+        Thread.sleep(1000)
+        assertThat(stub.installCount, is(0L))
+    }
+
+    @Test
+    void 'the request timeout applies to a forced installation as a whole'() {
+        client.close()
+        client = SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port).withRequestTimeout(300).createAsync()
+        client.installBundle(bundle).get(5, TimeUnit.SECONDS)
+        stub.latency = 200
+
+        try {
+            client.installBundle(bundle, true).get(5, TimeUnit.SECONDS)
+            fail('the installation should have timed out')
+        } catch (final ExecutionException ex) {
+            assertThat(ex.cause, is(instanceOf(SwookieeClientException)))
+            assertThat(ex.cause.cause, is(instanceOf(TimeoutException)))
+        }
+        Thread.sleep(500)
+        assertThat(stub.installCount, is(1L))
+    }
+
+    @Test
+    void 'single requests time out'() {
+        client.close()
+        client = SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port).withRequestTimeout(100).createAsync()
+        stub.latency = 1000
+
+        try {
+            client.startBundle('/framework/bundle/0').get(5, TimeUnit.SECONDS)
+            fail('the start should have timed out')
+        } catch (final ExecutionException ex) {
+            assertThat(ex.cause.cause, is(instanceOf(TimeoutException)))
+        }
+    }
+
+    private int state(final long id) {
+        BundleRepresentation representation = stub.bundles.find { BundleRepresentation it -> it.id == id }
+        representation.state
+    }
+}
@@ -0,0 +1,96 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+import com.swookiee.tools.stub.StubFrameworkServer
+
+@TypeChecked
+class BasicAuthTest {
+
+    static final int THREADS = 16
+    static final int REQUESTS = 50
+
+    StubFrameworkServer stub
+    ExecutorService executor
+
+    @Before
+    void setUp() {
+        stub = StubFrameworkServer.start(0, THREADS)
+        stub.requireCredentials('admin', 'admin123')
+        executor = Executors.newFixedThreadPool(THREADS)
+    }
+
+    @After
+    void tearDown() {
+        executor.shutdownNow()
+        stub.close()
+    }
+
+    @Test
+    void 'concurrent requests authenticate preemptively'() {
+        SwookieeClient client = SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port)
+                .withMaxConnections(THREADS).create()
+        try {
+            List<Callable<Integer>> tasks = (1..THREADS).collect {
+                ({ ->
+                    int listings = 0
+                    for (int i = 0; i < REQUESTS; i++) {
+                        listings += client.installedBundles.size()
+                    }
+                    listings
+                } as Callable<Integer>)
+            }
+            for (Future<Integer> listings : executor.invokeAll(tasks)) {
+                assertThat(listings.get(), is(REQUESTS))
+            }
+        } finally {
+            client.close()
+        }
+
+        assertThat(stub.unauthorizedCount, is(0L))
+    }
+
+    @Test
+    void 'concurrent asynchronous requests authenticate preemptively'() {
+        SwookieeAsyncClient client = SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port)
+                .withMaxConnections(THREADS).createAsync()
+        try {
+            List<CompletableFuture<List>> listings = (1..THREADS * REQUESTS).collect {
+                (CompletableFuture<List>) client.installedBundles
+            }
+            for (CompletableFuture<List> listing : listings) {
+                assertThat(listing.get().size(), is(1))
+            }
+        } finally {
+            client.close()
+        }
+
+        assertThat(stub.unauthorizedCount, is(0L))
+    }
+
+    @Test
+    void 'wrong credentials are rejected'() {
+        SwookieeClient client = SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port)
+                .withUsernamePassword('admin', 'wrong').create()
+        try {
+            client.installedBundles
+            fail('Listed bundles with wrong credentials')
+        } catch (SwookieeClientException expected) {
+            assertThat(stub.unauthorizedCount, is(greaterThan(0L)))
+        } finally {
+            client.close()
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import com.swookiee.tools.stub.StubFrameworkServer
+import com.swookiee.tools.stub.SyntheticBundles
+
+@TypeChecked
+class BundleAwaitTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    StubFrameworkServer stub
+    SwookieeClient client
+    List<String> locations
+
+    @Before
+    void setUp() {
+        stub = StubFrameworkServer.start()
+        client = SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port).create()
+        locations = (1..3).collect { int i ->
+            client.installBundle(SyntheticBundles.create(folder.root, 'com.example.await' + i, '1.0.0', 512))
+        }
+    }
+
+    @After
+    void tearDown() {
+        client.close()
+        stub.close()
+    }
+
+    @Test
+    void 'bundles active right away need a single listing'() {
+        long requests = stub.requestCount
+
+        BundleAwaitResult result = client.startAndAwait(locations, 5000)
+
+        assertThat(result.successful, is(true))
+        assertThat(result.polls, is(1))
+        assertThat(stub.requestCount - requests, is(4L))
+        assertThat(result.states.values() as List, is([BundleState.ACTIVE, BundleState.ACTIVE, BundleState.ACTIVE]))
+    }
+
+    @Test
+    void 'slowly activated bundles are awaited'() {
+        stub.activationDelay = 300
+
+        BundleAwaitResult result = client.startAndAwait(locations, 5000)
+
+        assertThat(result.successful, is(true))
+        assertThat(result.durationMillis, is(greaterThanOrEqualTo(300L)))
+        assertThat(result.polls, is(lessThan(15)))
+        assertThat(client.installedBundles.findAll { it.state == BundleState.ACTIVE.code }.size(), is(4))
+    }
+
+    @Test
+    void 'failed activations are reported without waiting for the timeout'() {
+        stub.activationDelay = 100
+        stub.failActivation('com.example.await2')
+
+        BundleAwaitResult result = client.startAndAwait(locations, 30000)
+
+        assertThat(result.successful, is(false))
+        assertThat(result.timedOut, is(false))
+        assertThat(result.failed, is([locations[1]]))
+        assertThat(result.states[locations[1]], is(BundleState.RESOLVED))
+        assertThat(result.durationMillis, is(lessThan(10000L)))
+    }
+
+    @Test
+    void 'bundles still starting at the timeout are pending'() {
+        stub.activationDelay = 10000
+
+        BundleAwaitResult result = client.startAndAwait(locations, 200)
+
+        assertThat(result.timedOut, is(true))
+        assertThat(result.pending, is(locations))
+        assertThat(result.states[locations[0]], is(BundleState.STARTING))
+    }
+
+    @Test
+    void 'bundles which cannot be started fail'() {
+        List<String> paths = [locations[0], '/framework/bundle/999']
+
+        BundleAwaitResult result = client.startAndAwait(paths, 5000)
+
+        assertThat(result.failed, is(['/framework/bundle/999']))
+        assertThat(result.errors.keySet() as List, is(['/framework/bundle/999']))
+        assertThat(result.states[locations[0]], is(BundleState.ACTIVE))
+    }
+
+    @Test
+    void 'unknown states of other bundles are ignored'() {
+        stub.addBundles(1)
+        stub.setState(stub.bundles.max { it.id }.id, 0x1000)
+
+        BundleAwaitResult result = client.startAndAwait(locations, 5000)
+
+        assertThat(result.successful, is(true))
+    }
+
+    @Test
+    void 'an unknown state fails only that bundle'() {
+        client.startAndAwait(locations, 5000)
+        stub.setState(locations[1].tokenize('/').last() as long, 0x1000)
+
+        BundleAwaitResult result = client.awaitState(locations, BundleState.ACTIVE, 5000)
+
+        assertThat(result.failed, is([locations[1]]))
+        assertThat(result.errors[locations[1]].message, containsString('Unknown state 4096'))
+        assertThat(result.states[locations[0]], is(BundleState.ACTIVE))
+        assertThat(result.states[locations[2]], is(BundleState.ACTIVE))
+    }
+
+    @Test
+    void 'deployments fail if bundles do not become active'() {
+        stub.activationDelay = 50
+        stub.failActivation('com.example.deploy')
+        File bundle = SyntheticBundles.create(folder.root, 'com.example.deploy', '1.0.0', 512)
+        SwookieeClientGroup group = new SwookieeClientGroup([client], false).withAwaitActive(5000)
+
+        ClusterDeployReport report = group.deploy([bundle], RolloutStrategy.allAtOnce())
+
+        NodeDeployResult node = report.nodeResults[0]
+        assertThat(node.successful, is(false))
+        assertThat(node.startFailures, is([bundle.name]))
+        assertThat(node.installResults[0].finalState, is(BundleState.RESOLVED))
+    }
+}
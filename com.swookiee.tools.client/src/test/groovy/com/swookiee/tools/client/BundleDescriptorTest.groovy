@@ -0,0 +1,84 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import java.util.jar.Attributes
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
+import java.util.zip.ZipEntry
+
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+@TypeChecked
+class BundleDescriptorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    @Test
+    void 'manifest headers are read'() {
+        File jar = bundle('a.jar', 'com.example.a;singleton:=true', '1.0.0')
+
+        BundleDescriptor descriptor = BundleDescriptor.of(jar)
+        assertThat(descriptor.symbolicName, is('com.example.a'))
+        assertThat(descriptor.version, is('1.0.0'))
+        assertThat(descriptor.importPackage, is('org.slf4j;version="[1.7,2)"'))
+        assertThat(descriptor.exportPackage, is('com.example.a.api'))
+        assertThat(descriptor.size, is(jar.length()))
+    }
+
+    @Test
+    void 'unchanged files are served from the cache'() {
+        File jar = bundle('b.jar', 'com.example.b', '1.0.0')
+
+        assertThat(BundleDescriptor.of(jar), is(sameInstance(BundleDescriptor.of(jar))))
+    }
+
+    @Test
+    void 'modified files are read again'() {
+        File jar = bundle('c.jar', 'com.example.c', '1.0.0')
+        BundleDescriptor first = BundleDescriptor.of(jar)
+
+        bundle('c.jar', 'com.example.c', '1.0.1')
+        jar.setLastModified(jar.lastModified() + 2000)
+
+        assertThat(BundleDescriptor.of(jar).version, is('1.0.1'))
+        assertThat(BundleDescriptor.of(jar), is(not(sameInstance(first))))
+    }
+
+    @Test(expected = SwookieeClientException)
+    void 'files without manifest are rejected'() {
+        File jar = folder.newFile('plain.jar')
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))
+        try {
+            out.putNextEntry(new ZipEntry('readme.txt'))
+        } finally {
+            out.close()
+        }
+        BundleDescriptor.of(jar)
+    }
+
+    private File bundle(String name, String symbolicName, String version) {
+        Manifest manifest = new Manifest()
+        Attributes attributes = manifest.mainAttributes
+        attributes.put(Attributes.Name.MANIFEST_VERSION, '1.0')
+        attributes.putValue('Bundle-SymbolicName', symbolicName)
+        attributes.putValue('Bundle-Version', version)
+        attributes.putValue('Import-Package', 'org.slf4j;version="[1.7,2)"')
+        attributes.putValue('Export-Package', 'com.example.a.api')
+
+        File jar = new File(folder.root, name)
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), manifest)
+        try {
+            out.putNextEntry(new ZipEntry('payload.txt'))
+            out.write(new byte[1024])
+        } finally {
+            out.close()
+        }
+        return jar
+    }
+}
@@ -0,0 +1,40 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.Test
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation
+
+@TypeChecked
+class BundleIndexTest {
+
+    BundleIndex index = new BundleIndex([
+        bundle(1, 'com.example.a', '1.0.0'),
+        bundle(2, 'com.example.a', '1.1.0'),
+        bundle(3, 'com.example.b', '1.0.0'),
+        bundle(4, null, null)
+    ])
+
+    @Test
+    void 'finds all versions by symbolic name'() {
+        assertThat(index.getBySymbolicName('com.example.a')*.id, is([1L, 2L]))
+    }
+
+    @Test
+    void 'finds bundle by symbolic name and version'() {
+        assertThat(index.get('com.example.a', '1.1.0').id, is(2L))
+        assertThat(index.get('com.example.b', '2.0.0'), is(nullValue()))
+    }
+
+    @Test
+    void 'unknown symbolic name yields no bundles'() {
+        assertThat(index.getBySymbolicName('com.example.c'), is(empty()))
+    }
+
+    private static BundleRepresentation bundle(long id, String symbolicName, String version) {
+        return new BundleRepresentation(id, 0L, "location-$id", 32, symbolicName, version)
+    }
+}
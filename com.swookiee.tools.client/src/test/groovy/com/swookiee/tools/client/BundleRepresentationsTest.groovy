@@ -0,0 +1,57 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import java.nio.charset.Charset
+
+import org.apache.http.entity.ContentType
+import org.apache.http.entity.StringEntity
+import org.junit.Test
+
+import com.fasterxml.jackson.core.JsonProcessingException
+import com.swookiee.runtime.ewok.representation.BundleRepresentation
+
+@TypeChecked
+class BundleRepresentationsTest {
+
+    static final String LISTING = '''[
+        {"id":0,"lastModified":1,"location":"System Bundle","state":32,"symbolicName":"org.eclipse.osgi","version":"3.10.0"},
+        {"id":7,"lastModified":2,"location":"bündle.jar","state":4,"symbolicName":"com.example.bündle","version":"1.0.0"}
+    ]'''
+
+    @Test
+    void 'reads all bundles of a listing'() {
+        List<BundleRepresentation> bundles = BundleRepresentations.readList(entity('UTF-8'))
+
+        assertThat(bundles*.id, is([0L, 7L]))
+        assertThat(bundles[1].state, is(4))
+    }
+
+    @Test
+    void 'decodes with the declared charset'() {
+        List<BundleRepresentation> bundles = BundleRepresentations.readList(entity('UTF-16'))
+
+        assertThat(bundles[1].symbolicName, is('com.example.bündle'))
+    }
+
+    @Test
+    void 'streams bundles one by one'() {
+        List<String> names = []
+        BundleRepresentations.forEach(entity('ISO-8859-1')) { BundleRepresentation bundle ->
+            names << bundle.location
+        }
+
+        assertThat(names, is(['System Bundle', 'bündle.jar']))
+    }
+
+    @Test(expected = JsonProcessingException)
+    void 'rejects responses which are not a list'() {
+        BundleRepresentations.readList(new StringEntity('{"id":1}', ContentType.APPLICATION_JSON))
+    }
+
+    private static StringEntity entity(String charset) {
+        return new StringEntity(LISTING, ContentType.create('application/json', Charset.forName(charset)))
+    }
+}
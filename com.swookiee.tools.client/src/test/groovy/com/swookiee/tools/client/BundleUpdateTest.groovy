@@ -0,0 +1,103 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation
+import com.swookiee.tools.stub.StubFrameworkServer
+import com.swookiee.tools.stub.SyntheticBundles
+
+@TypeChecked
+class BundleUpdateTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    StubFrameworkServer stub
+    SwookieeClient client
+    File version1
+    File version2
+
+    @Before
+    void setUp() {
+        stub = StubFrameworkServer.start()
+        client = SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port).create()
+        version1 = SyntheticBundles.create(folder.root, 'com.example.update', '1.0.0', 1024)
+        version2 = SyntheticBundles.create(folder.root, 'com.example.update', '1.1.0', 1024)
+    }
+
+    @After
+    void tearDown() {
+        client.close()
+        stub.close()
+    }
+
+    @Test
+    void 'updated bundles keep their id and stay active'() {
+        String location = client.installBundle(version1)
+        client.startBundle(location)
+
+        client.updateBundle(location, version2)
+
+        BundleRepresentation updated = installed()
+        assertThat(location, is('/framework/bundle/' + updated.id))
+        assertThat(updated.version, is('1.1.0'))
+        assertThat(updated.state, is(BundleState.ACTIVE.code))
+        assertThat(stub.installCount, is(1L))
+        assertThat(stub.updateCount, is(1L))
+    }
+
+    @Test
+    void 'forced updates replace the newest bundle and uninstall the others'() {
+        client.installBundle(version1)
+        String newest = client.installBundle(version1)
+
+        assertThat(client.installBundle(version2, ForceStrategy.UPDATE), is(newest))
+        assertThat(stub.bundles.size(), is(2))
+        assertThat(installed().version, is('1.1.0'))
+    }
+
+    @Test
+    void 'forced updates install missing bundles'() {
+        client.installBundle(version2, ForceStrategy.UPDATE)
+
+        assertThat(stub.installCount, is(1L))
+        assertThat(stub.updateCount, is(0L))
+    }
+
+    @Test
+    void 'installBundles updates in place if requested'() {
+        String location = client.installBundle(version1)
+
+        List<BundleInstallResult> results = client.installBundles([version2],
+                InstallOptions.defaults().withForceStrategy(ForceStrategy.UPDATE))
+
+        assertThat(results[0].updated, is(true))
+        assertThat(results[0].location, is(location))
+        assertThat(results[0].uninstalledBundleIds, is(empty()))
+        assertThat(stub.installCount, is(1L))
+    }
+
+    @Test
+    void 'stopped bundles are resolved'() {
+        String location = client.installBundle(version1)
+        client.startBundle(location)
+
+        client.stopBundle(location)
+
+        assertThat(installed().state, is(BundleState.RESOLVED.code))
+    }
+
+    private BundleRepresentation installed() {
+        List<BundleRepresentation> bundles = client.getInstalledBundles('com.example.update')
+        assertThat(bundles.size(), is(1))
+        bundles[0]
+    }
+}
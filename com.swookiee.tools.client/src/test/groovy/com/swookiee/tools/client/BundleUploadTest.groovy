@@ -0,0 +1,129 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import com.swookiee.tools.stub.StubFrameworkServer
+import com.swookiee.tools.stub.SyntheticBundles
+import com.swookiee.tools.stub.StubFrameworkServer.UploadFailure
+
+@TypeChecked
+class BundleUploadTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    StubFrameworkServer stub
+    File bundle
+    List<Long> progress = Collections.synchronizedList([])
+
+    @Before
+    void setUp() {
+        stub = StubFrameworkServer.start()
+        bundle = SyntheticBundles.create(folder.root, 'com.example.upload', '1.0.0', 4 * 1024 * 1024)
+    }
+
+    @After
+    void tearDown() {
+        stub.close()
+    }
+
+    @Test
+    void 'upload progress is reported up to the file size'() {
+        SwookieeClient client = newClient().create()
+        try {
+            String location = client.installBundle(bundle)
+
+            assertThat(location, startsWith('/framework/bundle/'))
+            assertThat(progress.last(), is(bundle.length()))
+            assertThat(progress.size(), is(greaterThan(1)))
+            assertThat(stub.bytesReceived, is(bundle.length()))
+        } finally {
+            client.close()
+        }
+    }
+
+    @Test
+    void 'compressed uploads are installed'() {
+        SwookieeClient client = newClient().withCompression(true).create()
+        try {
+            client.installBundle(bundle)
+
+            assertThat(stub.installCount, is(1L))
+            assertThat(stub.bundles*.symbolicName, hasItem('com.example.upload'))
+        } finally {
+            client.close()
+        }
+    }
+
+    @Test
+    void 'interrupted uploads are repeated'() {
+        stub.failNextUploads(UploadFailure.DISCONNECT_DURING_UPLOAD, 1)
+        SwookieeClient client = newClient().create()
+        try {
+            String location = client.installBundle(bundle)
+
+            assertThat(location, startsWith('/framework/bundle/'))
+            assertThat(stub.installCount, is(1L))
+        } finally {
+            client.close()
+        }
+    }
+
+    @Test
+    void 'bundles installed before the connection failed are not uploaded again'() {
+        stub.failNextUploads(UploadFailure.DISCONNECT_AFTER_INSTALL, 1)
+        SwookieeClient client = newClient().create()
+        try {
+            String location = client.installBundle(bundle)
+
+            assertThat(stub.installCount, is(1L))
+            assertThat(location, is('/framework/bundle/' + stub.bundles.last().id))
+        } finally {
+            client.close()
+        }
+    }
+
+    @Test(expected = SwookieeClientException)
+    void 'uploads fail once the attempts are exhausted'() {
+        stub.failNextUploads(UploadFailure.DISCONNECT_DURING_UPLOAD, 2)
+        SwookieeClient client = newClient().withRetries(2, 1).create()
+        try {
+            client.installBundle(bundle)
+        } finally {
+            client.close()
+        }
+    }
+
+    @Test
+    void 'deployments are broken down into phases'() {
+        SwookieeClientGroup group = new SwookieeClientGroup([newClient().create()])
+        try {
+            ClusterDeployReport report = group.deploy([bundle], RolloutStrategy.valueOf('all-at-once', 1))
+            BundleInstallResult result = report.nodeResults[0].installResults[0]
+
+            assertThat(result.finalState, is(BundleState.ACTIVE))
+            assertThat(result.bytesTransferred, is(bundle.length()))
+            assertThat(result.uploadNanos, is(greaterThan(0L)))
+            assertThat(result.installNanos, is(greaterThan(0L)))
+            assertThat(result.startNanos, is(greaterThan(0L)))
+            assertThat(result.totalNanos, is(greaterThanOrEqualTo(result.uploadNanos + result.startNanos)))
+        } finally {
+            group.close()
+        }
+    }
+
+    private SwookieClientBuilder newClient() {
+        SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port).withRetries(3, 1)
+                .withUploadProgressListener({ File file, long transferred, long total ->
+                    progress.add(transferred)
+                } as UploadProgressListener)
+    }
+}
@@ -0,0 +1,94 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+@TypeChecked
+class BundleWatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    @Test(timeout = 30000L)
+    void 'a burst of writes is reported once'() {
+        File first = new File(folder.root, 'first.jar')
+        File second = new File(folder.root, 'second.jar')
+        BundleWatcher watcher = new BundleWatcher([first, second], 200)
+        try {
+            Thread.start {
+                new File(folder.root, 'unrelated.jar').bytes = [1] as byte[]
+                second.bytes = [1] as byte[]
+                first.bytes = [1] as byte[]
+                second.bytes = [1, 2] as byte[]
+            }
+
+            assertThat(watcher.awaitChanges() as List, is([first, second]))
+        } finally {
+            watcher.close()
+        }
+    }
+
+    @Test(timeout = 30000L)
+    void 'files in other directories are watched as well'() {
+        File other = folder.newFolder('other')
+        File first = new File(folder.root, 'first.jar')
+        File second = new File(other, 'second.jar')
+        BundleWatcher watcher = new BundleWatcher([first, second], 50)
+        try {
+            Thread.start {
+                second.bytes = [1] as byte[]
+            }
+
+            assertThat(watcher.awaitChanges() as List, is([second]))
+        } finally {
+            watcher.close()
+        }
+    }
+
+    @Test(timeout = 30000L)
+    void 'a directory which does not exist yet is watched once it is created'() {
+        File target = new File(folder.root, 'module/target')
+        File bundle = new File(target, 'bundle.jar')
+        BundleWatcher watcher = new BundleWatcher([bundle], 50)
+        try {
+            Thread.start {
+                target.mkdirs()
+                bundle.bytes = [1] as byte[]
+            }
+
+            assertThat(watcher.awaitChanges() as List, is([bundle]))
+        } finally {
+            watcher.close()
+        }
+    }
+
+    @Test(timeout = 30000L)
+    void 'a deleted and recreated directory is watched again'() {
+        File target = folder.newFolder('target')
+        File bundle = new File(target, 'bundle.jar')
+        bundle.bytes = [1] as byte[]
+        BundleWatcher watcher = new BundleWatcher([bundle], 50)
+        try {
+            Thread.start {
+                bundle.delete()
+                target.delete()
+                Thread.sleep(200)
+                target.mkdir()
+                bundle.bytes = [1, 2] as byte[]
+            }
+            assertThat(watcher.awaitChanges() as List, is([bundle]))
+
+            Thread.start {
+                bundle.bytes = [1, 2, 3] as byte[]
+            }
+            assertThat(watcher.awaitChanges() as List, is([bundle]))
+        } finally {
+            watcher.close()
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import java.util.concurrent.TimeUnit
+import java.util.function.LongSupplier
+
+import org.junit.Test
+
+@TypeChecked
+class CircuitBreakerTest {
+
+    long now = 0
+    CircuitBreaker breaker = new CircuitBreaker('http://node1:8080', 2, 1000, { now } as LongSupplier)
+
+    @Test
+    void 'consecutive failures open the circuit'() {
+        breaker.onFailure()
+        breaker.onSuccess()
+        breaker.onFailure()
+        assertThat(breaker.state, is(CircuitBreaker.State.CLOSED))
+
+        breaker.onFailure()
+        assertThat(breaker.state, is(CircuitBreaker.State.OPEN))
+    }
+
+    @Test(expected = SwookieeClientException)
+    void 'requests fail fast while the circuit is open'() {
+        open()
+        breaker.acquire()
+    }
+
+    @Test
+    void 'a successful trial closes the circuit'() {
+        open()
+        now += TimeUnit.SECONDS.toNanos(1)
+
+        breaker.acquire()
+        assertThat(breaker.state, is(CircuitBreaker.State.HALF_OPEN))
+        breaker.onSuccess()
+        assertThat(breaker.state, is(CircuitBreaker.State.CLOSED))
+    }
+
+    @Test
+    void 'a failed trial opens the circuit again'() {
+        open()
+        now += TimeUnit.SECONDS.toNanos(1)
+
+        breaker.acquire()
+        breaker.onFailure()
+        assertThat(breaker.state, is(CircuitBreaker.State.OPEN))
+    }
+
+    private void open() {
+        breaker.onFailure()
+        breaker.onFailure()
+    }
+}
@@ -0,0 +1,68 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import com.swookiee.tools.stub.StubFrameworkServer
+import com.swookiee.tools.stub.SyntheticBundles
+
+@TypeChecked
+class ClientGroupTest {
+
+    static final int NODES = 6
+    static final long LATENCY = 500
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    List<StubFrameworkServer> stubs
+    SwookieeClientGroup group
+    File bundle
+
+    @Before
+    void setUp() {
+        stubs = (1..NODES).collect { StubFrameworkServer.start() }
+        group = new SwookieeClientGroup(stubs.collect { StubFrameworkServer stub ->
+            SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port).create()
+        })
+        bundle = SyntheticBundles.create(folder.root, 'com.example.group', '1.0.0', 512)
+    }
+
+    @After
+    void tearDown() {
+        group.close()
+        stubs.each { StubFrameworkServer stub -> stub.close() }
+    }
+
+    @Test
+    void 'uploads to different nodes overlap'() {
+        stubs.each { StubFrameworkServer stub -> stub.latency = LATENCY }
+
+        ClusterDeployReport report = group.deploy([bundle], RolloutStrategy.allAtOnce())
+
+        assertThat(report.successful, is(true))
+        assertThat(stubs*.installCount, everyItem(is(1L)))
+        // a single upload at a time across all nodes would take at least NODES * LATENCY
+        assertThat(report.durationMillis, is(lessThan(NODES * LATENCY)))
+    }
+
+    @Test
+    void 'a failing canary aborts the rollout'() {
+        stubs[0].failActivation('com.example.group')
+        group.withAwaitActive(5000)
+
+        ClusterDeployReport report = group.deploy([bundle], RolloutStrategy.canaryFirst())
+
+        assertThat(report.successful, is(false))
+        assertThat(report.nodeResults[0].successful, is(false))
+        assertThat(report.nodeResults.tail()*.attempted, everyItem(is(false)))
+        assertThat(stubs.tail()*.installCount, everyItem(is(0L)))
+    }
+}
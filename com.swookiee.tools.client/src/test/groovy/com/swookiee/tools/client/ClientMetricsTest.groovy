@@ -0,0 +1,51 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import java.util.concurrent.TimeUnit
+
+import org.junit.Test
+
+@TypeChecked
+class ClientMetricsTest {
+
+    ClientMetrics metrics = new ClientMetrics()
+
+    @Test
+    void 'requests are aggregated over all operations'() {
+        metrics.onRequest(event(SwookieeOperation.INSTALL_BUNDLE, 200, 2048, 10, null))
+        metrics.onRequest(event(SwookieeOperation.LIST_BUNDLES, 500, 0, 30, new SwookieeClientException('boom')))
+
+        assertThat(metrics.requestCount, is(2L))
+        assertThat(metrics.errorCount, is(1L))
+        assertThat(metrics.bytesSent, is(2048L))
+        assertThat(metrics.maxLatencyMillis, is(30d))
+        assertThat(metrics.meanLatencyMillis, is(20d))
+    }
+
+    @Test
+    void 'percentiles are bounded by the histogram bucket'() {
+        (1..99).each { metrics.onRequest(event(SwookieeOperation.START_BUNDLE, 200, 0, 1, null)) }
+        metrics.onRequest(event(SwookieeOperation.START_BUNDLE, 200, 0, 500, null))
+
+        assertThat(metrics.p99LatencyMillis, is(both(greaterThanOrEqualTo(1d)).and(lessThanOrEqualTo(2.048d))))
+        assertThat(metrics.maxLatencyMillis, is(500d))
+    }
+
+    @Test
+    void 'summary lists issued operations and a total'() {
+        metrics.onRequest(event(SwookieeOperation.UNINSTALL_BUNDLE, 200, 0, 5, null))
+
+        String[] summary = metrics.summary
+        assertThat(summary.length, is(3))
+        assertThat(summary[1], startsWith('UNINSTALL_BUNDLE'))
+        assertThat(summary[2], startsWith('TOTAL'))
+    }
+
+    private static RequestEvent event(SwookieeOperation operation, int status, long sent, long millis, Exception error) {
+        new RequestEvent(operation, 'http://localhost:8080', 'GET', '/framework/bundles', status, sent, 0, 0,
+                TimeUnit.MILLISECONDS.toNanos(millis), error)
+    }
+}
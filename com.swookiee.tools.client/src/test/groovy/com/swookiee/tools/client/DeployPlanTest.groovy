@@ -0,0 +1,81 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import java.util.jar.Attributes
+import java.util.jar.JarOutputStream
+import java.util.jar.Manifest
+
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+@TypeChecked
+class DeployPlanTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    @Test
+    void 'header names skip attributes and directives'() {
+        assertThat(DeployPlan.parseNames('a.b;version="[1,2)",c.d;e.f;resolution:=optional, g'),
+                is(['a.b', 'c.d', 'e.f', 'g']))
+    }
+
+    @Test
+    void 'quoted values may contain separators'() {
+        assertThat(DeployPlan.parseNames('a;uses:="x,y;z",b'), is(['a', 'b']))
+    }
+
+    @Test
+    void 'bundles are started after the bundles they depend on'() {
+        File api = bundle('api', 'com.example.api', null, null)
+        File service = bundle('service', 'com.example.service', 'com.example.api;version=1', null)
+        File web = bundle('web', 'com.example.web', 'org.slf4j', 'service')
+        File util = bundle('util', 'com.example.util', null, null)
+
+        DeployPlan plan = DeployPlan.of([web, service, util, api])
+
+        assertThat(names(plan.layers), is([['util', 'api'], ['service'], ['web']]))
+        assertThat(plan.cycles.empty, is(true))
+    }
+
+    @Test
+    void 'cycles are started together and reported'() {
+        File a = bundle('a', 'com.example.b', 'com.example.a', null)
+        File b = bundle('b', 'com.example.a', 'com.example.b', null)
+        File c = bundle('c', null, 'com.example.a', null)
+
+        DeployPlan plan = DeployPlan.of([c, a, b])
+
+        assertThat(names(plan.layers), is([['a', 'b'], ['c']]))
+        assertThat(names(plan.cycles), is([['a', 'b']]))
+    }
+
+    private static List<List<String>> names(List<List<BundleDescriptor>> groups) {
+        groups.collect { List<BundleDescriptor> group -> group.collect { BundleDescriptor bundle -> bundle.symbolicName } }
+    }
+
+    private File bundle(String name, String exportPackage, String importPackage, String requireBundle) {
+        Manifest manifest = new Manifest()
+        Attributes attributes = manifest.mainAttributes
+        attributes.put(Attributes.Name.MANIFEST_VERSION, '1.0')
+        attributes.putValue('Bundle-SymbolicName', name)
+        attributes.putValue('Bundle-Version', '1.0.0')
+        if (exportPackage) {
+            attributes.putValue('Export-Package', exportPackage)
+        }
+        if (importPackage) {
+            attributes.putValue('Import-Package', importPackage)
+        }
+        if (requireBundle) {
+            attributes.putValue('Require-Bundle', requireBundle)
+        }
+
+        File jar = new File(folder.root, name + '.jar')
+        new JarOutputStream(new FileOutputStream(jar), manifest).close()
+        return jar
+    }
+}
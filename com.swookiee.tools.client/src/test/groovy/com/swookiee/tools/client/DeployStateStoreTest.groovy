@@ -0,0 +1,49 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+@TypeChecked
+class DeployStateStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    @Test
+    void 'recorded state survives reloading'() {
+        DeployStateStore store = DeployStateStore.forTarget(folder.root, 'http://localhost:8080')
+        store.record('com.example.a', 'cafe', 'a.jar', '1.0.0')
+        store.save()
+
+        DeployStateStore reloaded = DeployStateStore.forTarget(folder.root, 'http://localhost:8080')
+        assertThat(reloaded.matches('com.example.a', 'cafe'), is(true))
+        assertThat(reloaded.getLocation('com.example.a'), is('a.jar'))
+        assertThat(reloaded.getVersion('com.example.a'), is('1.0.0'))
+    }
+
+    @Test
+    void 'targets do not share state'() {
+        DeployStateStore store = DeployStateStore.forTarget(folder.root, 'http://localhost:8080')
+        store.record('com.example.a', 'cafe', 'a.jar', '1.0.0')
+        store.save()
+
+        DeployStateStore other = DeployStateStore.forTarget(folder.root, 'http://localhost:9090')
+        assertThat(other.matches('com.example.a', 'cafe'), is(false))
+    }
+
+    @Test
+    void 'digest changes with content'() {
+        File file = folder.newFile('bundle.jar')
+        file.text = 'one'
+        String first = FileDigest.of(file)
+        file.text = 'two'
+
+        assertThat(FileDigest.of(file), is(not(first)))
+        assertThat(first.length(), is(64))
+    }
+}
@@ -0,0 +1,38 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.Test
+
+@TypeChecked
+class HostAddressTest {
+
+    @Test
+    void 'host names with and without port'() {
+        assertThat(HostAddress.parse('node1', 8080).toString(), is('node1:8080'))
+        assertThat(HostAddress.parse('node1:8081', 8080).toString(), is('node1:8081'))
+        assertThat(HostAddress.parse('10.0.0.1:9000', 8080).toString(), is('10.0.0.1:9000'))
+    }
+
+    @Test
+    void 'ipv6 addresses are kept in brackets'() {
+        assertThat(HostAddress.parse('[::1]:8081', 8080).hostname, is('[::1]'))
+        assertThat(HostAddress.parse('[::1]:8081', 8080).port, is(8081))
+        assertThat(HostAddress.parse('[fe80::1]', 8080).toString(), is('[fe80::1]:8080'))
+        assertThat(HostAddress.parse('fe80::1', 8080).toString(), is('[fe80::1]:8080'))
+    }
+
+    @Test
+    void 'invalid addresses are rejected'() {
+        for (String address : ['', ':8080', '[]:8080', '[::1', '[::1]8080', 'node1:', 'node1:http', 'node1:70000']) {
+            try {
+                HostAddress.parse(address, 8080)
+                fail('Accepted ' + address)
+            } catch (IllegalArgumentException ex) {
+                assertThat(ex.message, containsString('address'))
+            }
+        }
+    }
+}
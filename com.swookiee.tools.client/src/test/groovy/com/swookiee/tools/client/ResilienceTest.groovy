@@ -0,0 +1,82 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+import com.swookiee.tools.stub.StubFrameworkServer
+
+@TypeChecked
+class ResilienceTest {
+
+    StubFrameworkServer stub
+
+    @Before
+    void setUp() {
+        stub = StubFrameworkServer.start()
+    }
+
+    @After
+    void tearDown() {
+        stub.close()
+    }
+
+    @Test
+    void 'unavailable nodes are retried'() {
+        stub.respondWithStatus(503, 2)
+        SwookieeClient client = newClient().withRetries(3, 1).create()
+        try {
+            assertThat(client.installedBundles.size(), is(1))
+            assertThat(stub.requestCount, is(3L))
+        } finally {
+            client.close()
+        }
+    }
+
+    @Test
+    void 'unexpected status codes are final'() {
+        stub.respondWithStatus(404, 1)
+        SwookieeClient client = newClient().withRetries(3, 1).create()
+        try {
+            client.installedBundles
+            fail()
+        } catch (SwookieeClientException ex) {
+            assertThat(ex.statusCode, is(404))
+            assertThat(stub.requestCount, is(1L))
+        } finally {
+            client.close()
+        }
+    }
+
+    @Test
+    void 'requests fail fast once the circuit is open'() {
+        stub.respondWithStatus(503, 2)
+        SwookieeClient client = newClient().withRetries(1, 1).withCircuitBreaker(2, 60000).create()
+        try {
+            2.times {
+                try {
+                    client.installedBundles
+                } catch (SwookieeClientException ex) {
+                    assertThat(ex.statusCode, is(503))
+                }
+            }
+            try {
+                client.installedBundles
+                fail()
+            } catch (SwookieeClientException ex) {
+                assertThat(ex.message, containsString('unavailable'))
+            }
+            assertThat(stub.requestCount, is(2L))
+        } finally {
+            client.close()
+        }
+    }
+
+    private SwookieClientBuilder newClient() {
+        SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port)
+    }
+}
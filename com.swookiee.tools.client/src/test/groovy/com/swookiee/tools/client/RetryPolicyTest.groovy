@@ -0,0 +1,57 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.hamcrest.Matcher
+import org.junit.Test
+
+@TypeChecked
+class RetryPolicyTest {
+
+    SwookieeClientException connectionReset = new SwookieeClientException('reset', new IOException('reset'))
+    SwookieeClientException unavailable = new SwookieeClientException('unavailable', 503)
+    SwookieeClientException notFound = new SwookieeClientException('not found', 404)
+
+    @Test
+    void 'delays grow exponentially with jitter'() {
+        RetryPolicy policy = RetryPolicy.attempts(5).withBackoff(100, 250)
+
+        assertThat(policy.nextDelayMillis(1, 0, connectionReset), is(between(50L, 100L)))
+        assertThat(policy.nextDelayMillis(2, 0, connectionReset), is(between(100L, 200L)))
+        assertThat(policy.nextDelayMillis(3, 0, connectionReset), is(between(125L, 250L)))
+    }
+
+    @Test
+    void 'attempts are limited'() {
+        RetryPolicy policy = RetryPolicy.attempts(2)
+
+        assertThat(policy.nextDelayMillis(1, 0, connectionReset), is(greaterThanOrEqualTo(0L)))
+        assertThat(policy.nextDelayMillis(2, 0, connectionReset), is(-1L))
+        assertThat(RetryPolicy.none().nextDelayMillis(1, 0, connectionReset), is(-1L))
+    }
+
+    @Test
+    void 'only transient failures are retried'() {
+        RetryPolicy policy = RetryPolicy.attempts(3)
+
+        assertThat(policy.isRetryable(connectionReset), is(true))
+        assertThat(policy.isRetryable(unavailable), is(true))
+        assertThat(policy.isRetryable(notFound), is(false))
+        assertThat(policy.retryingOn(404).isRetryable(notFound), is(true))
+        assertThat(policy.retryingOn(404).isRetryable(unavailable), is(false))
+    }
+
+    @Test
+    void 'no attempt starts after the deadline'() {
+        RetryPolicy policy = RetryPolicy.attempts(10).withBackoff(100, 100).withDeadline(1000)
+
+        assertThat(policy.nextDelayMillis(1, 800, connectionReset), is(greaterThanOrEqualTo(0L)))
+        assertThat(policy.nextDelayMillis(1, 950, connectionReset), is(-1L))
+    }
+
+    private static Matcher<Long> between(long min, long max) {
+        both(greaterThanOrEqualTo(min)).and(lessThanOrEqualTo(max))
+    }
+}
@@ -0,0 +1,38 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.Test
+
+@TypeChecked
+class RolloutStrategyTest {
+
+    List<String> nodes = ['a', 'b', 'c', 'd', 'e']
+
+    @Test
+    void 'all at once deploys a single wave'() {
+        assertThat(RolloutStrategy.allAtOnce().waves(nodes), is([nodes]))
+    }
+
+    @Test
+    void 'batches split the nodes'() {
+        assertThat(RolloutStrategy.batchesOf(2).waves(nodes), is([['a', 'b'], ['c', 'd'], ['e']]))
+    }
+
+    @Test
+    void 'canary first deploys the first node alone'() {
+        assertThat(RolloutStrategy.canaryFirst().waves(nodes), is([['a'], ['b', 'c', 'd', 'e']]))
+    }
+
+    @Test
+    void 'strategies can be parsed from plugin configuration'() {
+        assertThat(RolloutStrategy.valueOf('batches', 3).waves(nodes), is([['a', 'b', 'c'], ['d', 'e']]))
+    }
+
+    @Test(expected = IllegalArgumentException)
+    void 'unknown strategies are rejected'() {
+        RolloutStrategy.valueOf('random', 1)
+    }
+}
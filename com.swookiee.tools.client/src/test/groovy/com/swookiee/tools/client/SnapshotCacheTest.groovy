@@ -0,0 +1,106 @@
+package com.swookiee.tools.client
+
+import static org.hamcrest.Matchers.*
+import static org.junit.Assert.*
+import groovy.transform.TypeChecked
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation
+import com.swookiee.tools.stub.StubFrameworkServer
+import com.swookiee.tools.stub.SyntheticBundles
+
+@TypeChecked
+class SnapshotCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder()
+
+    StubFrameworkServer stub
+
+    @Before
+    void setUp() {
+        stub = StubFrameworkServer.start()
+    }
+
+    @After
+    void tearDown() {
+        stub.close()
+    }
+
+    @Test
+    void 'fresh snapshots are served without a request'() {
+        SwookieeClient client = newClient().withSnapshotCache(60000).create()
+        try {
+            client.installedBundles
+            stub.addBundles(1)
+
+            assertThat(client.installedBundles.size(), is(1))
+            assertThat(client.getInstalledBundles('org.eclipse.osgi').size(), is(1))
+            assertThat(stub.requestCount, is(1L))
+        } finally {
+            client.close()
+        }
+    }
+
+    @Test
+    void 'expired snapshots are revalidated'() {
+        SwookieeClient client = newClient().withSnapshotCache(1).create()
+        try {
+            client.installedBundles
+            Thread.sleep(5)
+            assertThat(client.installedBundles.size(), is(1))
+
+            stub.addBundles(2)
+            Thread.sleep(5)
+            assertThat(client.installedBundles.size(), is(3))
+            assertThat(stub.requestCount, is(3L))
+        } finally {
+            client.close()
+        }
+    }
+
+    @Test
+    void 'own changes are applied to the snapshot'() {
+        File bundle = SyntheticBundles.create(folder.root, 'com.example.cached', '1.0.0', 1024)
+        SwookieeClient client = newClient().withSnapshotCache(60000).create()
+        try {
+            client.installedBundles
+            String location = client.installBundle(bundle)
+            client.startBundle(location)
+            long requests = stub.requestCount
+
+            List<BundleRepresentation> installed = client.getInstalledBundles('com.example.cached')
+            assertThat(installed.size(), is(1))
+            assertThat(installed[0].state, is(32))
+            assertThat(installed[0].version, is('1.0.0'))
+
+            client.uninstallBundle(installed[0].id)
+            assertThat(client.getInstalledBundles('com.example.cached'), is(empty()))
+            assertThat(client.installedBundles*.symbolicName, is(['org.eclipse.osgi']))
+            assertThat(stub.requestCount, is(requests + 1))
+        } finally {
+            client.close()
+        }
+    }
+
+    @Test
+    void 'clients without cache always list'() {
+        SwookieeClient client = newClient().create()
+        try {
+            client.installedBundles
+            client.installedBundles
+            assertThat(stub.requestCount, is(2L))
+        } finally {
+            client.close()
+        }
+    }
+
+    private SwookieClientBuilder newClient() {
+        SwookieClientBuilder.newTarget('127.0.0.1').withPort(stub.port)
+    }
+}
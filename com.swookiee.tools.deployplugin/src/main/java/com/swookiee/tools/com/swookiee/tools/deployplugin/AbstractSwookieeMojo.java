@@ -0,0 +1,460 @@
+package com.swookiee.tools.com.swookiee.tools.deployplugin;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+
+import com.swookiee.tools.client.BundleAwaitResult;
+import com.swookiee.tools.client.ForceStrategy;
+import com.swookiee.tools.client.RetryPolicy;
+import com.swookiee.tools.client.SwookieClientBuilder;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+
+/**
+ * Parameters and helpers shared by the goals talking to a Swookiee instance: the target, its credentials, the HTTP
+ * connection settings and the bundles to deploy.
+ */
+public abstract class AbstractSwookieeMojo extends AbstractMojo {
+
+    /**
+     * Hostname
+     * 
+     * @parameter default-value="localhost"
+     */
+    protected String host;
+
+    /**
+     * HTTP port of swookiee instance.
+     * 
+     * @parameter default-value="8080"
+     */
+    protected Integer port;
+
+    /**
+     * Admin Username.
+     * 
+     * @parameter default-value="admin"
+     */
+    private String username;
+
+    /**
+     * Admin Account Password.
+     * 
+     * @parameter default-value="admin123"
+     */
+    private String password;
+
+    /**
+     * Hostname of the Proxy.
+     * 
+     * @parameter
+     */
+    private String proxyHost;
+
+    /**
+     * Port of the Proxy.
+     * 
+     * @parameter default-value=8080
+     */
+    private int proxyPort;
+
+    /**
+     * Make use of Self signed https
+     * 
+     * @parameter default-value="false"
+     */
+    private boolean useHttps;
+
+    /**
+     * Enable self signed https
+     * 
+     * @parameter default-value="false"
+     */
+    private boolean useSelfSigned;
+
+    /**
+     * Do you want to deploy dependencies as well?
+     * 
+     * @parameter default-value="false"
+     */
+    private boolean deployDependencies;
+
+    /**
+     * Deploy the transitive dependencies of the declared dependencies as well.
+     * 
+     * @parameter default-value="false"
+     */
+    private boolean transitiveDependencies;
+
+    /**
+     * The widest scope of the deployed dependencies: {@code compile}, {@code runtime} or {@code test}, which includes
+     * all scopes. Only dependencies of type {@code jar} or {@code bundle} whose manifest has a Bundle-SymbolicName are
+     * deployed.
+     * 
+     * @parameter default-value="test"
+     */
+    private String dependencyScope;
+
+    /**
+     * Number of dependencies resolved concurrently.
+     * 
+     * @parameter default-value="4"
+     */
+    private int resolveThreads;
+
+    /**
+     * Remember the files of resolved released dependencies in {@code resolveCache}, so later runs do not resolve them
+     * again.
+     * 
+     * @parameter default-value="true"
+     */
+    private boolean useResolveCache;
+
+    /**
+     * File shared by all builds which maps released dependencies to their files in the local repository, and the
+     * transitive dependencies of a set of released dependencies to their members. An entry is ignored and resolved
+     * again once its file no longer exists. Snapshots are never cached, closures are keyed by scope, exclusions and
+     * managed versions as well.
+     * 
+     * @parameter default-value="${user.home}/.swookiee/resolve-cache.properties"
+     */
+    private File resolveCache;
+
+    /**
+     * How bundles already installed with the same Bundle-SymbolicName are replaced: {@code update} updates them in
+     * place, keeping their id, {@code uninstall} un-installs them before installing the new bundle.
+     * 
+     * @parameter default-value="update"
+     */
+    private String forceStrategy;
+
+    /**
+     * Maximum number of pooled HTTP connections to the target, {@code 0} sizes the pool to the needs of the goal.
+     * 
+     * @parameter default-value="0"
+     */
+    private int maxConnections;
+
+    /**
+     * Timeout in milliseconds for establishing a connection, {@code 0} waits forever.
+     * 
+     * @parameter default-value="10000"
+     */
+    private int connectTimeout;
+
+    /**
+     * Timeout in milliseconds waiting for data on an established connection, {@code 0} waits forever.
+     * 
+     * @parameter default-value="120000"
+     */
+    private int socketTimeout;
+
+    /**
+     * Timeout in milliseconds waiting for a free pooled connection, {@code 0} waits forever.
+     * 
+     * @parameter default-value="60000"
+     */
+    private int connectionRequestTimeout;
+
+    /**
+     * Milliseconds an idle connection is kept alive unless the server announces a shorter timeout.
+     * 
+     * @parameter default-value="30000"
+     */
+    private long keepAlive;
+
+    /**
+     * Milliseconds after which idle pooled connections are closed, {@code 0} disables eviction.
+     * 
+     * @parameter default-value="30000"
+     */
+    private long idleConnectionTimeout;
+
+    /**
+     * Disable Nagle's algorithm on the HTTP sockets.
+     * 
+     * @parameter default-value="true"
+     */
+    private boolean tcpNoDelay;
+
+    /**
+     * Attempts per request before giving up on I/O errors and 502, 503 or 504 responses. Failed uploads are only
+     * repeated if the bundle did not get installed nevertheless.
+     * 
+     * @parameter default-value="3"
+     */
+    private int maxAttempts;
+
+    /**
+     * Milliseconds after the first attempt of a request in which further attempts may start, {@code 0} means no limit.
+     * 
+     * @parameter default-value="0"
+     */
+    private long retryDeadline;
+
+    /**
+     * Consecutive failures after which requests to a node fail immediately for {@code circuitBreakerOpenTime}
+     * milliseconds, {@code 0} disables the circuit breaker.
+     * 
+     * @parameter default-value="5"
+     */
+    private int circuitBreakerThreshold;
+
+    /**
+     * Milliseconds requests to a node fail immediately once its circuit breaker opened, afterwards a single request
+     * probes the node again.
+     * 
+     * @parameter default-value="30000"
+     */
+    private long circuitBreakerOpenTime;
+
+    /**
+     * Gzip bundles while uploading them. The target has to accept gzip encoded requests.
+     * 
+     * @parameter default-value="false"
+     */
+    private boolean compressUploads;
+
+    /**
+     * Wait until the started bundles are active instead of returning as soon as they have been told to start. Bundles
+     * which fail to activate or are not active within {@code activeTimeout} milliseconds fail the deployment.
+     * 
+     * @parameter default-value="false"
+     */
+    private boolean waitForActive;
+
+    /**
+     * Milliseconds to wait for the started bundles to become active if {@code waitForActive} is enabled.
+     * 
+     * @parameter default-value="60000"
+     */
+    private long activeTimeout;
+
+    /**
+     * The name of the generated JAR file.
+     * 
+     * @parameter default-value="${project.build.directory}/${project.build.finalName}.jar"
+     * @required
+     */
+    private String bundleFile;
+
+    /**
+     * The set of dependencies required by the project
+     * 
+     * @parameter default-value="${project.dependencyArtifacts}"
+     * @required
+     * @readonly
+     */
+    private Set<Artifact> artifacts;
+
+    /**
+     * The set of dependencies required by the project
+     * 
+     * @parameter default-value="${project.dependencies}
+     * @required
+     * @readonly
+     */
+    private List<Dependency> dependencies;
+
+    /** @component */
+    private ArtifactResolver resolver;
+
+    /** @component role="org.apache.maven.artifact.metadata.ArtifactMetadataSource" roleHint="maven" */
+    private ArtifactMetadataSource metadataSource;
+
+    /**
+     * @parameter default-value="${project.artifact}"
+     * @required
+     * @readonly
+     */
+    private Artifact projectArtifact;
+
+    /**
+     * @parameter default-value="${project.managedVersionMap}"
+     * @readonly
+     */
+    @SuppressWarnings("rawtypes")
+    private Map managedVersionMap;
+
+    /** @parameter default-value="${localRepository}" */
+    private org.apache.maven.artifact.repository.ArtifactRepository localRepository;
+
+    /** @parameter default-value="${project.remoteArtifactRepositories}" */
+    @SuppressWarnings("rawtypes")
+    private List remoteRepositories;
+
+    private final Map<File, Long> resolveNanos = new HashMap<>();
+
+    /**
+     * @return {@code bundleFile} followed by the resolved dependencies if {@code deployDependencies} is set
+     */
+    protected List<File> getBundles() {
+        final List<File> bundles = new ArrayList<>();
+        addBundle(bundles, this.bundleFile);
+        bundles.addAll(getDependencyBundles());
+        return bundles;
+    }
+
+    /**
+     * @return the configured {@code bundleFile}, which does not need to exist
+     */
+    protected File getBundleFile() {
+        return new File(this.bundleFile);
+    }
+
+    /**
+     * @return the resolved dependencies, empty unless {@code deployDependencies} is set
+     */
+    protected List<File> getDependencyBundles() {
+        return deployDependencies ? resolveDependencies() : new ArrayList<File>();
+    }
+
+    private void addBundle(final List<File> bundles, final String filePath) {
+
+        if (filePath == null) {
+            getLog().info("No Path to file given");
+            return;
+        }
+
+        File bundle = new File(filePath);
+        if (bundle.exists()) {
+            bundles.add(bundle);
+        } else {
+            getLog().warn("Bundle '" + filePath + "' could not been found!");
+        }
+    }
+
+    /**
+     * @return time spent resolving each dependency returned by {@link #getDependencyBundles()}
+     */
+    protected Map<File, Long> getResolveNanos() {
+        return Collections.unmodifiableMap(resolveNanos);
+    }
+
+    private List<File> resolveDependencies() {
+        final DependencyResolution resolution = new DependencyResolution(resolver, metadataSource, localRepository,
+                remoteRepositories, getLog()).withScope(this.dependencyScope)
+                .withTransitive(this.transitiveDependencies).withThreads(this.resolveThreads)
+                .withManagedVersions(this.managedVersionMap)
+                .withCache(this.useResolveCache ? this.resolveCache : null);
+        final long start = System.nanoTime();
+        final List<File> bundles = resolution.resolve(artifacts, dependencies, projectArtifact);
+        getLog().info(String.format("Resolved %d dependency bundles in %d ms", bundles.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        resolveNanos.putAll(resolution.getResolveNanos());
+        return bundles;
+    }
+
+    /**
+     * @return the configured {@code forceStrategy}
+     * @throws MojoExecutionException
+     *             Will be thrown if the strategy is unknown
+     */
+    protected ForceStrategy getForceStrategy() throws MojoExecutionException {
+        try {
+            return ForceStrategy.valueOf(this.forceStrategy.trim().toUpperCase(Locale.ENGLISH));
+        } catch (final IllegalArgumentException ex) {
+            throw new MojoExecutionException("Unknown force strategy: " + this.forceStrategy, ex);
+        }
+    }
+
+    /**
+     * @return a key identifying the target and all settings {@link #newClientBuilder(String, Integer, int)} builds a
+     *         client with, equal keys yield interchangeable clients
+     */
+    protected String getClientKey(final String hostname, final Integer hostPort, final int defaultMaxConnections) {
+        return Arrays.asList(useHttps ? "https" : "http", useSelfSigned, hostname, hostPort, username, password,
+                proxyHost, proxyPort, maxConnections > 0 ? maxConnections : defaultMaxConnections, connectTimeout,
+                socketTimeout, connectionRequestTimeout, keepAlive, idleConnectionTimeout, tcpNoDelay, maxAttempts,
+                retryDeadline, circuitBreakerThreshold, circuitBreakerOpenTime, compressUploads).toString();
+    }
+
+    /**
+     * @return milliseconds to wait for started bundles to become active, {@code 0} if {@code waitForActive} is
+     *         disabled
+     */
+    protected long getActiveTimeout() {
+        return this.waitForActive ? Math.max(1, this.activeTimeout) : 0;
+    }
+
+    /**
+     * @param defaultMaxConnections
+     *            pool size used unless {@code maxConnections} is configured
+     * @return a builder for a client to the given target configured with the connection parameters of this goal
+     */
+    protected SwookieClientBuilder newClientBuilder(final String hostname, final Integer hostPort,
+            final int defaultMaxConnections) {
+        final SwookieClientBuilder swookieClientBuilder = SwookieClientBuilder.newTarget(hostname)
+                .withPort(hostPort)
+                .withUsernamePassword(this.username, this.password)
+                .withMaxConnections(this.maxConnections > 0 ? this.maxConnections : defaultMaxConnections)
+                .withConnectTimeout(this.connectTimeout)
+                .withSocketTimeout(this.socketTimeout)
+                .withConnectionRequestTimeout(this.connectionRequestTimeout)
+                .withKeepAlive(this.keepAlive)
+                .withIdleConnectionEviction(this.idleConnectionTimeout)
+                .withTcpNoDelay(this.tcpNoDelay)
+                .withRetryPolicy(RetryPolicy.attempts(this.maxAttempts).withDeadline(this.retryDeadline))
+                .withCircuitBreaker(this.circuitBreakerThreshold, this.circuitBreakerOpenTime)
+                .withCompression(this.compressUploads);
+        if (this.useSelfSigned) {
+            swookieClientBuilder.enableSelfSignedHttps();
+        }
+        if (this.useHttps) {
+            swookieClientBuilder.enableHttps();
+        }
+        if (this.proxyHost != null) {
+            swookieClientBuilder.withProxy(this.proxyHost, this.proxyPort);
+        }
+        return swookieClientBuilder;
+    }
+
+    public void forceInstallAndStartBundle(final SwookieeClient swookieeClient, final File file)
+            throws SwookieeClientException {
+        forceInstallAndStartBundle(swookieeClient, file, ForceStrategy.UNINSTALL);
+    }
+
+    public void forceInstallAndStartBundle(final SwookieeClient swookieeClient, final File file,
+            final ForceStrategy strategy) throws SwookieeClientException {
+        startBundle(swookieeClient, file, installBundle(swookieeClient, file, strategy));
+    }
+
+    private String installBundle(final SwookieeClient swookieeClient, final File file, final ForceStrategy strategy)
+            throws SwookieeClientException {
+        getLog().info(
+                String.format("Installing %s to %s", file.getAbsolutePath(), swookieeClient.getConfiguredTarget()));
+        return swookieeClient.installBundle(file, strategy);
+    }
+
+    private void startBundle(final SwookieeClient swookieeClient, final File file, final String installedBundle) {
+        try {
+            if (getActiveTimeout() == 0) {
+                swookieeClient.startBundle(installedBundle);
+                return;
+            }
+            final BundleAwaitResult result = swookieeClient.startAndAwait(Collections.singletonList(installedBundle),
+                    getActiveTimeout());
+            if (!result.isSuccessful()) {
+                getLog().warn(String.format("Bundle %s is %s instead of active", file,
+                        result.isTimedOut() ? "still starting" : result.getStates().get(installedBundle)));
+            }
+        } catch (Exception ex) {
+            getLog().warn("Could not start Bundle: " + file.toString());
+        }
+    }
+}
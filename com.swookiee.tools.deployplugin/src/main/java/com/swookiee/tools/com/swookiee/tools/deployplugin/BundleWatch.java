@@ -0,0 +1,105 @@
+package com.swookiee.tools.com.swookiee.tools.deployplugin;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import com.swookiee.tools.client.BundleDescriptor;
+import com.swookiee.tools.client.BundleWatcher;
+import com.swookiee.tools.client.DeployPlan;
+import com.swookiee.tools.client.ForceStrategy;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+
+/**
+ * Watches {@code bundleFile} and, if {@code deployDependencies} is set, the resolved dependencies and redeploys every
+ * bundle which has been rewritten, e.g. by {@code mvn package} in another shell. Installed bundles are replaced as
+ * configured by {@code forceStrategy}, by default they are updated in place. All redeployments use the same client, so
+ * its pooled connection stays open between them. The goal runs until Maven is stopped.
+ * 
+ * @goal bundle-watch
+ * 
+ */
+public class BundleWatch extends AbstractSwookieeMojo {
+
+    /**
+     * Milliseconds without further file events before changed bundles are redeployed. A build rewrites a jar in
+     * several steps, too short a value deploys incomplete files.
+     * 
+     * @parameter default-value="500"
+     */
+    private long debounce;
+
+    /**
+     * Deploy all watched bundles once before waiting for changes.
+     * 
+     * @parameter default-value="true"
+     */
+    private boolean deployOnStart;
+
+    /**
+     * Milliseconds the listing of installed bundles is reused to find the bundles replaced by a redeployment,
+     * {@code 0} lists them for every redeployment.
+     * 
+     * @parameter default-value="10000"
+     */
+    private long snapshotTtl;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        final ForceStrategy strategy = getForceStrategy();
+        final List<File> watched = new ArrayList<>();
+        watched.add(getBundleFile());
+        watched.addAll(getDependencyBundles());
+
+        try (SwookieeClient client = newClientBuilder(this.host, this.port, 2).withSnapshotCache(this.snapshotTtl)
+                .create(); BundleWatcher watcher = new BundleWatcher(watched, this.debounce)) {
+            if (deployOnStart) {
+                // the dependencies are resolved already, only the bundle file may not have been built yet
+                final List<File> existing = new ArrayList<>();
+                for (File bundle : watched) {
+                    if (bundle.isFile()) {
+                        existing.add(bundle);
+                    } else {
+                        getLog().warn("Bundle '" + bundle + "' could not been found!");
+                    }
+                }
+                redeploy(client, existing, strategy);
+            }
+            getLog().info("Watching " + watched.size() + " bundles for changes, press Ctrl+C to stop");
+            while (true) {
+                redeploy(client, watcher.awaitChanges(), strategy);
+            }
+        } catch (final SwookieeClientException ex) {
+            throw new MojoExecutionException("Could not watch bundles: " + ex.getMessage(), ex);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            getLog().info("Stopped watching bundles");
+        }
+    }
+
+    private void redeploy(final SwookieeClient client, final Collection<File> bundles, final ForceStrategy strategy) {
+        final DeployPlan plan;
+        try {
+            plan = DeployPlan.of(bundles);
+        } catch (final SwookieeClientException ex) {
+            getLog().error("Could not read changed bundles: " + ex.getMessage());
+            return;
+        }
+        for (BundleDescriptor descriptor : plan.getBundles()) {
+            final File bundle = descriptor.getFile();
+            final long start = System.nanoTime();
+            try {
+                forceInstallAndStartBundle(client, bundle, strategy);
+                getLog().info(String.format("Redeployed %s in %d ms", bundle.getName(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+            } catch (final SwookieeClientException ex) {
+                getLog().error("Could not redeploy " + bundle.getName() + ": " + ex.getMessage());
+            }
+        }
+    }
+}
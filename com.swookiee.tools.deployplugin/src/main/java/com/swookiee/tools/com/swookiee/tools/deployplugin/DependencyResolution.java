@@ -0,0 +1,468 @@
+package com.swookiee.tools.com.swookiee.tools.deployplugin;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactNotFoundException;
+import org.apache.maven.artifact.resolver.ArtifactResolutionException;
+import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
+import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.artifact.resolver.filter.AndArtifactFilter;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.artifact.resolver.filter.ScopeArtifactFilter;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.plugin.logging.Log;
+
+import com.swookiee.tools.client.BundleDescriptor;
+import com.swookiee.tools.client.SwookieeClientException;
+
+/**
+ * Resolves the dependencies to deploy. Only declared dependencies of a bundle type within the configured scope are
+ * considered; optionally their transitive closure is added. Direct dependencies are resolved concurrently, artifacts
+ * without a Bundle-SymbolicName are dropped. The files of released artifacts and the closures of released dependencies
+ * are remembered in a properties file, so later runs neither resolve nor download them again. The file is shared by
+ * all projects, so a closure is only reused by projects declaring the same exclusions and managed versions.
+ */
+final class DependencyResolution {
+
+    private static final Set<String> BUNDLE_TYPES = new HashSet<>(Arrays.asList("jar", "bundle"));
+    private static final String ARTIFACT = "artifact.";
+    private static final String CLOSURE = "closure.";
+
+    private final ArtifactResolver resolver;
+    private final ArtifactMetadataSource metadataSource;
+    private final ArtifactRepository localRepository;
+    @SuppressWarnings("rawtypes")
+    private final List remoteRepositories;
+    private final Log log;
+
+    private String scope = Artifact.SCOPE_TEST;
+    private boolean transitive;
+    private int threads = 1;
+    private File cacheFile;
+    @SuppressWarnings("rawtypes")
+    private Map managedVersions = Collections.emptyMap();
+
+    private final Properties cache = new Properties();
+    private volatile boolean cacheModified;
+    private final Map<File, Long> resolveNanos = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> exclusions = new HashMap<>();
+
+    DependencyResolution(final ArtifactResolver resolver, final ArtifactMetadataSource metadataSource,
+            final ArtifactRepository localRepository, @SuppressWarnings("rawtypes") final List remoteRepositories,
+            final Log log) {
+        this.resolver = resolver;
+        this.metadataSource = metadataSource;
+        this.localRepository = localRepository;
+        this.remoteRepositories = remoteRepositories;
+        this.log = log;
+    }
+
+    /**
+     * @param scope
+     *            the widest Maven scope included, {@code test} includes all scopes
+     */
+    DependencyResolution withScope(final String scope) {
+        this.scope = scope;
+        return this;
+    }
+
+    DependencyResolution withTransitive(final boolean transitive) {
+        this.transitive = transitive;
+        return this;
+    }
+
+    DependencyResolution withThreads(final int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * @param cacheFile
+     *            properties file remembering resolved files between runs, {@code null} disables the cache
+     */
+    DependencyResolution withCache(final File cacheFile) {
+        this.cacheFile = cacheFile;
+        return this;
+    }
+
+    /**
+     * @param managedVersions
+     *            the managed version map of the project, applied to the transitive closure
+     */
+    DependencyResolution withManagedVersions(@SuppressWarnings("rawtypes") final Map managedVersions) {
+        this.managedVersions = managedVersions == null ? Collections.emptyMap() : managedVersions;
+        return this;
+    }
+
+    /**
+     * @return time spent resolving each returned file, missing for files taken from the cache or resolved as part of
+     *         a transitive closure
+     */
+    Map<File, Long> getResolveNanos() {
+        return Collections.unmodifiableMap(resolveNanos);
+    }
+
+    /**
+     * @param artifacts
+     *            the dependency artifacts of the project
+     * @param dependencies
+     *            the declared dependencies, their order is kept
+     * @param projectArtifact
+     *            the artifact of the project, required for transitive resolution
+     * @return the bundle files to deploy
+     */
+    List<File> resolve(final Set<Artifact> artifacts, final List<Dependency> dependencies,
+            final Artifact projectArtifact) {
+        loadCache();
+        final List<Artifact> direct = selectDeclared(artifacts, dependencies);
+        final Collection<File> resolved = transitive ? resolveClosure(direct, projectArtifact) : resolveAll(direct);
+        final List<File> bundles = new ArrayList<>();
+        for (File file : resolved) {
+            if (isBundle(file)) {
+                bundles.add(file);
+            }
+        }
+        saveCache();
+        return bundles;
+    }
+
+    List<Artifact> selectDeclared(final Set<Artifact> artifacts, final List<Dependency> dependencies) {
+        final Map<String, Artifact> byCoordinates = new HashMap<>();
+        for (Artifact artifact : artifacts) {
+            byCoordinates.put(coordinates(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion()),
+                    artifact);
+        }
+        final ArtifactFilter filter = newFilter();
+        final Set<Artifact> selected = new LinkedHashSet<>();
+        for (Dependency dependency : dependencies) {
+            final Artifact artifact = byCoordinates.get(coordinates(dependency.getGroupId(),
+                    dependency.getArtifactId(), dependency.getVersion()));
+            if (artifact != null && filter.include(artifact)) {
+                selected.add(artifact);
+                final Set<String> excluded = new TreeSet<>();
+                for (Exclusion exclusion : dependency.getExclusions()) {
+                    excluded.add(exclusion.getGroupId() + ":" + exclusion.getArtifactId());
+                }
+                exclusions.put(key(artifact), excluded);
+            }
+        }
+        return new ArrayList<>(selected);
+    }
+
+    private ArtifactFilter newFilter() {
+        final AndArtifactFilter filter = new AndArtifactFilter();
+        filter.add(new ScopeArtifactFilter(scope));
+        filter.add(new ArtifactFilter() {
+            @Override
+            public boolean include(final Artifact artifact) {
+                return BUNDLE_TYPES.contains(artifact.getType());
+            }
+        });
+        return filter;
+    }
+
+    /**
+     * Resolves the artifacts not found in the cache concurrently. Artifacts which cannot be resolved are logged and
+     * skipped.
+     */
+    private Collection<File> resolveAll(final List<Artifact> artifacts) {
+        final List<Callable<Void>> resolutions = new ArrayList<>();
+        for (final Artifact artifact : artifacts) {
+            if (fromCache(artifact)) {
+                continue;
+            }
+            resolutions.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    resolveArtifact(artifact);
+                    return null;
+                }
+            });
+        }
+        if (resolutions.size() == 1 || threads == 1) {
+            for (Callable<Void> resolution : resolutions) {
+                try {
+                    resolution.call();
+                } catch (final Exception ex) {
+                    log.error("Could not resolve dependencies: " + ex.getMessage(), ex);
+                }
+            }
+        } else if (!resolutions.isEmpty()) {
+            final ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, resolutions.size()));
+            try {
+                for (Future<Void> resolution : executor.invokeAll(resolutions)) {
+                    resolution.get();
+                }
+            } catch (final ExecutionException ex) {
+                log.error("Could not resolve dependencies: " + ex.getCause().getMessage(), ex.getCause());
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while resolving dependencies");
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        return filesOf(artifacts);
+    }
+
+    private static Collection<File> filesOf(final Collection<Artifact> artifacts) {
+        final Set<File> files = new LinkedHashSet<>();
+        for (Artifact artifact : artifacts) {
+            if (artifact.getFile() != null) {
+                files.add(artifact.getFile());
+            }
+        }
+        return files;
+    }
+
+    private void resolveArtifact(final Artifact artifact) {
+        try {
+            final long start = System.nanoTime();
+            resolver.resolve(artifact, remoteRepositories, localRepository);
+            resolveNanos.put(artifact.getFile(), System.nanoTime() - start);
+            toCache(artifact);
+        } catch (ArtifactResolutionException | ArtifactNotFoundException e) {
+            log.error("Could not resolve dependency: " + artifact.getArtifactId(), e);
+        }
+    }
+
+    /**
+     * @return the files of the direct artifacts followed by the rest of their closure, empty if the closure could not
+     *         be resolved
+     */
+    private Collection<File> resolveClosure(final List<Artifact> direct, final Artifact projectArtifact) {
+        boolean released = true;
+        for (Artifact artifact : direct) {
+            released &= !artifact.isSnapshot();
+        }
+        final String closureKey = closureKey(direct);
+
+        if (released) {
+            final Collection<File> cached = cachedClosure(closureKey, direct);
+            if (cached != null) {
+                log.debug("Using cached dependency closure of " + direct.size() + " dependencies");
+                return cached;
+            }
+        }
+
+        final long start = System.nanoTime();
+        final ArtifactResolutionResult result;
+        try {
+            result = resolver.resolveTransitively(new LinkedHashSet<>(direct), projectArtifact, managedVersions,
+                    localRepository, remoteRepositories, metadataSource, newFilter());
+        } catch (ArtifactResolutionException | ArtifactNotFoundException e) {
+            log.error("Could not resolve transitive dependencies: " + e.getMessage(), e);
+            return Collections.emptyList();
+        }
+        log.info(String.format("Resolved %d dependencies transitively in %d ms", result.getArtifacts().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+
+        final Map<String, Artifact> closure = new LinkedHashMap<>();
+        for (Artifact artifact : direct) {
+            closure.put(key(artifact), artifact);
+        }
+        for (Object resolved : result.getArtifacts()) {
+            final Artifact artifact = (Artifact) resolved;
+            closure.put(key(artifact), artifact);
+            toCache(artifact);
+        }
+        if (released) {
+            cache.setProperty(closureKey, String.join(",", new TreeSet<>(closure.keySet())));
+            cacheModified = true;
+        }
+        return filesOf(closure.values());
+    }
+
+    /**
+     * @return the cache key of the closure of {@code direct}, covering the scope, the direct artifacts, their
+     *         exclusions and the managed versions which shape the closure
+     */
+    String closureKey(final List<Artifact> direct) {
+        final Map<String, Set<String>> directKeys = new TreeMap<>();
+        for (Artifact artifact : direct) {
+            final Set<String> excluded = exclusions.get(key(artifact));
+            directKeys.put(key(artifact), excluded == null ? Collections.<String> emptySet() : excluded);
+        }
+        final Map<String, String> managed = new TreeMap<>();
+        for (Object entry : managedVersions.entrySet()) {
+            final Map.Entry<?, ?> managedVersion = (Map.Entry<?, ?>) entry;
+            final Artifact artifact = (Artifact) managedVersion.getValue();
+            managed.put(String.valueOf(managedVersion.getKey()), artifact.getVersion() + ":" + artifact.getScope());
+        }
+        return CLOSURE + scope + ":" + String.join(",", directKeys.keySet()) + ":"
+                + sha1(directKeys.toString() + managed.toString());
+    }
+
+    /**
+     * @return the files of the direct artifacts followed by the rest of the cached closure, {@code null} if the closure
+     *         or the file of one of its members is not cached
+     */
+    private Collection<File> cachedClosure(final String closureKey, final List<Artifact> direct) {
+        final String members = cache.getProperty(closureKey);
+        if (members == null) {
+            return null;
+        }
+        final Map<String, File> files = new LinkedHashMap<>();
+        for (Artifact artifact : direct) {
+            files.put(key(artifact), null);
+        }
+        for (String member : members.split(",")) {
+            final File file = cachedFile(member);
+            if (file == null) {
+                return null;
+            }
+            files.put(member, file);
+        }
+        return files.containsValue(null) ? null : files.values();
+    }
+
+    private boolean fromCache(final Artifact artifact) {
+        if (artifact.isSnapshot()) {
+            return false;
+        }
+        final File file = cachedFile(key(artifact));
+        if (file == null) {
+            return false;
+        }
+        artifact.setFile(file);
+        artifact.setResolved(true);
+        return true;
+    }
+
+    private File cachedFile(final String key) {
+        final String path = cache.getProperty(ARTIFACT + key);
+        if (path == null) {
+            return null;
+        }
+        final File file = new File(path);
+        return file.isFile() ? file : null;
+    }
+
+    private void toCache(final Artifact artifact) {
+        if (!artifact.isSnapshot() && artifact.getFile() != null) {
+            cache.setProperty(ARTIFACT + key(artifact), artifact.getFile().getAbsolutePath());
+            cacheModified = true;
+        }
+    }
+
+    private boolean isBundle(final File file) {
+        try {
+            if (BundleDescriptor.of(file).getSymbolicName() != null) {
+                return true;
+            }
+            log.debug("Skipping " + file.getName() + " since it is no OSGi bundle");
+        } catch (final SwookieeClientException ex) {
+            log.warn("Skipping " + file.getName() + ": " + ex.getMessage());
+        }
+        return false;
+    }
+
+    private void loadCache() {
+        if (cacheFile == null || !cacheFile.isFile()) {
+            return;
+        }
+        try (InputStream in = new FileInputStream(cacheFile)) {
+            cache.load(in);
+        } catch (final IOException ex) {
+            log.warn("Could not read resolve cache " + cacheFile + ": " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Writes the cache merged with the entries other builds saved in the meantime. The new content is written to a
+     * temporary file first and then moved into place, so concurrent builds never read a partially written cache.
+     */
+    private void saveCache() {
+        if (cacheFile == null || !cacheModified) {
+            return;
+        }
+        final File directory = cacheFile.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            log.warn("Could not create resolve cache directory " + directory);
+            return;
+        }
+        final Properties merged = new Properties();
+        if (cacheFile.isFile()) {
+            try (InputStream in = new FileInputStream(cacheFile)) {
+                merged.load(in);
+            } catch (final IOException ex) {
+                log.debug("Replacing unreadable resolve cache " + cacheFile + ": " + ex.getMessage());
+            }
+        }
+        merged.putAll(cache);
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(cacheFile.getName(), ".tmp", directory);
+            try (OutputStream out = new FileOutputStream(tempFile)) {
+                merged.store(out, "Resolved dependency files of the swookiee deploy plugin");
+            }
+            try {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException ex) {
+            log.warn("Could not write resolve cache " + cacheFile + ": " + ex.getMessage());
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private static String sha1(final String value) {
+        try {
+            final StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-1 is not available", ex);
+        }
+    }
+
+    private static String key(final Artifact artifact) {
+        return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getType() + ":"
+                + (artifact.getClassifier() == null ? "" : artifact.getClassifier()) + ":" + artifact.getVersion();
+    }
+
+    private static String coordinates(final String groupId, final String artifactId, final String version) {
+        return groupId + ":" + artifactId + ":" + version;
+    }
+}
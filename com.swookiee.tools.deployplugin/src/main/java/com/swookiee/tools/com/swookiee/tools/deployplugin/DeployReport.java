@@ -0,0 +1,163 @@
+package com.swookiee.tools.com.swookiee.tools.deployplugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.swookiee.tools.client.BundleInstallResult;
+import com.swookiee.tools.client.ClusterDeployReport;
+import com.swookiee.tools.client.NodeDeployResult;
+
+/**
+ * Per bundle and node breakdown of a deployment into its phases, sorted by total cost. Written as JSON and CSV so CI
+ * jobs can track deployment performance over time.
+ */
+final class DeployReport {
+
+    private static final String[] COLUMNS = { "target", "bundle", "symbolicName", "outcome", "finalState",
+            "resolveMs", "manifestMs", "uninstallMs", "uploadMs", "installMs", "startMs", "totalMs", "bytes" };
+
+    private final long durationMillis;
+    private final List<Row> rows = new ArrayList<>();
+
+    /**
+     * @param resolveNanos
+     *            time spent resolving each bundle, bundles which have not been resolved may be missing
+     */
+    DeployReport(final ClusterDeployReport report, final Map<File, Long> resolveNanos) {
+        this.durationMillis = report.getDurationMillis();
+        for (NodeDeployResult node : report.getNodeResults()) {
+            for (BundleInstallResult result : node.getInstallResults()) {
+                final Long resolve = resolveNanos.get(result.getFile());
+                rows.add(new Row(node.getTarget(), result, resolve == null ? 0 : resolve));
+            }
+        }
+        Collections.sort(rows, new Comparator<Row>() {
+            @Override
+            public int compare(final Row first, final Row second) {
+                return Long.compare(second.totalNanos, first.totalNanos);
+            }
+        });
+    }
+
+    /**
+     * @return one line per bundle and node, the most expensive first
+     */
+    String[] toTable() {
+        final String[] lines = new String[rows.size() + 1];
+        lines[0] = String.format("%-40s %-30s %-9s %-8s %8s %8s %8s %8s %8s %8s %9s %11s", "bundle", "node",
+                "outcome", "state", "resolve", "manifest", "uninst", "upload", "install", "start", "total ms",
+                "bytes");
+        for (int i = 0; i < rows.size(); i++) {
+            final Row row = rows.get(i);
+            lines[i + 1] = String.format("%-40s %-30s %-9s %-8s %8d %8d %8d %8d %8d %8d %9d %11d", row.bundle,
+                    row.target, row.outcome, row.finalState, millis(row.resolveNanos),
+                    millis(row.result.getManifestNanos()), millis(row.result.getUninstallNanos()),
+                    millis(row.result.getUploadNanos()), millis(row.result.getInstallNanos()),
+                    millis(row.result.getStartNanos()), millis(row.totalNanos), row.result.getBytesTransferred());
+        }
+        return lines;
+    }
+
+    void writeCsv(final File file) throws IOException {
+        file.getParentFile().mkdirs();
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+            for (Row row : rows) {
+                final List<String> values = new ArrayList<>();
+                for (Object value : row.toMap().values()) {
+                    values.add(csv(String.valueOf(value)));
+                }
+                writer.write(String.join(",", values));
+                writer.write('\n');
+            }
+        }
+    }
+
+    void writeJson(final File file) throws IOException {
+        file.getParentFile().mkdirs();
+        final Map<String, Object> json = new LinkedHashMap<>();
+        json.put("timestamp", System.currentTimeMillis());
+        json.put("durationMs", durationMillis);
+        final List<Map<String, Object>> bundles = new ArrayList<>();
+        for (Row row : rows) {
+            bundles.add(row.toMap());
+        }
+        json.put("bundles", bundles);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, json);
+    }
+
+    private static String csv(final String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static long millis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Milliseconds with microsecond precision, so fast phases do not vanish in the exported files.
+     */
+    private static double preciseMillis(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos) / 1000.0;
+    }
+
+    private static final class Row {
+
+        private final String target;
+        private final String bundle;
+        private final String outcome;
+        private final String finalState;
+        private final BundleInstallResult result;
+        private final long resolveNanos;
+        private final long totalNanos;
+
+        Row(final String target, final BundleInstallResult result, final long resolveNanos) {
+            this.target = target;
+            this.bundle = result.getFile().getName();
+            this.outcome = !result.isSuccessful() ? "failed" : result.isSkipped() ? "skipped"
+                    : result.isUpdated() ? "updated" : "installed";
+            this.finalState = result.getFinalState() == null ? "UNKNOWN" : result.getFinalState().name();
+            this.result = result;
+            this.resolveNanos = resolveNanos;
+            this.totalNanos = resolveNanos + result.getTotalNanos();
+        }
+
+        /**
+         * @return the values of {@link DeployReport#COLUMNS} in the same order
+         */
+        Map<String, Object> toMap() {
+            final Map<String, Object> map = new LinkedHashMap<>();
+            map.put(COLUMNS[0], target);
+            map.put(COLUMNS[1], bundle);
+            map.put(COLUMNS[2], result.getSymbolicName());
+            map.put(COLUMNS[3], outcome);
+            map.put(COLUMNS[4], finalState);
+            map.put(COLUMNS[5], preciseMillis(resolveNanos));
+            map.put(COLUMNS[6], preciseMillis(result.getManifestNanos()));
+            map.put(COLUMNS[7], preciseMillis(result.getUninstallNanos()));
+            map.put(COLUMNS[8], preciseMillis(result.getUploadNanos()));
+            map.put(COLUMNS[9], preciseMillis(result.getInstallNanos()));
+            map.put(COLUMNS[10], preciseMillis(result.getStartNanos()));
+            map.put(COLUMNS[11], preciseMillis(totalNanos));
+            map.put(COLUMNS[12], result.getBytesTransferred());
+            return map;
+        }
+    }
+}
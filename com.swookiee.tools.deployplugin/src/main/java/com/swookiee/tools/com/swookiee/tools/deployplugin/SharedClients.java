@@ -0,0 +1,197 @@
+package com.swookiee.tools.com.swookiee.tools.deployplugin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.swookiee.tools.client.RequestEvent;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.client.SwookieeClientListener;
+
+/**
+ * Clients shared by all executions of the plugin within one Maven session. Maven keeps the plugin class loader for
+ * the whole reactor build, so modules deploying to the same target reuse the pooled connections and the preemptive
+ * authentication of the first one instead of connecting and authenticating again.
+ * <p/>
+ * Every execution leases the clients it uses and releases them when it is done, so a client is never closed while a
+ * module of a parallel build still deploys with it. A client nobody leases is closed after an idle timeout, which
+ * keeps it open between consecutive modules but not for the rest of a session whose later modules do not deploy. A
+ * shutdown hook closes the clients left when the session ends earlier and is removed once all clients are closed.
+ * <p/>
+ * A shared client reports each request to the listener bound by the execution which sent it, see
+ * {@link #bindListener(SwookieeClientListener)}, so modules of a parallel build do not count each other's requests.
+ */
+final class SharedClients {
+
+    private static final Map<String, SharedClient> CLIENTS = new HashMap<>();
+    private static final InheritableThreadLocal<SwookieeClientListener> EXECUTION_LISTENER =
+            new InheritableThreadLocal<>();
+    private static ScheduledExecutorService closer;
+    private static Thread shutdownHook;
+
+    private SharedClients() {
+    }
+
+    /**
+     * Creates a client for a target.
+     */
+    interface Factory {
+
+        /**
+         * @param listener
+         *            the listener to register with the new client
+         */
+        SwookieeClient create(SwookieeClientListener listener) throws SwookieeClientException;
+    }
+
+    /**
+     * Reports the requests the current thread sends with shared clients to {@code listener} until
+     * {@link #unbindListener()} is called. Threads started by the current thread from now on, like the workers of a
+     * deployment, report to {@code listener} as well.
+     */
+    static void bindListener(final SwookieeClientListener listener) {
+        EXECUTION_LISTENER.set(listener);
+    }
+
+    static void unbindListener() {
+        EXECUTION_LISTENER.remove();
+    }
+
+    /**
+     * Leases the shared client for {@code key}, it stays open until every lease has been given back by
+     * {@link #release(SharedClient, long)}.
+     *
+     * @param key
+     *            identifies the target and every setting the client has been built with
+     * @return the shared client for {@code key}, created by {@code factory} if there is none yet
+     */
+    static synchronized SharedClient lease(final String key, final Factory factory) throws SwookieeClientException {
+        SharedClient shared = CLIENTS.get(key);
+        if (shared == null) {
+            shared = new SharedClient(key, factory.create(new ForwardingListener()));
+            CLIENTS.put(key, shared);
+            if (shutdownHook == null) {
+                shutdownHook = new Thread("swookiee-client-shutdown") {
+                    @Override
+                    public void run() {
+                        closeAll();
+                    }
+                };
+                Runtime.getRuntime().addShutdownHook(shutdownHook);
+            }
+        }
+        if (shared.pendingClose != null) {
+            shared.pendingClose.cancel(false);
+            shared.pendingClose = null;
+        }
+        shared.leases++;
+        return shared;
+    }
+
+    /**
+     * Gives back a lease. The client is closed once it has not been leased again for {@code idleTimeoutMillis}.
+     *
+     * @param idleTimeoutMillis
+     *            milliseconds to keep the client open for further leases, {@code 0} closes it immediately
+     */
+    static synchronized void release(final SharedClient shared, final long idleTimeoutMillis) {
+        if (--shared.leases > 0 || CLIENTS.get(shared.key) != shared) {
+            return;
+        }
+        if (idleTimeoutMillis <= 0) {
+            close(shared);
+            return;
+        }
+        if (closer == null) {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "swookiee-client-closer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            closer = executor;
+        }
+        shared.pendingClose = closer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (SharedClients.class) {
+                    if (shared.leases == 0 && CLIENTS.get(shared.key) == shared) {
+                        close(shared);
+                    }
+                }
+            }
+        }, idleTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    static synchronized void closeAll() {
+        for (SharedClient shared : new ArrayList<>(CLIENTS.values())) {
+            close(shared);
+        }
+    }
+
+    private static void close(final SharedClient shared) {
+        CLIENTS.remove(shared.key);
+        if (shared.pendingClose != null) {
+            shared.pendingClose.cancel(false);
+            shared.pendingClose = null;
+        }
+        shared.getClient().close();
+        if (CLIENTS.isEmpty()) {
+            if (closer != null) {
+                closer.shutdownNow();
+                closer = null;
+            }
+            if (shutdownHook != null && shutdownHook != Thread.currentThread()) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (final IllegalStateException ex) {
+                    // the JVM is already shutting down and runs the hook anyway
+                }
+            }
+            shutdownHook = null;
+        }
+    }
+
+    /**
+     * A shared client and the number of executions currently using it.
+     */
+    static final class SharedClient {
+
+        private final String key;
+        private final SwookieeClient client;
+        private int leases;
+        private ScheduledFuture<?> pendingClose;
+
+        SharedClient(final String key, final SwookieeClient client) {
+            this.key = key;
+            this.client = client;
+        }
+
+        SwookieeClient getClient() {
+            return client;
+        }
+    }
+
+    /**
+     * Forwards events to the listener of the execution whose thread sent the request.
+     */
+    private static final class ForwardingListener implements SwookieeClientListener {
+
+        @Override
+        public void onRequest(final RequestEvent event) {
+            final SwookieeClientListener delegate = EXECUTION_LISTENER.get();
+            if (delegate != null) {
+                delegate.onRequest(event);
+            }
+        }
+    }
+}
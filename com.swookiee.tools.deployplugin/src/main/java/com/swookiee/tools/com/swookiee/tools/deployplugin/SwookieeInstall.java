@@ -1,20 +1,23 @@
 package com.swookiee.tools.com.swookiee.tools.deployplugin;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-
-import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.resolver.ArtifactNotFoundException;
-import org.apache.maven.artifact.resolver.ArtifactResolutionException;
-import org.apache.maven.artifact.resolver.ArtifactResolver;
-import org.apache.maven.model.Dependency;
-import org.apache.maven.plugin.AbstractMojo;
+
 import org.apache.maven.plugin.MojoExecutionException;
 
+import com.swookiee.tools.client.ClientMetrics;
+import com.swookiee.tools.client.ClusterDeployReport;
+import com.swookiee.tools.client.DeployPlan;
+import com.swookiee.tools.client.ForceStrategy;
+import com.swookiee.tools.client.HostAddress;
+import com.swookiee.tools.client.RolloutStrategy;
 import com.swookiee.tools.client.SwookieClientBuilder;
 import com.swookiee.tools.client.SwookieeClient;
 import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.client.SwookieeClientGroup;
+import com.swookiee.tools.client.SwookieeClientListener;
 
 /**
  * 
@@ -24,182 +27,210 @@ import com.swookiee.tools.client.SwookieeClientException;
  * @goal bundle-deploy
  * 
  */
-public class SwookieeInstall extends AbstractMojo {
-
-    /**
-     * Hostname
-     * 
-     * @parameter default-value="localhost"
-     */
-    private String host;
+public class SwookieeInstall extends AbstractSwookieeMojo {
 
     /**
-     * HTTP port of swookiee instance.
+     * Deploy to several swookiee instances instead of {@code host}. Entries are either {@code hostname} or
+     * {@code hostname:port}, IPv6 addresses as {@code [address]:port}; the port defaults to {@code port}.
      * 
-     * @parameter default-value="8080"
+     * @parameter
      */
-    private Integer port;
+    private List<String> hosts;
 
     /**
-     * Admin Username.
+     * How to roll out to {@code hosts}: {@code all-at-once}, {@code batches} or {@code canary-first}. The rollout
+     * stops as soon as a wave contains a failed node.
      * 
-     * @parameter default-value="admin"
+     * @parameter default-value="all-at-once"
      */
-    private String username;
+    private String rolloutStrategy;
 
     /**
-     * Admin Account Password.
+     * Number of hosts deployed to at the same time if {@code rolloutStrategy} is {@code batches}.
      * 
-     * @parameter default-value="admin123"
+     * @parameter default-value="1"
      */
-    private String password;
+    private int rolloutBatchSize;
 
     /**
-     * Hostname of the Proxy.
+     * Number of workers which upload and install bundles concurrently on each host, all hosts of a rollout batch are
+     * deployed to at the same time. Bundles are started in their declared order once all of them are installed.
      * 
-     * @parameter
+     * @parameter default-value="1"
      */
-    private String proxyHost;
+    private int deployThreads;
 
     /**
-     * Port of the Proxy.
+     * Skip bundles whose content did not change since the last successful deployment to this target and which are
+     * still active there.
      * 
-     * @parameter default-value=8080
+     * @parameter default-value="false"
      */
-    private int proxyPort;
+    private boolean incremental;
 
     /**
-     * Make use of Self signed https
+     * Directory holding the per target state used by incremental deployments.
      * 
-     * @parameter default-value="false"
+     * @parameter default-value="${user.home}/.swookiee/deploy-state"
      */
-    private boolean useHttps;
+    private File stateDirectory;
 
     /**
-     * Enable self signed https
+     * Log per operation request counts, latencies and transferred bytes of all nodes after the deployment.
      * 
-     * @parameter default-value="false"
+     * @parameter default-value="true"
      */
-    private boolean useSelfSigned;
+    private boolean reportMetrics;
 
     /**
-     * Do you want to deploy dependencies as well?
+     * Write a per bundle breakdown of the deployment into resolve, manifest, uninstall, upload, install and start
+     * time to {@code swookiee-deploy-report.json} and {@code .csv} in {@code reportDirectory} and log it sorted by
+     * cost.
      * 
-     * @parameter default-value="false"
+     * @parameter default-value="true"
      */
-    private boolean deployDependencies;
+    private boolean deployReport;
 
     /**
-     * The name of the generated JAR file.
+     * Directory the deploy report files are written to if {@code deployReport} is enabled.
      * 
-     * @parameter default-value="${project.build.directory}/${project.build.finalName}.jar"
-     * @required
+     * @parameter default-value="${project.build.directory}"
      */
-    private String bundleFile;
+    private File reportDirectory;
 
     /**
-     * The set of dependencies required by the project
+     * Reuse the clients, their pooled connections and preemptive authentication for all modules of a reactor build
+     * deploying to the same target with the same settings. A client is closed once no module has used it for
+     * {@code sharedClientIdleTimeout} milliseconds, or at the end of the session.
      * 
-     * @parameter default-value="${project.dependencyArtifacts}"
-     * @required
-     * @readonly
+     * @parameter default-value="true"
      */
-    private Set<Artifact> artifacts;
+    private boolean shareClients;
 
     /**
-     * The set of dependencies required by the project
+     * Milliseconds a shared client is kept open after the last module using it finished, so the next module deploying
+     * to the same target can reuse it.
      * 
-     * @parameter default-value="${project.dependencies}
-     * @required
-     * @readonly
+     * @parameter default-value="30000"
      */
-    private List<Dependency> dependencies;
-
-    /** @component */
-    private ArtifactResolver resolver;
-
-    /** @parameter default-value="${localRepository}" */
-    private org.apache.maven.artifact.repository.ArtifactRepository localRepository;
+    private long sharedClientIdleTimeout;
 
-    /** @parameter default-value="${project.remoteArtifactRepositories}" */
-    @SuppressWarnings("rawtypes")
-    private List remoteRepositories;
+    private final List<SharedClients.SharedClient> leasedClients = new ArrayList<>();
 
     @Override
     public void execute() throws MojoExecutionException {
-        try (SwookieeClient swookieeClient = getSwookieeClient()) {
-            deployFile(swookieeClient, this.bundleFile);
-            if (deployDependencies) {
-                deployDependencies(swookieeClient);
+        final RolloutStrategy strategy;
+        try {
+            strategy = RolloutStrategy.valueOf(this.rolloutStrategy, this.rolloutBatchSize);
+        } catch (final IllegalArgumentException ex) {
+            throw new MojoExecutionException(ex.getMessage(), ex);
+        }
+
+        final ForceStrategy forceStrategy = getForceStrategy();
+        final ClientMetrics metrics = this.reportMetrics ? new ClientMetrics() : null;
+        if (metrics != null && this.shareClients) {
+            SharedClients.bindListener(metrics);
+        }
+        try (SwookieeClientGroup clientGroup = getClientGroup(metrics).withForceStrategy(forceStrategy)) {
+            final DeployPlan plan = DeployPlan.of(getBundles());
+            for (String line : plan.describe()) {
+                getLog().info(line);
+            }
+            if (!plan.getCycles().isEmpty()) {
+                getLog().warn("Bundles depending on each other in a cycle are started in arbitrary order");
+            }
+            final ClusterDeployReport report = clientGroup.deploy(plan, strategy);
+            for (String line : report.toTable()) {
+                getLog().info(line);
+            }
+            if (this.deployReport) {
+                writeDeployReport(new DeployReport(report, getResolveNanos()));
+            }
+            if (!report.isSuccessful()) {
+                throw report.getFirstError();
             }
         } catch (final SwookieeClientException ex) {
             getLog().error("Could not deploy bundle: " + ex.getMessage(), ex);
             throw new MojoExecutionException("Could not deploy bundle: " + ex.getMessage(), ex);
+        } catch (final IllegalArgumentException ex) {
+            throw new MojoExecutionException(ex.getMessage(), ex);
+        } finally {
+            SharedClients.unbindListener();
+            for (SharedClients.SharedClient shared : leasedClients) {
+                SharedClients.release(shared, this.sharedClientIdleTimeout);
+            }
+            leasedClients.clear();
+            if (metrics != null && metrics.getRequestCount() > 0) {
+                for (String line : metrics.getSummary()) {
+                    getLog().info(line);
+                }
+            }
         }
     }
 
-    private void deployFile(SwookieeClient swookieeClient, String filePath) throws SwookieeClientException {
-
-        if (filePath == null) {
-            getLog().info("No Path to file given");
-            return;
+    private void writeDeployReport(final DeployReport report) {
+        for (String line : report.toTable()) {
+            getLog().info(line);
         }
-
-        File bundle = new File(filePath);
-        if (bundle != null && bundle.exists()) {
-            forceInstallAndStartBundle(swookieeClient, bundle);
-        } else {
-            getLog().warn("Bundle '" + this.bundleFile + "' could not been found!");
+        try {
+            report.writeJson(new File(this.reportDirectory, "swookiee-deploy-report.json"));
+            report.writeCsv(new File(this.reportDirectory, "swookiee-deploy-report.csv"));
+        } catch (final IOException ex) {
+            getLog().warn("Could not write deploy report to " + this.reportDirectory + ": " + ex.getMessage());
         }
     }
 
-    private void deployDependencies(SwookieeClient swookieeClient) throws SwookieeClientException {
-        for (Dependency dependency : dependencies) {
-            for (Artifact artifact : artifacts) {
-                try {
-                    resolver.resolve(artifact, remoteRepositories, localRepository);
-                    if (equalsDependencyArtefact(dependency, artifact)) {
-                        deployFile(swookieeClient, artifact.getFile().getPath());
-                    }
-                } catch (ArtifactResolutionException | ArtifactNotFoundException e) {
-                    getLog().error("Could not resolve dependency: " + dependency.getArtifactId(), e);
+    private SwookieeClientGroup getClientGroup(final ClientMetrics metrics) throws SwookieeClientException {
+        final List<SwookieeClient> nodes = new ArrayList<>();
+        try {
+            if (this.hosts == null || this.hosts.isEmpty()) {
+                nodes.add(getSwookieeClient(this.host, this.port, metrics));
+            } else {
+                for (String target : this.hosts) {
+                    final HostAddress address = HostAddress.parse(target, this.port);
+                    nodes.add(getSwookieeClient(address.getHostname(), address.getPort(), metrics));
                 }
             }
+        } catch (final SwookieeClientException | RuntimeException ex) {
+            if (!this.shareClients) {
+                for (SwookieeClient node : nodes) {
+                    node.close();
+                }
+            }
+            throw ex;
         }
-    }
 
-    private boolean equalsDependencyArtefact(Dependency dependency, Artifact artifact) {
-        return artifact.getGroupId().equals(dependency.getGroupId())
-                && artifact.getArtifactId().equals(dependency.getArtifactId())
-                && artifact.getVersion().equals(dependency.getVersion());
-    }
-
-    private SwookieeClient getSwookieeClient() throws SwookieeClientException {
-        final SwookieClientBuilder swookieClientBuilder = SwookieClientBuilder.newTarget(this.host)
-                .withPort(this.port)
-                .withUsernamePassword(this.username, this.password);
-        if (this.useSelfSigned) {
-            swookieClientBuilder.enableSelfSignedHttps();
-        }
-        if (this.useHttps) {
-            swookieClientBuilder.enableHttps();
+        final SwookieeClientGroup clientGroup = new SwookieeClientGroup(nodes, !this.shareClients)
+                .withConcurrency(this.deployThreads).withAwaitActive(getActiveTimeout());
+        if (this.incremental) {
+            clientGroup.withStateDirectory(this.stateDirectory);
         }
-        if (this.proxyHost != null) {
-            swookieClientBuilder.withProxy(this.proxyHost, this.proxyPort);
-        }
-        return swookieClientBuilder.create();
+        return clientGroup;
     }
 
-    public void forceInstallAndStartBundle(final SwookieeClient swookieeClient, final File file)
-            throws SwookieeClientException {
-        getLog().info(
-                String.format("Installing %s to %s", file.getAbsolutePath(), swookieeClient.getConfiguredTarget()));
-        final String installedBundle = swookieeClient.installBundle(file, true);
-        try {
-            swookieeClient.startBundle(installedBundle);
-        } catch (Exception ex) {
-            getLog().warn("Could not start Bundle: " + file.toString());
+    private SwookieeClient getSwookieeClient(final String hostname, final Integer hostPort,
+            final ClientMetrics metrics) throws SwookieeClientException {
+        final int defaultMaxConnections = Math.max(2, this.deployThreads);
+        if (!this.shareClients) {
+            final SwookieClientBuilder swookieClientBuilder = newClientBuilder(hostname, hostPort,
+                    defaultMaxConnections);
+            if (metrics != null) {
+                swookieClientBuilder.withListener(metrics);
+            }
+            return swookieClientBuilder.create();
         }
 
+        final SharedClients.SharedClient shared = SharedClients.lease(
+                getClientKey(hostname, hostPort, defaultMaxConnections), new SharedClients.Factory() {
+                    @Override
+                    public SwookieeClient create(final SwookieeClientListener listener)
+                            throws SwookieeClientException {
+                        getLog().debug("Creating shared client for " + hostname + ":" + hostPort);
+                        return newClientBuilder(hostname, hostPort, defaultMaxConnections).withListener(listener)
+                                .create();
+                    }
+                });
+        leasedClients.add(shared);
+        return shared.getClient();
     }
 }
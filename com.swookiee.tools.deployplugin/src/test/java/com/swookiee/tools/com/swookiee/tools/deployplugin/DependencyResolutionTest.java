@@ -0,0 +1,130 @@
+package com.swookiee.tools.com.swookiee.tools.deployplugin;
+
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.resolver.ArtifactResolver;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DependencyResolutionTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void closuresOfProjectsWithOtherExclusionsOrManagedVersionsAreKeptApart() {
+        final String plain = closureKey(dependency(), Collections.emptyMap());
+
+        assertThat(closureKey(dependency(), Collections.emptyMap()), is(plain));
+        assertThat(closureKey(dependency("com.example", "excluded"), Collections.emptyMap()), is(not(plain)));
+        assertThat(closureKey(dependency(), managedVersion("com.example:managed:jar", "2.0.0")), is(not(plain)));
+        assertThat(closureKey(dependency(), managedVersion("com.example:managed:jar", "2.0.0")),
+                is(not(closureKey(dependency(), managedVersion("com.example:managed:jar", "3.0.0")))));
+    }
+
+    @Test
+    public void theCacheIsMergedWithOtherBuildsAndReplacedAtOnce() throws Exception {
+        final File cacheFile = new File(folder.getRoot(), "resolve-cache.properties");
+        final File otherFile = folder.newFile("other.jar");
+        final Properties other = new Properties();
+        other.setProperty("artifact.com.example:other:jar::1.0.0", otherFile.getAbsolutePath());
+        try (OutputStream out = new FileOutputStream(cacheFile)) {
+            other.store(out, null);
+        }
+        final File resolvedFile = folder.newFile("api.jar");
+
+        new DependencyResolution(resolver(resolvedFile), null, null, Collections.emptyList(), new SystemStreamLog())
+                .withCache(cacheFile).resolve(artifacts(), Arrays.asList(dependency()), null);
+
+        final Properties cache = new Properties();
+        try (InputStream in = new FileInputStream(cacheFile)) {
+            cache.load(in);
+        }
+        assertThat(cache.getProperty("artifact.com.example:api:jar::1.0.0"), is(resolvedFile.getAbsolutePath()));
+        assertThat(cache.getProperty("artifact.com.example:other:jar::1.0.0"), is(otherFile.getAbsolutePath()));
+        assertThat(folder.getRoot().list((directory, name) -> name.endsWith(".tmp")), arrayWithSize(0));
+    }
+
+    private String closureKey(final Dependency dependency, @SuppressWarnings("rawtypes") final Map managedVersions) {
+        final DependencyResolution resolution = new DependencyResolution(null, null, null, Collections.emptyList(),
+                new SystemStreamLog()).withManagedVersions(managedVersions);
+        final List<Artifact> direct = resolution.selectDeclared(artifacts(), Arrays.asList(dependency));
+        assertThat(direct.size(), is(1));
+        return resolution.closureKey(direct);
+    }
+
+    private static Set<Artifact> artifacts() {
+        return new HashSet<Artifact>(Arrays.asList(artifact("api", "1.0.0")));
+    }
+
+    private static Artifact artifact(final String artifactId, final String version) {
+        return new DefaultArtifact("com.example", artifactId, VersionRange.createFromVersion(version),
+                Artifact.SCOPE_COMPILE, "jar", null, new DefaultArtifactHandler("jar"));
+    }
+
+    private static Dependency dependency(final String... exclusion) {
+        final Dependency dependency = new Dependency();
+        dependency.setGroupId("com.example");
+        dependency.setArtifactId("api");
+        dependency.setVersion("1.0.0");
+        if (exclusion.length > 0) {
+            final Exclusion excluded = new Exclusion();
+            excluded.setGroupId(exclusion[0]);
+            excluded.setArtifactId(exclusion[1]);
+            dependency.addExclusion(excluded);
+        }
+        return dependency;
+    }
+
+    private static Map<String, Artifact> managedVersion(final String key, final String version) {
+        final Map<String, Artifact> managedVersions = new HashMap<>();
+        managedVersions.put(key, artifact("managed", version));
+        return managedVersions;
+    }
+
+    /**
+     * @return a resolver which resolves every artifact to {@code file}
+     */
+    private static ArtifactResolver resolver(final File file) {
+        return (ArtifactResolver) Proxy.newProxyInstance(ArtifactResolver.class.getClassLoader(),
+                new Class<?>[] { ArtifactResolver.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        if (method.getName().equals("resolve")) {
+                            ((Artifact) args[0]).setFile(file);
+                            ((Artifact) args[0]).setResolved(true);
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
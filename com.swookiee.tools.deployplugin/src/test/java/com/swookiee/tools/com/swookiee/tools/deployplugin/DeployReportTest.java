@@ -0,0 +1,135 @@
+package com.swookiee.tools.com.swookiee.tools.deployplugin;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swookiee.tools.client.ClusterDeployReport;
+import com.swookiee.tools.client.RolloutStrategy;
+import com.swookiee.tools.client.SwookieClientBuilder;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientGroup;
+import com.swookiee.tools.stub.StubFrameworkServer;
+import com.swookiee.tools.stub.SyntheticBundles;
+
+public class DeployReportTest {
+
+    private static final List<String> COLUMNS = Arrays.asList("target", "bundle", "symbolicName", "outcome",
+            "finalState", "resolveMs", "manifestMs", "uninstallMs", "uploadMs", "installMs", "startMs", "totalMs",
+            "bytes");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StubFrameworkServer stub;
+    private SwookieeClientGroup group;
+    private File cheap;
+    private File expensive;
+    private String target;
+    private ClusterDeployReport deployment;
+
+    @Before
+    public void setUp() throws Exception {
+        stub = StubFrameworkServer.start();
+        final SwookieeClient client = SwookieClientBuilder.newTarget("127.0.0.1").withPort(stub.getPort()).create();
+        group = new SwookieeClientGroup(Arrays.asList(client));
+        target = "http://127.0.0.1:" + stub.getPort();
+        cheap = SyntheticBundles.create(folder.getRoot(), "com.example.cheap", "1.0.0", 512);
+        final File generated = SyntheticBundles.create(folder.getRoot(), "com.example.expensive", "1.0.0", 512);
+        expensive = new File(folder.getRoot(), "expensive,\"quoted\".jar");
+        Files.move(generated.toPath(), expensive.toPath());
+        deployment = group.deploy(Arrays.asList(cheap, expensive), RolloutStrategy.allAtOnce());
+    }
+
+    @After
+    public void tearDown() {
+        group.close();
+        stub.close();
+    }
+
+    @Test
+    public void bundlesAreSortedByTotalCostIncludingResolveTime() {
+        final DeployReport report = new DeployReport(deployment, resolveNanos(1500));
+
+        final String[] table = report.toTable();
+
+        assertThat(table.length, is(3));
+        assertThat(table[0], startsWith("bundle"));
+        assertThat(table[1], startsWith(expensive.getName()));
+        assertThat(table[2], startsWith(cheap.getName()));
+    }
+
+    @Test
+    public void jsonContainsOneEntryPerBundleWithAllColumns() throws Exception {
+        final File file = new File(folder.getRoot(), "report/swookiee-deploy-report.json");
+
+        new DeployReport(deployment, resolveNanos(1500)).writeJson(file);
+
+        final JsonNode json = new ObjectMapper().readTree(file);
+        assertThat(json.get("durationMs").asLong(), is(deployment.getDurationMillis()));
+        assertThat(json.get("bundles").size(), is(2));
+        final JsonNode first = json.get("bundles").get(0);
+        assertThat(fieldNames(first), is(COLUMNS));
+        assertThat(first.get("bundle").asText(), is(expensive.getName()));
+        assertThat(first.get("symbolicName").asText(), is("com.example.expensive"));
+        assertThat(first.get("target").asText(), is(target));
+        assertThat(first.get("outcome").asText(), is("installed"));
+        assertThat(first.get("finalState").asText(), is("ACTIVE"));
+        assertThat(first.get("resolveMs").asDouble(), is(1500.25));
+        assertThat(first.get("bytes").asLong(), is(expensive.length()));
+        assertThat(json.get("bundles").get(1).get("resolveMs").asDouble(), is(0.0));
+    }
+
+    @Test
+    public void csvHasHeaderAndQuotesValues() throws Exception {
+        final File file = new File(folder.getRoot(), "report/swookiee-deploy-report.csv");
+
+        new DeployReport(deployment, resolveNanos(1500)).writeCsv(file);
+
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines, hasSize(3));
+        assertThat(lines.get(0), is(String.join(",", COLUMNS)));
+        assertThat(lines.get(1), startsWith(target + ",\"expensive,\"\"quoted\"\".jar\","
+                + "com.example.expensive,installed,ACTIVE,1500.25,"));
+        assertThat(lines.get(2), startsWith(target + "," + cheap.getName()
+                + ",com.example.cheap,installed,ACTIVE,0.0,"));
+    }
+
+    /**
+     * Makes resolving {@link #expensive} take the given milliseconds plus 250 microseconds, so it is the most
+     * expensive bundle regardless of the measured phases.
+     */
+    private Map<File, Long> resolveNanos(final long millis) {
+        final Map<File, Long> resolveNanos = new HashMap<>();
+        resolveNanos.put(expensive, TimeUnit.MILLISECONDS.toNanos(millis) + TimeUnit.MICROSECONDS.toNanos(250));
+        return resolveNanos;
+    }
+
+    private static List<String> fieldNames(final JsonNode node) {
+        final List<String> names = new ArrayList<>();
+        for (Iterator<String> it = node.fieldNames(); it.hasNext();) {
+            names.add(it.next());
+        }
+        return names;
+    }
+}
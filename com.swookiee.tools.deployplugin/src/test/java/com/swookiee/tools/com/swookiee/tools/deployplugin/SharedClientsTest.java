@@ -0,0 +1,131 @@
+package com.swookiee.tools.com.swookiee.tools.deployplugin;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.swookiee.tools.client.ClientMetrics;
+import com.swookiee.tools.client.SwookieClientBuilder;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.client.SwookieeClientListener;
+import com.swookiee.tools.stub.StubFrameworkServer;
+
+public class SharedClientsTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    private final SharedClients.Factory factory = new SharedClients.Factory() {
+        @Override
+        public SwookieeClient create(final SwookieeClientListener listener) throws SwookieeClientException {
+            created.incrementAndGet();
+            return SwookieClientBuilder.newTarget("127.0.0.1").withPort(1).withListener(listener).create();
+        }
+    };
+
+    @After
+    public void tearDown() {
+        SharedClients.closeAll();
+    }
+
+    @Test
+    public void aClientIsNotClosedWhileAnotherModuleStillLeasesIt() throws Exception {
+        final SharedClients.SharedClient first = SharedClients.lease("target", factory);
+        final SharedClients.SharedClient second = SharedClients.lease("target", factory);
+        assertThat(second, is(sameInstance(first)));
+
+        SharedClients.release(first, 0);
+
+        assertThat(SharedClients.lease("target", factory), is(sameInstance(first)));
+        assertThat(created.get(), is(1));
+    }
+
+    @Test
+    public void aReleasedClientIsReusedWithinTheIdleTimeout() throws Exception {
+        final SharedClients.SharedClient first = SharedClients.lease("target", factory);
+        SharedClients.release(first, 10000);
+
+        assertThat(SharedClients.lease("target", factory), is(sameInstance(first)));
+        assertThat(created.get(), is(1));
+    }
+
+    @Test
+    public void aClientIsClosedOnceItWasIdleForTheTimeout() throws Exception {
+        final SharedClients.SharedClient first = SharedClients.lease("target", factory);
+        SharedClients.release(first, 50);
+        Thread.sleep(500);
+
+        assertThat(SharedClients.lease("target", factory), is(not(sameInstance(first))));
+        assertThat(created.get(), is(2));
+    }
+
+    @Test
+    public void requestsAreReportedToTheExecutionWhichSentThem() throws Exception {
+        try (StubFrameworkServer stub = StubFrameworkServer.start()) {
+            // keeps both executions busy with the same client at the same time
+            stub.setLatency(50);
+            final SharedClients.Factory stubFactory = new SharedClients.Factory() {
+                @Override
+                public SwookieeClient create(final SwookieeClientListener listener) throws SwookieeClientException {
+                    return SwookieClientBuilder.newTarget("127.0.0.1").withPort(stub.getPort())
+                            .withListener(listener).create();
+                }
+            };
+            final ClientMetrics first = new ClientMetrics();
+            final ClientMetrics second = new ClientMetrics();
+            final ExecutorService executions = Executors.newFixedThreadPool(2);
+            try {
+                final Future<?> firstExecution = executions.submit(execution(stubFactory, first, 3));
+                final Future<?> secondExecution = executions.submit(execution(stubFactory, second, 5));
+                firstExecution.get();
+                secondExecution.get();
+            } finally {
+                executions.shutdownNow();
+            }
+
+            assertThat(first.getRequestCount(), is(3L));
+            assertThat(second.getRequestCount(), is(5L));
+        }
+    }
+
+    /**
+     * Imitates a module of a parallel build which sends {@code requests} listings from a worker thread it starts.
+     */
+    private static Callable<Void> execution(final SharedClients.Factory factory, final ClientMetrics metrics,
+            final int requests) {
+        return new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                SharedClients.bindListener(metrics);
+                final SharedClients.SharedClient shared = SharedClients.lease("target", factory);
+                final ExecutorService workers = Executors.newSingleThreadExecutor();
+                try {
+                    workers.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            for (int i = 0; i < requests; i++) {
+                                shared.getClient().getInstalledBundles();
+                            }
+                            return null;
+                        }
+                    }).get();
+                } finally {
+                    workers.shutdownNow();
+                    SharedClients.unbindListener();
+                    SharedClients.release(shared, 0);
+                }
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,261 @@
+package com.swookiee.tools.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.loadtest.LoadRecorder.IntervalSample;
+import com.swookiee.tools.stub.SyntheticBundles;
+
+/**
+ * Replays a {@link Workload} against one or more instances, either at a target rate (open loop) or with a fixed
+ * number of workers each starting the next transaction as soon as the previous one completed (closed loop).
+ * <p>
+ * At a target rate transaction {@code n} is due {@code n / rate} seconds after the start and its latency is measured
+ * from then, not from when a worker got around to sending it. A target which stalls thus shows the delay it caused to
+ * every transaction scheduled meanwhile, instead of a single slow sample (coordinated omission). In the closed loop
+ * there is no schedule, so response and service times are the same.
+ * <p>
+ * Every worker cycles its own synthetic bundle, {@code com.swookiee.load.<worker>}, through install, start and
+ * uninstall.
+ */
+final class LoadGenerator {
+
+    private final List<SwookieeClient> clients;
+    private final Workload workload;
+    private double rate;
+    private int concurrency = 8;
+    private long warmupMillis;
+    private long durationMillis = 60000;
+    private long reportIntervalMillis = 5000;
+    private int bundleSize = 64 * 1024;
+    private PrintStream out;
+
+    LoadGenerator(final List<SwookieeClient> clients, final Workload workload) {
+        this.clients = clients;
+        this.workload = workload;
+    }
+
+    /**
+     * @param rate
+     *            transactions per second across all workers, {@code 0} runs a closed loop
+     */
+    LoadGenerator withRate(final double rate) {
+        this.rate = rate;
+        return this;
+    }
+
+    /**
+     * @param concurrency
+     *            number of workers, the maximum of transactions in flight
+     */
+    LoadGenerator withConcurrency(final int concurrency) {
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * @param warmupMillis
+     *            how long the workload runs before it is measured
+     * @param durationMillis
+     *            how long the workload is measured
+     */
+    LoadGenerator withDuration(final long warmupMillis, final long durationMillis) {
+        this.warmupMillis = warmupMillis;
+        this.durationMillis = durationMillis;
+        return this;
+    }
+
+    /**
+     * @param out
+     *            receives a line per interval during the measurement, {@code null} for none
+     */
+    LoadGenerator withReporting(final PrintStream out, final long reportIntervalMillis) {
+        this.out = out;
+        this.reportIntervalMillis = reportIntervalMillis;
+        return this;
+    }
+
+    /**
+     * @param bundleSize
+     *            size in bytes of the payload of the cycled bundles
+     */
+    LoadGenerator withBundleSize(final int bundleSize) {
+        this.bundleSize = bundleSize;
+        return this;
+    }
+
+    LoadReport run() throws IOException, InterruptedException {
+        final File workDirectory = Files.createTempDirectory("swookiee-load").toFile();
+        final List<File> bundles = new ArrayList<>();
+        final LoadRecorder recorder = new LoadRecorder();
+        final LoadRecorder warmupRecorder = new LoadRecorder();
+        final ExecutorService workers = Executors.newFixedThreadPool(concurrency, newThreadFactory("load-worker"));
+        final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(
+                newThreadFactory("load-reporter"));
+        try {
+            if (workload.contains(LoadOperation.CYCLE)) {
+                for (int i = 0; i < concurrency; i++) {
+                    bundles.add(SyntheticBundles.create(workDirectory, "com.swookiee.load." + i, "1.0.0", bundleSize));
+                }
+            }
+            final long start = System.nanoTime();
+            final long measureFrom = start + TimeUnit.MILLISECONDS.toNanos(warmupMillis);
+            final long end = measureFrom + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+            final double periodNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+            final AtomicLong slots = new AtomicLong();
+            for (int i = 0; i < concurrency; i++) {
+                final int worker = i;
+                workers.execute(() -> work(worker, bundles.isEmpty() ? null : bundles.get(worker), start,
+                        measureFrom, end, periodNanos, slots, recorder, warmupRecorder));
+            }
+            final long[] lastReport = { measureFrom };
+            final Runnable report = () -> {
+                final long now = System.nanoTime();
+                final IntervalSample sample = recorder.takeInterval(TimeUnit.NANOSECONDS.toMillis(now - measureFrom),
+                        TimeUnit.NANOSECONDS.toMillis(now - lastReport[0]));
+                lastReport[0] = now;
+                if (out != null) {
+                    out.println(sample);
+                }
+            };
+            reporter.scheduleAtFixedRate(report, TimeUnit.NANOSECONDS.toMillis(measureFrom - System.nanoTime())
+                    + reportIntervalMillis, reportIntervalMillis, TimeUnit.MILLISECONDS);
+            workers.shutdown();
+            while (!workers.awaitTermination(1, TimeUnit.SECONDS)) {
+                // transactions due before the end are completed
+            }
+            reporter.shutdown();
+            reporter.awaitTermination(1, TimeUnit.SECONDS);
+            if (System.nanoTime() - lastReport[0] >= TimeUnit.MILLISECONDS.toNanos(1)) {
+                report.run();
+            }
+            final long measuredNanos = Math.max(end, System.nanoTime()) - measureFrom;
+            return new LoadReport(workload, rate, concurrency, warmupMillis, TimeUnit.NANOSECONDS
+                    .toMillis(measuredNanos), recorder);
+        } finally {
+            workers.shutdownNow();
+            reporter.shutdownNow();
+            for (File bundle : bundles) {
+                bundle.delete();
+            }
+            workDirectory.delete();
+        }
+    }
+
+    private void work(final int worker, final File bundle, final long start, final long measureFrom, final long end,
+            final double periodNanos, final AtomicLong slots, final LoadRecorder recorder,
+            final LoadRecorder warmupRecorder) {
+        final SwookieeClient client = clients.get(worker % clients.size());
+        final Random random = ThreadLocalRandom.current();
+        while (!Thread.currentThread().isInterrupted()) {
+            final long intended;
+            if (periodNanos > 0) {
+                intended = start + (long) (slots.getAndIncrement() * periodNanos);
+                if (intended >= end) {
+                    return;
+                }
+                final long now = System.nanoTime();
+                if (now >= end) {
+                    if (intended >= measureFrom) {
+                        recorder.recordUnstarted(now - intended);
+                    }
+                    continue;
+                }
+                parkUntil(intended);
+            } else {
+                intended = System.nanoTime();
+                if (intended >= end) {
+                    return;
+                }
+            }
+            final LoadRecorder target = intended >= measureFrom ? recorder : warmupRecorder;
+            if (workload.next(random) == LoadOperation.CYCLE) {
+                cycle(client, bundle, intended, target);
+            } else {
+                list(client, intended, target);
+            }
+        }
+    }
+
+    private static void cycle(final SwookieeClient client, final File bundle, final long intended,
+            final LoadRecorder recorder) {
+        final long started = System.nanoTime();
+        final String location = step(LoadOperation.INSTALL, recorder, () -> client.installBundle(bundle));
+        boolean failed = location == null;
+        if (!failed) {
+            failed = step(LoadOperation.START, recorder, () -> {
+                client.startBundle(location);
+                return location;
+            }) == null;
+            failed |= step(LoadOperation.UNINSTALL, recorder, () -> {
+                client.uninstallBundle(Long.valueOf(location.substring(location.lastIndexOf('/') + 1)));
+                return location;
+            }) == null;
+        }
+        recorder.recordTransaction(LoadOperation.CYCLE, intended, started, System.nanoTime(), failed);
+    }
+
+    private static void list(final SwookieeClient client, final long intended, final LoadRecorder recorder) {
+        final long started = System.nanoTime();
+        boolean failed = false;
+        try {
+            client.getInstalledBundles();
+        } catch (final SwookieeClientException | RuntimeException ex) {
+            failed = true;
+            recorder.recordError(ex);
+        }
+        recorder.recordTransaction(LoadOperation.LIST, intended, started, System.nanoTime(), failed);
+    }
+
+    /**
+     * @return the result of the step, {@code null} if it failed
+     */
+    private static <T> T step(final LoadOperation operation, final LoadRecorder recorder, final Step<T> step) {
+        final long started = System.nanoTime();
+        try {
+            final T result = step.call();
+            recorder.recordStep(operation, started, System.nanoTime(), null);
+            return result;
+        } catch (final SwookieeClientException | RuntimeException ex) {
+            recorder.recordStep(operation, started, System.nanoTime(), ex);
+            return null;
+        }
+    }
+
+    private static void parkUntil(final long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static ThreadFactory newThreadFactory(final String name) {
+        final AtomicInteger threads = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private interface Step<T> {
+
+        T call() throws SwookieeClientException;
+    }
+}
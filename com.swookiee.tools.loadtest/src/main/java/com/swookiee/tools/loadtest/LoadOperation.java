@@ -0,0 +1,32 @@
+package com.swookiee.tools.loadtest;
+
+import java.util.Locale;
+
+/**
+ * What the load generator measures. Transactions are scheduled by the generator and measured from their intended
+ * start, the steps of a cycle are measured from when they are sent.
+ */
+enum LoadOperation {
+
+    /** Installs, starts and uninstalls a synthetic bundle. */
+    CYCLE(true),
+    /** Lists all installed bundles. */
+    LIST(true),
+    INSTALL(false),
+    START(false),
+    UNINSTALL(false);
+
+    private final boolean transaction;
+
+    private LoadOperation(final boolean transaction) {
+        this.transaction = transaction;
+    }
+
+    boolean isTransaction() {
+        return transaction;
+    }
+
+    String getName() {
+        return name().toLowerCase(Locale.ENGLISH);
+    }
+}
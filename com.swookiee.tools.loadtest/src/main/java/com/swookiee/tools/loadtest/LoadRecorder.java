@@ -0,0 +1,211 @@
+package com.swookiee.tools.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Collects the latencies and errors of a load test, in total and per reporting interval. Safe to be used by all
+ * workers at once.
+ */
+final class LoadRecorder {
+
+    private static final int MAX_ERROR_MESSAGES = 50;
+
+    private final Map<LoadOperation, OperationStats> operations = new EnumMap<>(LoadOperation.class);
+    private final Map<String, AtomicLong> errorMessages = new ConcurrentHashMap<>();
+    private final AtomicLong unstarted = new AtomicLong();
+    private final AtomicReference<Interval> interval = new AtomicReference<>(new Interval());
+    private final List<IntervalSample> intervals = Collections.synchronizedList(new ArrayList<IntervalSample>());
+
+    LoadRecorder() {
+        for (LoadOperation operation : LoadOperation.values()) {
+            operations.put(operation, new OperationStats());
+        }
+    }
+
+    /**
+     * @param intended
+     *            when the transaction should have started according to the schedule, the latency including the time
+     *            it waited for a free worker is measured from here
+     * @param started
+     *            when the first request of the transaction was sent
+     */
+    void recordTransaction(final LoadOperation operation, final long intended, final long started, final long ended,
+            final boolean failed) {
+        final OperationStats stats = operations.get(operation);
+        stats.responseTime.record(ended - intended);
+        stats.serviceTime.record(ended - started);
+        final Interval current = interval.get();
+        current.responseTime.record(ended - intended);
+        if (failed) {
+            stats.errors.incrementAndGet();
+            current.errors.incrementAndGet();
+        }
+    }
+
+    void recordStep(final LoadOperation operation, final long started, final long ended, final Exception error) {
+        final OperationStats stats = operations.get(operation);
+        stats.serviceTime.record(ended - started);
+        if (error != null) {
+            stats.errors.incrementAndGet();
+            recordError(error);
+        }
+    }
+
+    void recordError(final Exception error) {
+        final String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        AtomicLong count = errorMessages.get(message);
+        if (count == null && errorMessages.size() < MAX_ERROR_MESSAGES) {
+            errorMessages.putIfAbsent(message, new AtomicLong());
+            count = errorMessages.get(message);
+        }
+        if (count != null) {
+            count.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records a transaction which was still waiting for a free worker when the test ended. Its latency is at least the
+     * time it has been waiting, leaving it out would hide exactly the delays an overloaded target causes.
+     */
+    void recordUnstarted(final long waitedNanos) {
+        unstarted.incrementAndGet();
+        interval.get().responseTime.record(waitedNanos);
+    }
+
+    OperationStats getStats(final LoadOperation operation) {
+        return operations.get(operation);
+    }
+
+    long getUnstarted() {
+        return unstarted.get();
+    }
+
+    Map<String, AtomicLong> getErrorMessages() {
+        return errorMessages;
+    }
+
+    /**
+     * Completes the current interval and starts the next one.
+     * 
+     * @param elapsedMillis
+     *            time since the measurement started at the end of the interval
+     * @param intervalMillis
+     *            length of the completed interval
+     */
+    IntervalSample takeInterval(final long elapsedMillis, final long intervalMillis) {
+        final Interval completed = interval.getAndSet(new Interval());
+        final IntervalSample sample = new IntervalSample(elapsedMillis, intervalMillis,
+                completed.responseTime.getCount(), completed.errors.get(),
+                completed.responseTime.getPercentileMillis(50), completed.responseTime.getPercentileMillis(99),
+                completed.responseTime.getMaxMillis());
+        intervals.add(sample);
+        return sample;
+    }
+
+    List<IntervalSample> getIntervals() {
+        synchronized (intervals) {
+            return new ArrayList<>(intervals);
+        }
+    }
+
+    static final class OperationStats {
+
+        private final LoadHistogram responseTime = new LoadHistogram();
+        private final LoadHistogram serviceTime = new LoadHistogram();
+        private final AtomicLong errors = new AtomicLong();
+
+        /**
+         * @return latencies measured from the intended start, only recorded for transactions
+         */
+        LoadHistogram getResponseTime() {
+            return responseTime;
+        }
+
+        /**
+         * @return latencies measured from when the requests were actually sent
+         */
+        LoadHistogram getServiceTime() {
+            return serviceTime;
+        }
+
+        long getCount() {
+            return serviceTime.getCount();
+        }
+
+        long getErrors() {
+            return errors.get();
+        }
+    }
+
+    private static final class Interval {
+
+        private final LoadHistogram responseTime = new LoadHistogram();
+        private final AtomicLong errors = new AtomicLong();
+    }
+
+    /**
+     * Transactions completed within one reporting interval.
+     */
+    static final class IntervalSample {
+
+        private final long elapsedMillis;
+        private final long intervalMillis;
+        private final long transactions;
+        private final long errors;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        IntervalSample(final long elapsedMillis, final long intervalMillis, final long transactions,
+                final long errors, final double p50Millis, final double p99Millis, final double maxMillis) {
+            this.elapsedMillis = elapsedMillis;
+            this.intervalMillis = intervalMillis;
+            this.transactions = transactions;
+            this.errors = errors;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        long getTransactions() {
+            return transactions;
+        }
+
+        long getErrors() {
+            return errors;
+        }
+
+        double getRate() {
+            return intervalMillis == 0 ? 0 : transactions * 1000.0 / intervalMillis;
+        }
+
+        double getP50Millis() {
+            return p50Millis;
+        }
+
+        double getP99Millis() {
+            return p99Millis;
+        }
+
+        double getMaxMillis() {
+            return maxMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%6.1fs %8d tx %9.1f tx/s %6d errors   p50 %8.2f ms   p99 %8.2f ms   max %8.2f ms",
+                    elapsedMillis / 1000.0, transactions, getRate(), errors, p50Millis, p99Millis, maxMillis);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.swookiee.tools.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.swookiee.tools.loadtest.LoadRecorder.IntervalSample;
+import com.swookiee.tools.loadtest.LoadRecorder.OperationStats;
+
+/**
+ * Outcome of a load test: counts, error rates and latency percentiles per transaction and step, plus the reporting
+ * intervals. Printed as a table and exported as JSON and CSV.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = { 50, 75, 90, 95, 99, 99.9, 99.99 };
+
+    private final Workload workload;
+    private final double rate;
+    private final int concurrency;
+    private final long warmupMillis;
+    private final long durationMillis;
+    private final LoadRecorder recorder;
+
+    LoadReport(final Workload workload, final double rate, final int concurrency, final long warmupMillis,
+            final long durationMillis, final LoadRecorder recorder) {
+        this.workload = workload;
+        this.rate = rate;
+        this.concurrency = concurrency;
+        this.warmupMillis = warmupMillis;
+        this.durationMillis = durationMillis;
+        this.recorder = recorder;
+    }
+
+    OperationStats getStats(final LoadOperation operation) {
+        return recorder.getStats(operation);
+    }
+
+    /**
+     * @return the number of measured transactions which have been completed, successfully or not
+     */
+    long getTransactions() {
+        long transactions = 0;
+        for (LoadOperation operation : LoadOperation.values()) {
+            if (operation.isTransaction()) {
+                transactions += recorder.getStats(operation).getCount();
+            }
+        }
+        return transactions;
+    }
+
+    long getErrors() {
+        long errors = 0;
+        for (LoadOperation operation : LoadOperation.values()) {
+            if (operation.isTransaction()) {
+                errors += recorder.getStats(operation).getErrors();
+            }
+        }
+        return errors;
+    }
+
+    double getErrorRate() {
+        final long transactions = getTransactions();
+        return transactions == 0 ? 0 : (double) getErrors() / transactions;
+    }
+
+    /**
+     * @return the number of transactions which were due before the end of the test but never started since all
+     *         workers were busy
+     */
+    long getUnstarted() {
+        return recorder.getUnstarted();
+    }
+
+    double getThroughput() {
+        return durationMillis == 0 ? 0 : getTransactions() * 1000.0 / durationMillis;
+    }
+
+    List<IntervalSample> getIntervals() {
+        return recorder.getIntervals();
+    }
+
+    void print(final PrintStream out) {
+        out.println(String.format(Locale.ENGLISH, "%s, %s, %d workers: %d transactions in %.1f s, %.1f tx/s,"
+                + " %d errors (%.2f%%), %d unstarted", workload, rate > 0 ? String.format(Locale.ENGLISH,
+                "%.1f tx/s target", rate) : "closed loop", concurrency, getTransactions(), durationMillis / 1000.0,
+                getThroughput(), getErrors(), getErrorRate() * 100, getUnstarted()));
+        out.println(String.format("%-10s %-9s %9s %7s %9s %9s %9s %9s %9s %9s", "operation", "latency", "count",
+                "errors", "mean", "p50", "p90", "p99", "p99.9", "max ms"));
+        for (LoadOperation operation : LoadOperation.values()) {
+            final OperationStats stats = recorder.getStats(operation);
+            if (stats.getCount() == 0) {
+                continue;
+            }
+            if (operation.isTransaction()) {
+                print(out, operation, "response", stats.getResponseTime(), stats.getErrors());
+            }
+            print(out, operation, "service", stats.getServiceTime(), stats.getErrors());
+        }
+        if (!recorder.getErrorMessages().isEmpty()) {
+            out.println("Errors:");
+            for (Map.Entry<String, AtomicLong> error : recorder.getErrorMessages().entrySet()) {
+                out.println(String.format("%9d  %s", error.getValue().get(), error.getKey()));
+            }
+        }
+    }
+
+    private static void print(final PrintStream out, final LoadOperation operation, final String latency,
+            final LoadHistogram histogram, final long errors) {
+        out.println(String.format(Locale.ENGLISH, "%-10s %-9s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                operation.getName(), latency, histogram.getCount(), errors, histogram.getMeanMillis(),
+                histogram.getPercentileMillis(50), histogram.getPercentileMillis(90),
+                histogram.getPercentileMillis(99), histogram.getPercentileMillis(99.9), histogram.getMaxMillis()));
+    }
+
+    void writeJson(final File file) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, toMap());
+    }
+
+    /**
+     * Writes one line per reporting interval: seconds since the measurement started, transactions, errors,
+     * transactions per second and response time percentiles in milliseconds.
+     */
+    void writeIntervalsCsv(final File file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.println("seconds,transactions,errors,rate,p50_ms,p99_ms,max_ms");
+            for (IntervalSample sample : getIntervals()) {
+                writer.println(String.format(Locale.ENGLISH, "%.1f,%d,%d,%.2f,%.3f,%.3f,%.3f",
+                        sample.getElapsedMillis() / 1000.0, sample.getTransactions(), sample.getErrors(),
+                        sample.getRate(), sample.getP50Millis(), sample.getP99Millis(), sample.getMaxMillis()));
+            }
+        }
+    }
+
+    private Map<String, Object> toMap() {
+        final Map<String, Object> report = new LinkedHashMap<>();
+        report.put("workload", workload.toString());
+        report.put("mode", rate > 0 ? "rate" : "concurrency");
+        report.put("targetRate", rate);
+        report.put("concurrency", concurrency);
+        report.put("warmupMillis", warmupMillis);
+        report.put("durationMillis", durationMillis);
+        report.put("transactions", getTransactions());
+        report.put("throughput", getThroughput());
+        report.put("errors", getErrors());
+        report.put("errorRate", getErrorRate());
+        report.put("unstarted", getUnstarted());
+        final Map<String, Object> operations = new LinkedHashMap<>();
+        for (LoadOperation operation : LoadOperation.values()) {
+            final OperationStats stats = recorder.getStats(operation);
+            if (stats.getCount() == 0) {
+                continue;
+            }
+            final Map<String, Object> values = new LinkedHashMap<>();
+            values.put("count", stats.getCount());
+            values.put("errors", stats.getErrors());
+            values.put("errorRate", (double) stats.getErrors() / stats.getCount());
+            if (operation.isTransaction()) {
+                values.put("responseTimeMillis", toMap(stats.getResponseTime()));
+            }
+            values.put("serviceTimeMillis", toMap(stats.getServiceTime()));
+            operations.put(operation.getName(), values);
+        }
+        report.put("operations", operations);
+        final List<Map<String, Object>> intervals = new ArrayList<>();
+        for (IntervalSample sample : getIntervals()) {
+            final Map<String, Object> values = new LinkedHashMap<>();
+            values.put("elapsedMillis", sample.getElapsedMillis());
+            values.put("transactions", sample.getTransactions());
+            values.put("errors", sample.getErrors());
+            values.put("rate", sample.getRate());
+            values.put("p50Millis", sample.getP50Millis());
+            values.put("p99Millis", sample.getP99Millis());
+            values.put("maxMillis", sample.getMaxMillis());
+            intervals.add(values);
+        }
+        report.put("intervals", intervals);
+        final Map<String, Long> errors = new LinkedHashMap<>();
+        for (Map.Entry<String, AtomicLong> error : recorder.getErrorMessages().entrySet()) {
+            errors.put(error.getKey(), error.getValue().get());
+        }
+        report.put("errorMessages", errors);
+        return report;
+    }
+
+    private static Map<String, Object> toMap(final LoadHistogram histogram) {
+        final Map<String, Object> values = new LinkedHashMap<>();
+        values.put("mean", histogram.getMeanMillis());
+        for (double percentile : PERCENTILES) {
+            values.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile)
+                    : String.valueOf(percentile)), histogram.getPercentileMillis(percentile));
+        }
+        values.put("max", histogram.getMaxMillis());
+        return values;
+    }
+}
@@ -0,0 +1,272 @@
+package com.swookiee.tools.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.swookiee.tools.client.HostAddress;
+import com.swookiee.tools.client.RetryPolicy;
+import com.swookiee.tools.client.SwookieClientBuilder;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.stub.StubFrameworkServer;
+
+/**
+ * Entry point of the shaded load test jar. Replays a workload of bundle cycles and listings against one or more
+ * swookiee instances, or an in-process stub, and reports latency percentiles and error rates.
+ * <p>
+ * <code>java -jar target/swookiee-loadtest.jar --host node1 --rate 50 --duration 600 --output soak.json</code><br>
+ * <code>java -jar target/swookiee-loadtest.jar --stub --workload list --concurrency 32</code>
+ */
+public final class SwookieeLoadTest {
+
+    private static final String USAGE = "Usage: java -jar swookiee-loadtest.jar [options]\n\n"
+            + "Replays a workload at a target rate or, without --rate, with a fixed number of workers.\n\n"
+            + "Options:\n"
+            + "  --host <host[:port]>       target instance, IPv6 addresses as [addr]:port, repeat for several\n"
+            + "                             instances (default localhost)\n"
+            + "  --port <port>              port of hosts given without one (default 8080)\n"
+            + "  --user <name>              user name (default admin)\n"
+            + "  --password <password>      password (default admin123)\n"
+            + "  --https                    use https\n"
+            + "  --self-signed              use https and accept self signed certificates\n"
+            + "  --stub                     target an in-process stub server instead of --host\n"
+            + "  --stub-bundles <n>         bundles installed on the stub (default 100)\n"
+            + "  --stub-latency <ms>        latency the stub adds to every request (default 0)\n"
+            + "  --workload <mix>           weighted transactions, cycle installs, starts and uninstalls a bundle,\n"
+            + "                             list lists all bundles (default cycle=1,list=1)\n"
+            + "  --rate <tx/s>              transactions per second, 0 runs a closed loop (default 0)\n"
+            + "  --concurrency <n>          workers, the maximum of transactions in flight (default 8)\n"
+            + "  --warmup <s>               seconds to run before measuring (default 10)\n"
+            + "  --duration <s>             seconds to measure (default 60)\n"
+            + "  --bundle-size <KB>         payload of the cycled bundles (default 64)\n"
+            + "  --report-interval <s>      seconds between progress lines (default 5)\n"
+            + "  --output <file>            export the results as JSON\n"
+            + "  --intervals <file>         export the progress lines as CSV\n"
+            + "  --max-error-rate <ratio>   error rate still considered successful (default 0)\n"
+            + "  --help                     print this help\n";
+
+    private final List<String> hosts = new ArrayList<>();
+    private final List<HostAddress> targets = new ArrayList<>();
+    private int port = 8080;
+    private String username = "admin";
+    private String password = "admin123";
+    private boolean https;
+    private boolean selfSigned;
+    private boolean stub;
+    private int stubBundles = 100;
+    private int stubLatency;
+    private Workload workload = Workload.parse("cycle=1,list=1");
+    private double rate;
+    private int concurrency = 8;
+    private int warmup = 10;
+    private int duration = 60;
+    private int bundleSize = 64;
+    private int reportInterval = 5;
+    private File output;
+    private File intervals;
+    private double maxErrorRate;
+
+    private SwookieeLoadTest() {
+    }
+
+    public static void main(final String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @return the exit code: {@code 0} on success, {@code 1} if the error rate exceeded the maximum and {@code 2} on
+     *         invalid arguments
+     */
+    static int run(final String[] args, final PrintStream out, final PrintStream err) {
+        final SwookieeLoadTest loadTest = new SwookieeLoadTest();
+        try {
+            if (!loadTest.parse(Arrays.asList(args))) {
+                out.print(USAGE);
+                return 0;
+            }
+        } catch (final IllegalArgumentException ex) {
+            err.println(ex.getMessage());
+            err.print(USAGE);
+            return 2;
+        }
+        return loadTest.execute(out, err);
+    }
+
+    /**
+     * @return {@code false} if help has been requested
+     */
+    private boolean parse(final List<String> args) {
+        for (int i = 0; i < args.size(); i++) {
+            final String arg = args.get(i);
+            switch (arg) {
+            case "--help":
+                return false;
+            case "--https":
+                https = true;
+                break;
+            case "--self-signed":
+                selfSigned = true;
+                break;
+            case "--stub":
+                stub = true;
+                break;
+            default:
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unexpected argument " + arg);
+                }
+                if (i + 1 == args.size()) {
+                    throw new IllegalArgumentException("Missing value of " + arg);
+                }
+                option(arg, args.get(++i));
+            }
+        }
+        if (hosts.isEmpty()) {
+            hosts.add("localhost");
+        }
+        for (String host : hosts) {
+            targets.add(HostAddress.parse(host, port));
+        }
+        if (concurrency < 1 || rate < 0 || duration < 1 || warmup < 0 || reportInterval < 1) {
+            throw new IllegalArgumentException("--concurrency, --duration and --report-interval must be positive,"
+                    + " --rate and --warmup must not be negative");
+        }
+        return true;
+    }
+
+    private void option(final String name, final String value) {
+        switch (name) {
+        case "--host":
+            hosts.add(value);
+            break;
+        case "--port":
+            port = number(name, value);
+            break;
+        case "--user":
+            username = value;
+            break;
+        case "--password":
+            password = value;
+            break;
+        case "--stub-bundles":
+            stubBundles = number(name, value);
+            break;
+        case "--stub-latency":
+            stubLatency = number(name, value);
+            break;
+        case "--workload":
+            workload = Workload.parse(value);
+            break;
+        case "--rate":
+            rate = decimal(name, value);
+            break;
+        case "--concurrency":
+            concurrency = number(name, value);
+            break;
+        case "--warmup":
+            warmup = number(name, value);
+            break;
+        case "--duration":
+            duration = number(name, value);
+            break;
+        case "--bundle-size":
+            bundleSize = number(name, value);
+            break;
+        case "--report-interval":
+            reportInterval = number(name, value);
+            break;
+        case "--output":
+            output = new File(value);
+            break;
+        case "--intervals":
+            intervals = new File(value);
+            break;
+        case "--max-error-rate":
+            maxErrorRate = decimal(name, value);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown option " + name);
+        }
+    }
+
+    private static int number(final String name, final String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value of " + name + ": " + value, ex);
+        }
+    }
+
+    private static double decimal(final String name, final String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (final NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value of " + name + ": " + value, ex);
+        }
+    }
+
+    private int execute(final PrintStream out, final PrintStream err) {
+        final List<SwookieeClient> clients = new ArrayList<>();
+        StubFrameworkServer stubServer = null;
+        try {
+            if (stub) {
+                stubServer = StubFrameworkServer.start(0, Math.max(16, concurrency));
+                stubServer.addBundles(stubBundles);
+                stubServer.setLatency(stubLatency);
+                clients.add(newClient(HostAddress.parse("127.0.0.1", stubServer.getPort())));
+            } else {
+                for (HostAddress target : targets) {
+                    clients.add(newClient(target));
+                }
+            }
+            final LoadReport report = new LoadGenerator(clients, workload).withRate(rate)
+                    .withConcurrency(concurrency).withDuration(warmup * 1000L, duration * 1000L)
+                    .withBundleSize(bundleSize * 1024).withReporting(out, reportInterval * 1000L).run();
+            report.print(out);
+            if (output != null) {
+                report.writeJson(output);
+            }
+            if (intervals != null) {
+                report.writeIntervalsCsv(intervals);
+            }
+            return report.getErrorRate() > maxErrorRate ? 1 : 0;
+        } catch (final SwookieeClientException | IllegalArgumentException ex) {
+            err.println("Could not create client: " + ex.getMessage());
+            return 2;
+        } catch (final IOException ex) {
+            err.println("Load test failed: " + ex.getMessage());
+            return 1;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            err.println("Interrupted");
+            return 1;
+        } finally {
+            for (SwookieeClient client : clients) {
+                client.close();
+            }
+            if (stubServer != null) {
+                stubServer.close();
+            }
+        }
+    }
+
+    /**
+     * Retries and the circuit breaker are disabled, every failure of the target is to be seen in the results. Every
+     * worker may hold a connection to every host.
+     */
+    private SwookieeClient newClient(final HostAddress target) throws SwookieeClientException {
+        final SwookieClientBuilder builder = SwookieClientBuilder.newTarget(target.getHostname())
+                .withPort(target.getPort());
+        builder.withMaxConnections(Math.max(2, concurrency)).withRetryPolicy(RetryPolicy.none())
+                .withCircuitBreaker(0, 0);
+        if (selfSigned) {
+            builder.enableSelfSignedHttps();
+        } else if (https) {
+            builder.enableHttps();
+        }
+        return builder.withUsernamePassword(username, password).create();
+    }
+}
@@ -0,0 +1,92 @@
+package com.swookiee.tools.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The weighted mix of transactions the generator draws from, e.g. {@code cycle=1,list=4} for four listings per
+ * install/start/uninstall cycle.
+ */
+final class Workload {
+
+    private final Map<LoadOperation, Integer> weights;
+    private final LoadOperation[] operations;
+    private final int[] cumulativeWeights;
+
+    private Workload(final Map<LoadOperation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new LoadOperation[weights.size()]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * @param spec
+     *            comma separated {@code transaction=weight} pairs, a transaction without weight counts once
+     * @throws IllegalArgumentException
+     *             if a transaction is unknown, a weight invalid or the mix is empty
+     */
+    static Workload parse(final String spec) {
+        final Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String part : spec.split(",")) {
+            final String[] pair = part.trim().split("=", 2);
+            final LoadOperation operation;
+            try {
+                operation = LoadOperation.valueOf(pair[0].trim().toUpperCase(Locale.ENGLISH));
+            } catch (final IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown transaction: " + pair[0], ex);
+            }
+            if (!operation.isTransaction()) {
+                throw new IllegalArgumentException("Unknown transaction: " + pair[0]);
+            }
+            final int weight;
+            try {
+                weight = pair.length == 1 ? 1 : Integer.parseInt(pair[1].trim());
+            } catch (final NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid weight of " + pair[0] + ": " + pair[1], ex);
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("Invalid weight of " + pair[0] + ": " + pair[1]);
+            }
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Empty workload: " + spec);
+        }
+        return new Workload(weights);
+    }
+
+    LoadOperation next(final Random random) {
+        final int drawn = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (drawn < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    boolean contains(final LoadOperation operation) {
+        return weights.containsKey(operation);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder spec = new StringBuilder();
+        for (Map.Entry<LoadOperation, Integer> weight : weights.entrySet()) {
+            if (spec.length() > 0) {
+                spec.append(',');
+            }
+            spec.append(weight.getKey().getName()).append('=').append(weight.getValue());
+        }
+        return spec.toString();
+    }
+}
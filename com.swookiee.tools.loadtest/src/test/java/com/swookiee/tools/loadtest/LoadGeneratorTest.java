@@ -0,0 +1,90 @@
+package com.swookiee.tools.loadtest;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.swookiee.tools.client.RetryPolicy;
+import com.swookiee.tools.client.SwookieClientBuilder;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.stub.StubFrameworkServer;
+
+public class LoadGeneratorTest {
+
+    private StubFrameworkServer stub;
+    private SwookieeClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        stub = StubFrameworkServer.start();
+        client = SwookieClientBuilder.newTarget("127.0.0.1").withPort(stub.getPort()).withMaxConnections(8)
+                .withRetryPolicy(RetryPolicy.none()).create();
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        stub.close();
+    }
+
+    @Test
+    public void cyclesAndListingsAreRunAtTheTargetRate() throws Exception {
+        final LoadReport report = new LoadGenerator(Collections.singletonList(client),
+                Workload.parse("cycle=1,list=1")).withRate(200).withConcurrency(4).withDuration(200, 1000)
+                .withBundleSize(1024).run();
+
+        assertThat(report.getTransactions() + report.getUnstarted(), is(200L));
+        assertThat(report.getErrors(), is(0L));
+        final long cycles = report.getStats(LoadOperation.CYCLE).getCount();
+        assertThat(report.getStats(LoadOperation.UNINSTALL).getCount(), is(cycles));
+        assertThat(stub.getInstallCount(), greaterThanOrEqualTo(cycles));
+        assertThat(stub.getBundles().size(), is(1));
+    }
+
+    @Test
+    public void latencyIncludesTheDelayOfTransactionsWaitingForAWorker() throws Exception {
+        stub.setLatency(50);
+
+        final LoadReport report = new LoadGenerator(Collections.singletonList(client), Workload.parse("list"))
+                .withRate(100).withConcurrency(1).withDuration(0, 1000).run();
+
+        final LoadRecorder.OperationStats list = report.getStats(LoadOperation.LIST);
+        assertThat(list.getServiceTime().getPercentileMillis(50), is(lessThan(200.0)));
+        assertThat(list.getResponseTime().getPercentileMillis(90), is(greaterThan(400.0)));
+        assertThat(report.getUnstarted(), is(greaterThan(0L)));
+    }
+
+    @Test
+    public void failuresAreCounted() throws Exception {
+        stub.respondWithStatus(500, 3);
+
+        final LoadReport report = new LoadGenerator(Collections.singletonList(client), Workload.parse("list"))
+                .withConcurrency(2).withDuration(0, 300).run();
+
+        assertThat(report.getErrors(), is(3L));
+        assertThat(report.getTransactions(), is(greaterThan(3L)));
+    }
+
+    @Test
+    public void histogramPercentilesAreAccurateWithinOnePercent() {
+        final LoadHistogram histogram = new LoadHistogram();
+        for (int micros = 1; micros <= 100000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        assertThat(histogram.getPercentileMillis(50), is(closeTo(50, 0.5)));
+        assertThat(histogram.getPercentileMillis(99), is(closeTo(99, 1)));
+        assertThat(histogram.getPercentileMillis(100), is(100.0));
+        assertThat(histogram.getMeanMillis(), is(closeTo(50, 0.01)));
+    }
+}
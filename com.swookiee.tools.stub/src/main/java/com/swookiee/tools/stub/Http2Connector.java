@@ -0,0 +1,655 @@
+package com.swookiee.tools.stub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * Serves a handler over cleartext HTTP/2 (h2c). Connections start with an HTTP/1.1 request asking for the upgrade, as
+ * sent by the JDK HTTP client, afterwards any number of concurrent streams share the connection. Request bodies are
+ * received completely before the handler is called on the given executor, responses are sent as they are written
+ * within the flow control windows of the client. Requests without the upgrade are answered with 426.
+ */
+final class Http2Connector implements Closeable {
+
+    private static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final int DATA = 0x0;
+    private static final int HEADERS = 0x1;
+    private static final int PRIORITY = 0x2;
+    private static final int RST_STREAM = 0x3;
+    private static final int SETTINGS = 0x4;
+    private static final int PING = 0x6;
+    private static final int GOAWAY = 0x7;
+    private static final int WINDOW_UPDATE = 0x8;
+    private static final int CONTINUATION = 0x9;
+
+    private static final int FLAG_END_STREAM = 0x1;
+    private static final int FLAG_ACK = 0x1;
+    private static final int FLAG_END_HEADERS = 0x4;
+    private static final int FLAG_PADDED = 0x8;
+    private static final int FLAG_PRIORITY = 0x20;
+
+    private static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+    private static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+    private static final int SETTINGS_MAX_FRAME_SIZE = 0x5;
+
+    private static final int DEFAULT_WINDOW = 65535;
+    private static final int DEFAULT_MAX_FRAME_SIZE = 16384;
+    private static final int MAX_CONCURRENT_STREAMS = 1000;
+    /** Receive window of every stream and the connection, uploads are never throttled by the stub. */
+    private static final int RECEIVE_WINDOW = 16 * 1024 * 1024;
+    private static final int CANCEL = 0x8;
+
+    private final ServerSocket serverSocket;
+    private final HttpHandler handler;
+    private final ExecutorService executor;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "stub-http2-connection");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicLong connectionCount = new AtomicLong();
+
+    Http2Connector(final int port, final HttpHandler handler, final ExecutorService executor) throws IOException {
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.handler = handler;
+        this.executor = executor;
+        final Thread acceptor = new Thread(this::accept, "stub-http2-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the number of connections accepted so far
+     */
+    long getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (final IOException ex) {
+            // closing anyway
+        }
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (final IOException ex) {
+                // closing anyway
+            }
+        }
+        connections.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connectionCount.incrementAndGet();
+                sockets.add(socket);
+                connections.execute(() -> serve(socket));
+            } catch (final IOException | RejectedExecutionException ex) {
+                // closed
+            }
+        }
+    }
+
+    private void serve(final Socket socket) {
+        try (Socket closing = socket) {
+            final InputStream in = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+            final OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+            final UpgradeRequest request = UpgradeRequest.read(in);
+            if (request == null) {
+                return;
+            }
+            if (!request.isUpgrade()) {
+                out.write(("HTTP/1.1 426 Upgrade Required\r\nUpgrade: h2c\r\nConnection: Upgrade, close\r\n"
+                        + "Content-Length: 0\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+                return;
+            }
+            out.write("HTTP/1.1 101 Switching Protocols\r\nConnection: Upgrade\r\nUpgrade: h2c\r\n\r\n"
+                    .getBytes(StandardCharsets.ISO_8859_1));
+            new Session(socket, in, out).run(request);
+        } catch (final IOException ex) {
+            // the client went away
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    private static void readFully(final InputStream in, final byte[] buffer) throws IOException {
+        int read = 0;
+        while (read < buffer.length) {
+            final int count = in.read(buffer, read, buffer.length - read);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+    }
+
+    private static int readInt(final byte[] buffer, final int offset) {
+        return (buffer[offset] & 0xff) << 24 | (buffer[offset + 1] & 0xff) << 16 | (buffer[offset + 2] & 0xff) << 8
+                | buffer[offset + 3] & 0xff;
+    }
+
+    private static byte[] intBytes(final int value) {
+        return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+    }
+
+    /**
+     * One upgraded connection. Frames are read by the connection thread, responses are written by the threads of the
+     * executor, each frame atomically.
+     */
+    private final class Session {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private final Hpack.Decoder decoder = new Hpack.Decoder();
+        private final Map<Integer, Stream> streams = new ConcurrentHashMap<>();
+        /** The send windows, guarded by this session. */
+        private long connectionWindow = DEFAULT_WINDOW;
+        private int initialWindow = DEFAULT_WINDOW;
+        private volatile int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+        private ByteArrayOutputStream headerBlock;
+        private int headerStreamId;
+        private boolean headerEndStream;
+
+        Session(final Socket socket, final InputStream in, final OutputStream out) {
+            this.socket = socket;
+            this.in = in;
+            this.out = out;
+        }
+
+        void run(final UpgradeRequest request) throws IOException {
+            final String settings = request.headers.getFirst("HTTP2-Settings");
+            if (settings != null) {
+                applySettings(Base64.getUrlDecoder().decode(settings.trim()));
+            }
+            final ByteArrayOutputStream serverSettings = new ByteArrayOutputStream();
+            writeSetting(serverSettings, SETTINGS_MAX_CONCURRENT_STREAMS, MAX_CONCURRENT_STREAMS);
+            writeSetting(serverSettings, SETTINGS_INITIAL_WINDOW_SIZE, RECEIVE_WINDOW);
+            writeFrame(SETTINGS, 0, 0, serverSettings.toByteArray());
+            writeFrame(WINDOW_UPDATE, 0, 0, intBytes(RECEIVE_WINDOW - DEFAULT_WINDOW));
+
+            final byte[] preface = new byte[PREFACE.length];
+            readFully(in, preface);
+            if (!Arrays.equals(preface, PREFACE)) {
+                throw new IOException("Invalid connection preface");
+            }
+            final Stream upgraded = new Stream(1, request.method, request.target, request.headers);
+            upgraded.body.write(request.body);
+            streams.put(1, upgraded);
+            dispatch(upgraded);
+
+            final byte[] header = new byte[9];
+            while (true) {
+                try {
+                    readFully(in, header);
+                } catch (final EOFException ex) {
+                    return;
+                }
+                final int length = (header[0] & 0xff) << 16 | (header[1] & 0xff) << 8 | header[2] & 0xff;
+                final int type = header[3] & 0xff;
+                final int flags = header[4] & 0xff;
+                final int streamId = readInt(header, 5) & 0x7fffffff;
+                final byte[] payload = new byte[length];
+                readFully(in, payload);
+                if (type == GOAWAY) {
+                    return;
+                }
+                onFrame(type, flags, streamId, payload);
+            }
+        }
+
+        private void onFrame(final int type, final int flags, final int streamId, final byte[] payload)
+                throws IOException {
+            switch (type) {
+            case DATA:
+                onData(flags, streamId, payload);
+                break;
+            case HEADERS:
+                int offset = 0;
+                int length = payload.length;
+                if ((flags & FLAG_PADDED) != 0) {
+                    offset++;
+                    length -= 1 + (payload[0] & 0xff);
+                }
+                if ((flags & FLAG_PRIORITY) != 0) {
+                    offset += 5;
+                    length -= 5;
+                }
+                headerBlock = new ByteArrayOutputStream();
+                headerBlock.write(payload, offset, length);
+                headerStreamId = streamId;
+                headerEndStream = (flags & FLAG_END_STREAM) != 0;
+                if ((flags & FLAG_END_HEADERS) != 0) {
+                    onHeaders();
+                }
+                break;
+            case CONTINUATION:
+                headerBlock.write(payload, 0, payload.length);
+                if ((flags & FLAG_END_HEADERS) != 0) {
+                    onHeaders();
+                }
+                break;
+            case SETTINGS:
+                if ((flags & FLAG_ACK) == 0) {
+                    applySettings(payload);
+                    writeFrame(SETTINGS, FLAG_ACK, 0, new byte[0]);
+                }
+                break;
+            case PING:
+                if ((flags & FLAG_ACK) == 0) {
+                    writeFrame(PING, FLAG_ACK, 0, payload);
+                }
+                break;
+            case WINDOW_UPDATE:
+                onWindowUpdate(streamId, readInt(payload, 0) & 0x7fffffff);
+                break;
+            case RST_STREAM:
+                final Stream reset = streams.remove(streamId);
+                if (reset != null) {
+                    synchronized (this) {
+                        reset.reset = true;
+                        notifyAll();
+                    }
+                }
+                break;
+            case PRIORITY:
+            default:
+                break;
+            }
+        }
+
+        private void onData(final int flags, final int streamId, final byte[] payload) throws IOException {
+            int offset = 0;
+            int length = payload.length;
+            if ((flags & FLAG_PADDED) != 0) {
+                offset++;
+                length -= 1 + (payload[0] & 0xff);
+            }
+            final boolean endStream = (flags & FLAG_END_STREAM) != 0;
+            if (payload.length > 0) {
+                writeFrame(WINDOW_UPDATE, 0, 0, intBytes(payload.length));
+                if (!endStream) {
+                    writeFrame(WINDOW_UPDATE, 0, streamId, intBytes(payload.length));
+                }
+            }
+            final Stream stream = streams.get(streamId);
+            if (stream == null) {
+                return;
+            }
+            stream.body.write(payload, offset, length);
+            if (endStream) {
+                dispatch(stream);
+            }
+        }
+
+        private void onHeaders() throws IOException {
+            final List<String[]> fields = decoder.decode(headerBlock.toByteArray());
+            headerBlock = null;
+            final Stream existing = streams.get(headerStreamId);
+            if (existing != null) {
+                // trailers
+                if (headerEndStream) {
+                    dispatch(existing);
+                }
+                return;
+            }
+            String method = null;
+            String path = null;
+            final Headers headers = new Headers();
+            for (String[] field : fields) {
+                if (":method".equals(field[0])) {
+                    method = field[1];
+                } else if (":path".equals(field[0])) {
+                    path = field[1];
+                } else if (":authority".equals(field[0])) {
+                    headers.add("Host", field[1]);
+                } else if (!field[0].startsWith(":")) {
+                    headers.add(field[0], field[1]);
+                }
+            }
+            final Stream stream = new Stream(headerStreamId, method, path, headers);
+            streams.put(headerStreamId, stream);
+            if (headerEndStream) {
+                dispatch(stream);
+            }
+        }
+
+        private void applySettings(final byte[] payload) {
+            for (int i = 0; i + 6 <= payload.length; i += 6) {
+                final int id = (payload[i] & 0xff) << 8 | payload[i + 1] & 0xff;
+                final int value = readInt(payload, i + 2);
+                if (id == SETTINGS_INITIAL_WINDOW_SIZE) {
+                    synchronized (this) {
+                        final int delta = value - initialWindow;
+                        initialWindow = value;
+                        for (Stream stream : streams.values()) {
+                            stream.window += delta;
+                        }
+                        notifyAll();
+                    }
+                } else if (id == SETTINGS_MAX_FRAME_SIZE) {
+                    maxFrameSize = value;
+                }
+            }
+        }
+
+        private synchronized void onWindowUpdate(final int streamId, final int increment) {
+            if (streamId == 0) {
+                connectionWindow += increment;
+            } else {
+                final Stream stream = streams.get(streamId);
+                if (stream != null) {
+                    stream.window += increment;
+                }
+            }
+            notifyAll();
+        }
+
+        /**
+         * Waits until both the connection and the stream window permit sending and reserves up to {@code length} bytes
+         * of them.
+         */
+        private synchronized int reserve(final Stream stream, final int length) throws IOException {
+            try {
+                while (!stream.reset && (connectionWindow <= 0 || stream.window <= 0)) {
+                    if (socket.isClosed()) {
+                        throw new IOException("Connection closed");
+                    }
+                    wait(1000);
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the flow control window", ex);
+            }
+            if (stream.reset) {
+                throw new IOException("Stream " + stream.id + " has been reset");
+            }
+            final int reserved = (int) Math.min(Math.min(length, maxFrameSize), Math.min(connectionWindow,
+                    stream.window));
+            connectionWindow -= reserved;
+            stream.window -= reserved;
+            return reserved;
+        }
+
+        private void dispatch(final Stream stream) {
+            final URI uri;
+            try {
+                uri = new URI(stream.path);
+            } catch (final URISyntaxException ex) {
+                stream.resetQuietly();
+                return;
+            }
+            final Http2Exchange exchange = new Http2Exchange(stream.method, uri, stream.headers,
+                    stream.body.toByteArray(), (InetSocketAddress) socket.getLocalSocketAddress(),
+                    (InetSocketAddress) socket.getRemoteSocketAddress(), stream);
+            try {
+                executor.execute(() -> {
+                    try {
+                        handler.handle(exchange);
+                    } catch (final IOException | RuntimeException ex) {
+                        stream.resetQuietly();
+                    } finally {
+                        exchange.close();
+                        streams.remove(stream.id);
+                    }
+                });
+            } catch (final RejectedExecutionException ex) {
+                stream.resetQuietly();
+            }
+        }
+
+        private void writeFrame(final int type, final int flags, final int streamId, final byte[] payload)
+                throws IOException {
+            writeFrame(type, flags, streamId, payload, 0, payload.length);
+        }
+
+        private void writeFrame(final int type, final int flags, final int streamId, final byte[] payload,
+                final int offset, final int length) throws IOException {
+            synchronized (out) {
+                writeFrameHeader(type, flags, streamId, length);
+                out.write(payload, offset, length);
+                out.flush();
+            }
+        }
+
+        private void writeFrameHeader(final int type, final int flags, final int streamId, final int length)
+                throws IOException {
+            out.write(length >>> 16);
+            out.write(length >>> 8);
+            out.write(length);
+            out.write(type);
+            out.write(flags);
+            out.write(intBytes(streamId));
+        }
+
+        private void writeSetting(final ByteArrayOutputStream settings, final int id, final int value) {
+            settings.write(id >>> 8);
+            settings.write(id);
+            settings.write(intBytes(value), 0, 4);
+        }
+
+        /**
+         * A stream opened by the client, the sending side of the exchange handling it.
+         */
+        private final class Stream implements Http2Exchange.ResponseStream {
+
+            private final int id;
+            private final String method;
+            private final String path;
+            private final Headers headers;
+            private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            /** The send window, guarded by the session. */
+            private long window;
+            private volatile boolean reset;
+
+            Stream(final int id, final String method, final String path, final Headers headers) {
+                this.id = id;
+                this.method = method;
+                this.path = path;
+                this.headers = headers;
+                synchronized (Session.this) {
+                    this.window = initialWindow;
+                }
+            }
+
+            @Override
+            public void sendHeaders(final int status, final Headers responseHeaders, final boolean endStream)
+                    throws IOException {
+                final Map<String, List<String>> fields = new LinkedHashMap<>();
+                for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()) {
+                    final String name = header.getKey().toLowerCase(Locale.ENGLISH);
+                    if (!isConnectionSpecific(name)) {
+                        fields.put(name, header.getValue());
+                    }
+                }
+                final byte[] block = Hpack.encode(status, fields);
+                final int frameSize = maxFrameSize;
+                synchronized (out) {
+                    int offset = 0;
+                    boolean first = true;
+                    do {
+                        final int length = Math.min(block.length - offset, frameSize);
+                        final boolean last = offset + length == block.length;
+                        int flags = last ? FLAG_END_HEADERS : 0;
+                        if (first && endStream) {
+                            flags |= FLAG_END_STREAM;
+                        }
+                        writeFrameHeader(first ? HEADERS : CONTINUATION, flags, id, length);
+                        out.write(block, offset, length);
+                        offset += length;
+                        first = false;
+                    } while (offset < block.length);
+                    out.flush();
+                }
+            }
+
+            @Override
+            public void sendData(final byte[] data, final int offset, final int length, final boolean endStream)
+                    throws IOException {
+                if (length == 0) {
+                    if (endStream) {
+                        writeFrame(DATA, FLAG_END_STREAM, id, data, offset, 0);
+                    }
+                    return;
+                }
+                int sent = 0;
+                while (sent < length) {
+                    final int chunk = reserve(this, length - sent);
+                    final boolean last = sent + chunk == length;
+                    writeFrame(DATA, last && endStream ? FLAG_END_STREAM : 0, id, data, offset + sent, chunk);
+                    sent += chunk;
+                }
+            }
+
+            @Override
+            public void reset() throws IOException {
+                writeFrame(RST_STREAM, 0, id, intBytes(CANCEL));
+            }
+
+            void resetQuietly() {
+                try {
+                    reset();
+                } catch (final IOException ex) {
+                    // the client went away
+                }
+            }
+        }
+    }
+
+    private static boolean isConnectionSpecific(final String name) {
+        return "connection".equals(name) || "keep-alive".equals(name) || "transfer-encoding".equals(name)
+                || "upgrade".equals(name) || "proxy-connection".equals(name);
+    }
+
+    /**
+     * The HTTP/1.1 request opening a connection.
+     */
+    private static final class UpgradeRequest {
+
+        private String method;
+        private String target;
+        private final Headers headers = new Headers();
+        private byte[] body = new byte[0];
+
+        /**
+         * @return {@code null} if the connection has been closed before a request arrived
+         */
+        static UpgradeRequest read(final InputStream in) throws IOException {
+            final String requestLine = readLine(in);
+            if (requestLine == null || requestLine.isEmpty()) {
+                return null;
+            }
+            final String[] parts = requestLine.split(" ");
+            if (parts.length != 3) {
+                throw new IOException("Invalid request line: " + requestLine);
+            }
+            final UpgradeRequest request = new UpgradeRequest();
+            request.method = parts[0];
+            request.target = parts[1];
+            String line;
+            while ((line = readLine(in)) != null && !line.isEmpty()) {
+                final int separator = line.indexOf(':');
+                if (separator > 0) {
+                    request.headers.add(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+                }
+            }
+            final String contentLength = request.headers.getFirst("Content-Length");
+            if (contentLength != null) {
+                request.body = new byte[Integer.parseInt(contentLength)];
+                readFully(in, request.body);
+            } else if ("chunked".equalsIgnoreCase(request.headers.getFirst("Transfer-Encoding"))) {
+                request.body = readChunked(in);
+            }
+            request.headers.remove("Content-Length");
+            request.headers.remove("Transfer-Encoding");
+            return request;
+        }
+
+        boolean isUpgrade() {
+            final String upgrade = headers.getFirst("Upgrade");
+            return upgrade != null && "h2c".equalsIgnoreCase(upgrade.trim());
+        }
+
+        private static byte[] readChunked(final InputStream in) throws IOException {
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            while (true) {
+                final String sizeLine = readLine(in);
+                if (sizeLine == null) {
+                    throw new EOFException();
+                }
+                final int extension = sizeLine.indexOf(';');
+                final int size = Integer.parseInt((extension < 0 ? sizeLine : sizeLine.substring(0, extension))
+                        .trim(), 16);
+                if (size == 0) {
+                    String trailer;
+                    while ((trailer = readLine(in)) != null && !trailer.isEmpty()) {
+                        // trailers are ignored
+                    }
+                    return body.toByteArray();
+                }
+                final byte[] chunk = new byte[size];
+                readFully(in, chunk);
+                body.write(chunk);
+                readLine(in);
+            }
+        }
+
+        private static String readLine(final InputStream in) throws IOException {
+            final StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) >= 0) {
+                if (c == '\n') {
+                    final int length = line.length();
+                    if (length > 0 && line.charAt(length - 1) == '\r') {
+                        line.setLength(length - 1);
+                    }
+                    return line.toString();
+                }
+                line.append((char) c);
+            }
+            return line.length() == 0 ? null : line.toString();
+        }
+    }
+}
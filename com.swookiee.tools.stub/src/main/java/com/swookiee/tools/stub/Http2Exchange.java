@@ -0,0 +1,235 @@
+package com.swookiee.tools.stub;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+
+/**
+ * A request received on an HTTP/2 stream, presented to the handlers of the stub like one received by the JDK HTTP
+ * server. The request body has been received completely, the response is sent on the stream as it is written.
+ */
+final class Http2Exchange extends HttpExchange {
+
+    /**
+     * The sending side of the stream the request has been received on.
+     */
+    interface ResponseStream {
+
+        /**
+         * @param headers
+         *            the response headers without pseudo headers
+         */
+        void sendHeaders(int status, Headers headers, boolean endStream) throws IOException;
+
+        void sendData(byte[] data, int offset, int length, boolean endStream) throws IOException;
+
+        /**
+         * Aborts the stream, the HTTP/2 counterpart of closing the connection.
+         */
+        void reset() throws IOException;
+    }
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final String method;
+    private final URI requestUri;
+    private final Headers requestHeaders;
+    private final Headers responseHeaders = new Headers();
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final InetSocketAddress localAddress;
+    private final InetSocketAddress remoteAddress;
+    private final ResponseStream stream;
+    private InputStream requestBody;
+    private OutputStream responseBody;
+    private int responseCode = -1;
+    private boolean finished;
+
+    Http2Exchange(final String method, final URI requestUri, final Headers requestHeaders, final byte[] body,
+            final InetSocketAddress localAddress, final InetSocketAddress remoteAddress, final ResponseStream stream) {
+        this.method = method;
+        this.requestUri = requestUri;
+        this.requestHeaders = requestHeaders;
+        this.requestBody = new ByteArrayInputStream(body);
+        this.localAddress = localAddress;
+        this.remoteAddress = remoteAddress;
+        this.stream = stream;
+        this.responseBody = new DataOutputStream();
+    }
+
+    @Override
+    public Headers getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public Headers getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    @Override
+    public URI getRequestURI() {
+        return requestUri;
+    }
+
+    @Override
+    public String getRequestMethod() {
+        return method;
+    }
+
+    @Override
+    public HttpContext getHttpContext() {
+        return null;
+    }
+
+    /**
+     * Completes the response. If no response has been sent the stream is reset.
+     */
+    @Override
+    public void close() {
+        try {
+            if (responseCode < 0) {
+                finished = true;
+                stream.reset();
+            } else if (!finished) {
+                responseBody.close();
+            }
+        } catch (final IOException ex) {
+            // the client went away
+        }
+    }
+
+    @Override
+    public InputStream getRequestBody() {
+        return requestBody;
+    }
+
+    @Override
+    public OutputStream getResponseBody() {
+        return responseBody;
+    }
+
+    @Override
+    public void sendResponseHeaders(final int status, final long length) throws IOException {
+        if (responseCode >= 0) {
+            throw new IOException("Response headers have already been sent");
+        }
+        responseCode = status;
+        if (length > 0) {
+            responseHeaders.set("Content-Length", String.valueOf(length));
+        }
+        finished = length < 0;
+        stream.sendHeaders(status, responseHeaders, finished);
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public int getResponseCode() {
+        return responseCode;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    @Override
+    public String getProtocol() {
+        return "HTTP/2";
+    }
+
+    @Override
+    public Object getAttribute(final String name) {
+        return attributes.get(name);
+    }
+
+    @Override
+    public void setAttribute(final String name, final Object value) {
+        attributes.put(name, value);
+    }
+
+    @Override
+    public void setStreams(final InputStream in, final OutputStream out) {
+        if (in != null) {
+            requestBody = in;
+        }
+        if (out != null) {
+            responseBody = out;
+        }
+    }
+
+    @Override
+    public HttpPrincipal getPrincipal() {
+        return null;
+    }
+
+    /**
+     * Sends the response body in DATA frames of up to {@link #BUFFER_SIZE} bytes, the last one ends the stream.
+     */
+    private final class DataOutputStream extends OutputStream {
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int count;
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] data, final int offset, final int length) throws IOException {
+            int written = 0;
+            while (written < length) {
+                if (count == buffer.length) {
+                    flushBuffer();
+                }
+                final int chunk = Math.min(length - written, buffer.length - count);
+                System.arraycopy(data, offset + written, buffer, count, chunk);
+                count += chunk;
+                written += chunk;
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            checkOpen();
+            stream.sendData(buffer, 0, count, false);
+            count = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (finished) {
+                return;
+            }
+            checkOpen();
+            finished = true;
+            stream.sendData(buffer, 0, count, true);
+            count = 0;
+        }
+
+        private void checkOpen() throws IOException {
+            if (responseCode < 0) {
+                throw new IOException("Response headers have not been sent");
+            }
+            if (finished) {
+                throw new IOException("Response has already been completed");
+            }
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.swookiee.tools.stub;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.swookiee.runtime.ewok.representation.BundleRepresentation;
+import com.swookiee.runtime.ewok.representation.BundleStatusRepresentation;
+
+/**
+ * Minimal in-process imitation of the RFC-182 bundle resources of a swookiee instance. It keeps the installed bundles
+ * in memory and supports listing, installation, updates, un-installation and state changes. Uploaded content is read and
+ * counted, but not stored. Uploads may be gzip compressed and can be made to fail, see
+ * {@link #failNextUploads(UploadFailure, int)}. The listing carries an ETag which changes with every modification and
+ * is answered with 304 if the client already has the current one. Started bundles can be made to take a while to
+ * become active or to fail their activation, see {@link #setActivationDelay(long)}. The same resources can be served
+ * over HTTP/2 as well, see {@link #startHttp2()}.
+ */
+public final class StubFrameworkServer implements AutoCloseable {
+
+    private static final String FRAMEWORK_BUNDLES = "/framework/bundles";
+    private static final String FRAMEWORK_BUNDLES_REPRESENTATIONS = "/framework/bundles/representations";
+    private static final Pattern FRAMEWORK_BUNDLE = Pattern.compile("/framework/bundle/(\\d+)(/state)?");
+
+    private static final int INSTALLED = 2;
+    private static final int RESOLVED = 4;
+    private static final int STARTING = 8;
+    private static final int ACTIVE = 32;
+
+    /**
+     * Ways an upload can be made to fail.
+     */
+    public enum UploadFailure {
+        /** the connection is closed after the first bytes of the bundle have been read, nothing is installed */
+        DISCONNECT_DURING_UPLOAD,
+        /** the bundle is installed, but the connection is closed instead of sending the response */
+        DISCONNECT_AFTER_INSTALL
+    }
+
+    static {
+        // headers and body are written separately, without TCP_NODELAY every response would wait for a delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<Long, BundleRepresentation> bundles = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong installations = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong modifications = new AtomicLong();
+    private final AtomicLong unauthorized = new AtomicLong();
+    private final Queue<UploadFailure> uploadFailures = new ConcurrentLinkedQueue<>();
+    private final Queue<Integer> statusOverrides = new ConcurrentLinkedQueue<>();
+    private final Map<Long, Long> activations = new ConcurrentHashMap<>();
+    private final Set<String> failingActivations = ConcurrentHashMap.newKeySet();
+    private volatile long latencyMillis;
+    private volatile long activationMillis;
+    private volatile String authorization;
+    private Http2Connector http2;
+
+    private StubFrameworkServer(final int port, final int threads) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 128);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server.setExecutor(executor);
+        this.server.createContext("/framework", this::handle);
+        this.bundles.put(0L, new BundleRepresentation(0, System.currentTimeMillis(), "System Bundle", ACTIVE,
+                "org.eclipse.osgi", "3.10.0"));
+    }
+
+    /**
+     * @return a started server listening on an ephemeral loopback port
+     * @throws IOException
+     *             Will be thrown if the server socket could not be bound
+     */
+    public static StubFrameworkServer start() throws IOException {
+        return start(0, 16);
+    }
+
+    public static StubFrameworkServer start(final int port, final int threads) throws IOException {
+        final StubFrameworkServer stub = new StubFrameworkServer(port, threads);
+        stub.server.start();
+        return stub;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Additionally serves the bundle resources over cleartext HTTP/2 (h2c) on a second ephemeral loopback port, using
+     * the same state and handler threads.
+     *
+     * @return the port of the HTTP/2 connector
+     * @throws IOException
+     *             Will be thrown if the server socket could not be bound
+     */
+    public synchronized int startHttp2() throws IOException {
+        if (http2 == null) {
+            http2 = new Http2Connector(0, this::handle, executor);
+        }
+        return http2.getPort();
+    }
+
+    /**
+     * @return the number of connections accepted by the HTTP/2 connector
+     */
+    public synchronized long getHttp2ConnectionCount() {
+        return http2 == null ? 0 : http2.getConnectionCount();
+    }
+
+    /**
+     * Adds {@code count} installed bundles named {@code com.example.stub.<n>} to the listing.
+     */
+    public void addBundles(final int count) {
+        for (int i = 0; i < count; i++) {
+            final long id = nextId.getAndIncrement();
+            bundles.put(id, new BundleRepresentation(id, System.currentTimeMillis(), "stub-" + id + ".jar", ACTIVE,
+                    "com.example.stub." + id, "1.0.0"));
+        }
+        modifications.incrementAndGet();
+    }
+
+    /**
+     * Removes all bundles except the system bundle.
+     */
+    public void reset() {
+        bundles.keySet().retainAll(Collections.singleton(0L));
+        modifications.incrementAndGet();
+    }
+
+    /**
+     * @param latencyMillis
+     *            artificial delay added to every response
+     */
+    public void setLatency(final long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @param activationMillis
+     *            time started bundles stay {@code STARTING} before they become active, like bundles with a slow
+     *            activator
+     */
+    public void setActivationDelay(final long activationMillis) {
+        this.activationMillis = activationMillis;
+    }
+
+    /**
+     * Makes bundles named {@code symbolicName} fall back to {@code RESOLVED} instead of becoming active once their
+     * activation delay elapsed, like bundles whose activator throws.
+     */
+    public void failActivation(final String symbolicName) {
+        failingActivations.add(symbolicName);
+    }
+
+    /**
+     * Reports {@code state} as the state of bundle {@code id} without validating it, e.g. a code newer frameworks
+     * introduced.
+     */
+    public void setState(final long id, final int state) {
+        final BundleRepresentation bundle = bundles.get(id);
+        bundles.put(id, new BundleRepresentation(id, bundle.getLastModified(), bundle.getLocation(), state,
+                bundle.getSymbolicName(), bundle.getVersion()));
+        modifications.incrementAndGet();
+    }
+
+    /**
+     * Rejects requests without the preemptive basic authentication of {@code username} and {@code password} with
+     * {@code 401}.
+     */
+    public void requireCredentials(final String username, final String password) {
+        this.authorization = "Basic "
+                + Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the number of requests rejected for missing or wrong credentials
+     */
+    public long getUnauthorizedCount() {
+        return unauthorized.get();
+    }
+
+    public List<BundleRepresentation> getBundles() {
+        return new ArrayList<>(bundles.values());
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return bytes of all request bodies as sent over the wire, i.e. compressed if the client compressed them
+     */
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /**
+     * @return number of bundles installed since the server has been started
+     */
+    public long getInstallCount() {
+        return installations.get();
+    }
+
+    /**
+     * @return number of bundles updated in place since the server has been started
+     */
+    public long getUpdateCount() {
+        return updates.get();
+    }
+
+    /**
+     * Makes the next {@code count} uploads fail in the given way.
+     */
+    public void failNextUploads(final UploadFailure failure, final int count) {
+        for (int i = 0; i < count; i++) {
+            uploadFailures.add(failure);
+        }
+    }
+
+    /**
+     * Answers the next {@code count} requests of any kind with {@code status} without processing them, e.g. 503 to
+     * imitate a node which is restarting.
+     */
+    public void respondWithStatus(final int status, final int count) {
+        for (int i = 0; i < count; i++) {
+            statusOverrides.add(status);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (http2 != null) {
+                http2.close();
+            }
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (InputStream body = new CountingInputStream(exchange.getRequestBody())) {
+            delay();
+            completeActivations();
+            final String path = exchange.getRequestURI().getPath();
+            final String method = exchange.getRequestMethod();
+            final Matcher bundlePath = FRAMEWORK_BUNDLE.matcher(path);
+            final String expectedAuthorization = authorization;
+            final Integer statusOverride = statusOverrides.poll();
+            if (expectedAuthorization != null
+                    && !expectedAuthorization.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                unauthorized.incrementAndGet();
+                drain(body);
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"swookiee\"");
+                respond(exchange, 401, "text/plain", new byte[0]);
+            } else if (statusOverride != null) {
+                drain(body);
+                respond(exchange, statusOverride, "text/plain", new byte[0]);
+            } else if (FRAMEWORK_BUNDLES_REPRESENTATIONS.equals(path) && "GET".equals(method)) {
+                list(exchange);
+            } else if (FRAMEWORK_BUNDLES.equals(path) && "POST".equals(method)) {
+                install(exchange, body);
+            } else if (bundlePath.matches()) {
+                handleBundle(exchange, body, Long.parseLong(bundlePath.group(1)), bundlePath.group(2) != null);
+            } else {
+                respond(exchange, 404, "text/plain", new byte[0]);
+            }
+        } catch (final RuntimeException ex) {
+            respond(exchange, 500, "text/plain", String.valueOf(ex.getMessage()).getBytes(StandardCharsets.UTF_8));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void list(final HttpExchange exchange) throws IOException {
+        final String entityTag = "\"" + modifications.get() + "\"";
+        exchange.getResponseHeaders().set("ETag", entityTag);
+        if (entityTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+        } else {
+            respond(exchange, 200, "application/json; charset=UTF-8", mapper.writeValueAsBytes(bundles.values()));
+        }
+    }
+
+    private void install(final HttpExchange exchange, final InputStream body) throws IOException {
+        final UploadFailure failure = uploadFailures.poll();
+        if (failure == UploadFailure.DISCONNECT_DURING_UPLOAD) {
+            body.read(new byte[1024]);
+            abort(exchange);
+            return;
+        }
+        final Manifest manifest = readManifest(exchange, body);
+        if (manifest == null) {
+            respond(exchange, 400, "text/plain", "No manifest".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        final long id = nextId.getAndIncrement();
+        final String location = exchange.getRequestHeaders().getFirst("Content-Location");
+        bundles.put(id, new BundleRepresentation(id, System.currentTimeMillis(), location, INSTALLED, manifest
+                .getMainAttributes().getValue("Bundle-SymbolicName"), manifest.getMainAttributes().getValue(
+                "Bundle-Version")));
+        modifications.incrementAndGet();
+        installations.incrementAndGet();
+        if (failure == UploadFailure.DISCONNECT_AFTER_INSTALL) {
+            abort(exchange);
+            return;
+        }
+        respond(exchange, 200, "text/plain", ("/framework/bundle/" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void update(final HttpExchange exchange, final InputStream body, final BundleRepresentation bundle)
+            throws IOException {
+        final Manifest manifest = readManifest(exchange, body);
+        if (manifest == null) {
+            respond(exchange, 400, "text/plain", "No manifest".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        bundles.put(bundle.getId(), new BundleRepresentation(bundle.getId(), System.currentTimeMillis(), bundle
+                .getLocation(), bundle.getState() == ACTIVE ? ACTIVE : INSTALLED, manifest.getMainAttributes()
+                .getValue("Bundle-SymbolicName"), manifest.getMainAttributes().getValue("Bundle-Version")));
+        modifications.incrementAndGet();
+        updates.incrementAndGet();
+        respond(exchange, 200, "text/plain", new byte[0]);
+    }
+
+    /**
+     * Reads the manifest of an uploaded bundle and discards the remaining content.
+     * 
+     * @return the manifest, {@code null} if the bundle has none
+     */
+    private static Manifest readManifest(final HttpExchange exchange, final InputStream body) throws IOException {
+        final InputStream content = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                ? new GZIPInputStream(new NonClosingInputStream(body)) : body;
+        final Manifest manifest;
+        try (JarInputStream jar = new JarInputStream(new NonClosingInputStream(content))) {
+            manifest = jar.getManifest();
+        }
+        drain(content);
+        drain(body);
+        return manifest;
+    }
+
+    /**
+     * Closing an exchange before the response headers have been sent closes the connection.
+     */
+    private static void abort(final HttpExchange exchange) {
+        exchange.close();
+    }
+
+    private void handleBundle(final HttpExchange exchange, final InputStream body, final long id, final boolean state)
+            throws IOException {
+        final BundleRepresentation bundle = bundles.get(id);
+        final String method = exchange.getRequestMethod();
+        if (bundle == null) {
+            drain(body);
+            respond(exchange, 404, "text/plain", new byte[0]);
+        } else if (state && "PUT".equals(method)) {
+            final BundleStatusRepresentation status = mapper.readValue(body, BundleStatusRepresentation.class);
+            int newState = status.getState();
+            activations.remove(id);
+            if (newState == ACTIVE
+                    && (activationMillis > 0 || failingActivations.contains(bundle.getSymbolicName()))) {
+                newState = STARTING;
+                activations.put(id, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(activationMillis));
+            }
+            bundles.put(id, new BundleRepresentation(id, bundle.getLastModified(), bundle.getLocation(), newState,
+                    bundle.getSymbolicName(), bundle.getVersion()));
+            modifications.incrementAndGet();
+            respond(exchange, 200, "application/json", mapper.writeValueAsBytes(status));
+        } else if (state && "GET".equals(method)) {
+            respond(exchange, 200, "application/json",
+                    mapper.writeValueAsBytes(new BundleStatusRepresentation(bundle.getState(), 0)));
+        } else if (!state && "PUT".equals(method)) {
+            update(exchange, body, bundle);
+        } else if (!state && "DELETE".equals(method)) {
+            bundles.remove(id);
+            modifications.incrementAndGet();
+            respond(exchange, 200, "text/plain", new byte[0]);
+        } else {
+            drain(body);
+            respond(exchange, 405, "text/plain", new byte[0]);
+        }
+    }
+
+    /**
+     * Moves the started bundles whose activation delay elapsed out of {@code STARTING}.
+     */
+    private void completeActivations() {
+        final long now = System.nanoTime();
+        for (Map.Entry<Long, Long> activation : activations.entrySet()) {
+            if (activation.getValue() - now > 0 || !activations.remove(activation.getKey(), activation.getValue())) {
+                continue;
+            }
+            final BundleRepresentation bundle = bundles.get(activation.getKey());
+            if (bundle != null && bundle.getState() == STARTING) {
+                final int state = failingActivations.contains(bundle.getSymbolicName()) ? RESOLVED : ACTIVE;
+                bundles.put(bundle.getId(), new BundleRepresentation(bundle.getId(), bundle.getLastModified(),
+                        bundle.getLocation(), state, bundle.getSymbolicName(), bundle.getVersion()));
+                modifications.incrementAndGet();
+            }
+        }
+    }
+
+    private void delay() {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String contentType,
+            final byte[] body) throws IOException {
+        // the JDK server closes the connection if the request has not been read to its end once the response is
+        // complete, even an empty one only counts as read after it has been read or closed
+        exchange.getRequestBody().close();
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static void drain(final InputStream in) throws IOException {
+        final byte[] buffer = new byte[64 * 1024];
+        while (in.read(buffer) != -1) {
+            // discard
+        }
+    }
+
+    private final class CountingInputStream extends FilterInputStream {
+
+        CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read != -1) {
+                bytesReceived.incrementAndGet();
+            }
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                bytesReceived.addAndGet(read);
+            }
+            return read;
+        }
+    }
+
+    private static final class NonClosingInputStream extends FilterInputStream {
+
+        NonClosingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // the exchange closes the request body
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.swookiee.tools.stub;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+/**
+ * Generates bundle jars with a valid OSGi manifest and an incompressible payload of a given size.
+ */
+public final class SyntheticBundles {
+
+    private SyntheticBundles() {
+    }
+
+    /**
+     * @param directory
+     *            where the jar is written to
+     * @param symbolicName
+     *            Bundle-SymbolicName of the generated bundle, also used as file name
+     * @param version
+     *            Bundle-Version of the generated bundle
+     * @param payloadBytes
+     *            size of the random payload entry
+     * @return the generated jar
+     * @throws IOException
+     *             Will be thrown if the jar could not be written
+     */
+    public static File create(final File directory, final String symbolicName, final String version,
+            final int payloadBytes) throws IOException {
+        final Manifest manifest = new Manifest();
+        final Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attributes.putValue("Bundle-ManifestVersion", "2");
+        attributes.putValue("Bundle-SymbolicName", symbolicName);
+        attributes.putValue("Bundle-Version", version);
+        attributes.putValue("Export-Package", symbolicName + ";version=\"" + version + "\"");
+
+        final File file = new File(directory, symbolicName + "-" + version + ".jar");
+        try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(file), manifest)) {
+            final JarEntry payload = new JarEntry("payload.bin");
+            payload.setMethod(ZipEntry.DEFLATED);
+            jar.putNextEntry(payload);
+            final byte[] chunk = new byte[8192];
+            final Random random = new Random(symbolicName.hashCode());
+            for (int written = 0; written < payloadBytes; written += chunk.length) {
+                random.nextBytes(chunk);
+                jar.write(chunk, 0, Math.min(chunk.length, payloadBytes - written));
+            }
+            jar.closeEntry();
+        }
+        return file;
+    }
+}
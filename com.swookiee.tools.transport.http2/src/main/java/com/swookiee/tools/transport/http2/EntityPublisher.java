@@ -0,0 +1,156 @@
+package com.swookiee.tools.transport.http2;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import org.apache.http.HttpEntity;
+
+/**
+ * Publishes a request entity as written by {@link HttpEntity#writeTo(OutputStream)}, so entities counting or
+ * compressing the body while it is sent keep working. The entity is written on a thread of the given executor which
+ * blocks while the subscriber has no demand, e.g. since the flow control window of the stream is exhausted.
+ */
+final class EntityPublisher implements BodyPublisher {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final HttpEntity entity;
+    private final Executor executor;
+
+    EntityPublisher(final HttpEntity entity, final Executor executor) {
+        this.entity = entity;
+        this.executor = executor;
+    }
+
+    @Override
+    public long contentLength() {
+        return entity.getContentLength() < 0 ? -1 : entity.getContentLength();
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+        final EntitySubscription subscription = new EntitySubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        executor.execute(subscription::write);
+    }
+
+    private final class EntitySubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        /** Guarded by this subscription. */
+        private long demand;
+        private boolean cancelled;
+
+        EntitySubscription(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(final long n) {
+            if (n <= 0) {
+                cancelled = true;
+                subscriber.onError(new IllegalArgumentException("Demand must be positive: " + n));
+            } else {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            notifyAll();
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        void write() {
+            try (OutputStream out = new PublishingOutputStream(this)) {
+                entity.writeTo(out);
+            } catch (final IOException | RuntimeException ex) {
+                if (!isCancelled()) {
+                    subscriber.onError(ex);
+                }
+                return;
+            }
+            if (!isCancelled()) {
+                subscriber.onComplete();
+            }
+        }
+
+        void publish(final ByteBuffer buffer) throws IOException {
+            synchronized (this) {
+                try {
+                    while (demand == 0 && !cancelled) {
+                        wait();
+                    }
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while sending the request body");
+                }
+                if (cancelled) {
+                    throw new IOException("Request body has been cancelled");
+                }
+                demand--;
+            }
+            subscriber.onNext(buffer);
+        }
+    }
+
+    /**
+     * Hands the written bytes to the subscriber in buffers of {@link #BUFFER_SIZE} bytes.
+     */
+    private static final class PublishingOutputStream extends OutputStream {
+
+        private final EntitySubscription subscription;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int count;
+
+        PublishingOutputStream(final EntitySubscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (count == buffer.length) {
+                publish();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(final byte[] data, final int offset, final int length) throws IOException {
+            int written = 0;
+            while (written < length) {
+                if (count == buffer.length) {
+                    publish();
+                }
+                final int chunk = Math.min(length - written, buffer.length - count);
+                System.arraycopy(data, offset + written, buffer, count, chunk);
+                count += chunk;
+                written += chunk;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (count > 0) {
+                publish();
+            }
+        }
+
+        private void publish() throws IOException {
+            final ByteBuffer published = ByteBuffer.wrap(buffer, 0, count);
+            buffer = new byte[BUFFER_SIZE];
+            count = 0;
+            subscription.publish(published);
+        }
+    }
+}
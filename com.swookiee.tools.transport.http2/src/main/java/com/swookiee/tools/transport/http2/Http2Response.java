@@ -0,0 +1,54 @@
+package com.swookiee.tools.transport.http2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+
+/**
+ * A response of the JDK HTTP client presented as HttpCore response. The body is streamed from the connection while it
+ * is read, closing the response releases the stream.
+ */
+final class Http2Response extends BasicHttpResponse implements CloseableHttpResponse {
+
+    private static final HttpVersion HTTP_2 = new HttpVersion(2, 0);
+
+    private final InputStream body;
+
+    Http2Response(final HttpResponse<InputStream> response) {
+        super(new BasicStatusLine(HTTP_2, response.statusCode(), EnglishReasonPhraseCatalog.INSTANCE.getReason(
+                response.statusCode(), Locale.ENGLISH)));
+        this.body = response.body();
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            if (!header.getKey().startsWith(":")) {
+                for (String value : header.getValue()) {
+                    addHeader(header.getKey(), value);
+                }
+            }
+        }
+        final int status = response.statusCode();
+        if (status != HttpStatus.SC_NO_CONTENT && status != HttpStatus.SC_NOT_MODIFIED) {
+            final BasicHttpEntity entity = new BasicHttpEntity();
+            entity.setContent(body);
+            entity.setContentLength(response.headers().firstValueAsLong("content-length").orElse(-1));
+            entity.setContentType(getFirstHeader("Content-Type"));
+            entity.setContentEncoding(getFirstHeader("Content-Encoding"));
+            setEntity(entity);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
@@ -0,0 +1,136 @@
+package com.swookiee.tools.transport.http2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.methods.CloseableHttpResponse;
+
+import com.swookiee.tools.client.SwookieeTransport;
+import com.swookiee.tools.client.TransportSettings;
+
+/**
+ * Sends requests with the JDK HTTP client, which multiplexes all of them over one HTTP/2 connection per target. The
+ * credentials are sent preemptively with every request, the socket timeout applies to every request as a whole.
+ */
+final class Http2Transport implements SwookieeTransport {
+
+    /** Headers the JDK client sets itself or refuses to send. */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "keep-alive", "transfer-encoding", "upgrade");
+
+    private final HttpHost target;
+    private final String baseUri;
+    private final String authorization;
+    private final Duration requestTimeout;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    Http2Transport(final TransportSettings settings) {
+        this.target = settings.getTarget();
+        this.baseUri = target.toURI();
+        this.authorization = settings.getUsername() == null ? null : "Basic "
+                + Base64.getEncoder().encodeToString((settings.getUsername() + ":" + settings.getPassword())
+                        .getBytes(StandardCharsets.UTF_8));
+        this.requestTimeout = settings.getSocketTimeout() > 0 ? Duration.ofMillis(settings.getSocketTimeout())
+                : null;
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "swookiee-http2-" + target.toHostString());
+            thread.setDaemon(true);
+            return thread;
+        });
+        final HttpClient.Builder builder = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NEVER).executor(executor);
+        if (settings.getConnectTimeout() > 0) {
+            builder.connectTimeout(Duration.ofMillis(settings.getConnectTimeout()));
+        }
+        if (settings.getProxy() != null) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(settings.getProxy().getHostName(), settings
+                    .getProxy().getPort())));
+        }
+        if (settings.getSslContext() != null) {
+            builder.sslContext(settings.getSslContext());
+        }
+        this.httpClient = builder.build();
+    }
+
+    @Override
+    public HttpHost getTarget() {
+        return target;
+    }
+
+    @Override
+    public CloseableHttpResponse execute(final HttpRequest request) throws IOException {
+        final java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder(URI.create(baseUri
+                + request.getRequestLine().getUri()));
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        for (Header header : request.getAllHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase(Locale.ENGLISH))) {
+                builder.header(header.getName(), header.getValue());
+            }
+        }
+        if (authorization != null && !request.containsHeader("Authorization")) {
+            builder.header("Authorization", authorization);
+        }
+        builder.method(request.getRequestLine().getMethod(), getBody(request, builder));
+        try {
+            final HttpResponse<InputStream> response = httpClient.send(builder.build(), BodyHandlers
+                    .ofInputStream());
+            return new Http2Response(response);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for "
+                    + request.getRequestLine());
+            interrupted.initCause(ex);
+            throw interrupted;
+        }
+    }
+
+    private BodyPublisher getBody(final HttpRequest request, final java.net.http.HttpRequest.Builder builder) {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return BodyPublishers.noBody();
+        }
+        final HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+        if (entity == null) {
+            return BodyPublishers.noBody();
+        }
+        if (entity.getContentType() != null && !request.containsHeader("Content-Type")) {
+            builder.header("Content-Type", entity.getContentType().getValue());
+        }
+        if (entity.getContentEncoding() != null && !request.containsHeader("Content-Encoding")) {
+            builder.header("Content-Encoding", entity.getContentEncoding().getValue());
+        }
+        return new EntityPublisher(entity, executor);
+    }
+
+    /**
+     * Stops the threads of the transport. The connection itself is closed by the JDK client once it is no longer
+     * referenced.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
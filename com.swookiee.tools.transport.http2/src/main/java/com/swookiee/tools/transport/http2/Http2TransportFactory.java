@@ -0,0 +1,26 @@
+package com.swookiee.tools.transport.http2;
+
+import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.client.SwookieeTransport;
+import com.swookiee.tools.client.SwookieeTransportFactory;
+import com.swookiee.tools.client.TransportSettings;
+
+/**
+ * Creates transports sending all requests of a client as concurrent streams of a single HTTP/2 connection to the
+ * target, instead of one pooled HTTP/1.1 connection per request in flight. Plain http targets are upgraded to
+ * cleartext HTTP/2 (h2c) by the first request, https targets negotiate HTTP/2 via ALPN. Targets which do not support
+ * HTTP/2 are served over HTTP/1.1.
+ * <p>
+ * <code>SwookieClientBuilder.newTarget("node1").withTransport(new Http2TransportFactory()).create()</code>
+ * <p>
+ * Requires Java 11. With {@link com.swookiee.tools.client.SwookieClientBuilder#enableSelfSignedHttps()} self signed
+ * certificates are accepted, but the JDK client still verifies host names unless the system property
+ * {@code jdk.internal.httpclient.disableHostnameVerification} is set.
+ */
+public final class Http2TransportFactory implements SwookieeTransportFactory {
+
+    @Override
+    public SwookieeTransport create(final TransportSettings settings) throws SwookieeClientException {
+        return new Http2Transport(settings);
+    }
+}
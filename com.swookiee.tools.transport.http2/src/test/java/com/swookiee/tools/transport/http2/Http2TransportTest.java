@@ -0,0 +1,88 @@
+package com.swookiee.tools.transport.http2;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.swookiee.runtime.ewok.representation.BundleRepresentation;
+import com.swookiee.tools.client.SwookieClientBuilder;
+import com.swookiee.tools.client.SwookieeClient;
+import com.swookiee.tools.client.SwookieeClientException;
+import com.swookiee.tools.stub.StubFrameworkServer;
+import com.swookiee.tools.stub.SyntheticBundles;
+
+public class Http2TransportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private StubFrameworkServer stub;
+    private SwookieeClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        stub = StubFrameworkServer.start();
+        client = SwookieClientBuilder.newTarget("127.0.0.1").withPort(stub.startHttp2())
+                .withTransport(new Http2TransportFactory()).create();
+    }
+
+    @After
+    public void tearDown() {
+        client.close();
+        stub.close();
+    }
+
+    @Test
+    public void bundleLifecycle() throws Exception {
+        final File file = SyntheticBundles.create(folder.getRoot(), "com.example.http2", "1.0.0", 64 * 1024);
+
+        final String location = client.installBundle(file);
+        assertThat(stub.getBytesReceived(), is(file.length()));
+        client.startBundle(location);
+
+        final List<BundleRepresentation> bundles = client.getInstalledBundles("com.example.http2");
+        assertThat(bundles.size(), is(1));
+        assertThat(bundles.get(0).getState(), is(32));
+
+        client.uninstallBundle(bundles.get(0).getId());
+        assertThat(client.getInstalledBundles("com.example.http2").isEmpty(), is(true));
+    }
+
+    @Test
+    public void concurrentRequestsShareOneConnection() throws Exception {
+        client.getInstalledBundles();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<String>> installations = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                final File file = SyntheticBundles.create(folder.getRoot(), "com.example.http2." + i, "1.0.0",
+                        16 * 1024);
+                installations.add(executor.submit(() -> install(file)));
+            }
+            for (Future<String> installation : installations) {
+                client.startBundle(installation.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(client.getInstalledBundles().size(), is(33));
+        assertThat(stub.getHttp2ConnectionCount(), is(1L));
+    }
+
+    private String install(final File file) throws SwookieeClientException {
+        return client.installBundle(file);
+    }
+}